@@ -0,0 +1,107 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool of byte and char buffers for serialization, so that serializing lots of small documents doesn't allocate a new
+ * buffer every time. Similar to the BufferRecycler in jackson, but without thread locals: buffers live in a small
+ * array of slots and a thread starts looking at a slot picked by its id, so a thread tends to get its own buffer back.
+ * Taking and returning buffers is a compare and set, which doesn't pin virtual threads and doesn't keep buffers around
+ * for threads that are gone.
+ *
+ * A buffer that was taken must not be used after it is released; buffers that are never released are simply garbage
+ * collected.
+ */
+public final class BufferRecycler {
+    /** size of the buffers handed out if nothing bigger is asked for */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    // bigger buffers are not kept, so one huge document doesn't hold on to a lot of memory
+    private static final int MAX_RECYCLED_SIZE = 128 * 1024;
+    private static final int PROBES = 4;
+    private static final int SLOTS = slots();
+
+    private static final AtomicReferenceArray<byte[]> BYTE_BUFFERS = new AtomicReferenceArray<>(SLOTS);
+    private static final AtomicReferenceArray<char[]> CHAR_BUFFERS = new AtomicReferenceArray<>(SLOTS);
+
+    private BufferRecycler() {
+        // utility class, don't instantiate
+    }
+
+    private static int slots() {
+        int slots = 1;
+        while(slots < Runtime.getRuntime().availableProcessors() * 2) {
+            slots <<= 1;
+        }
+        return Math.max(slots, PROBES);
+    }
+
+    private static int firstSlot() {
+        long id = Thread.currentThread().getId();
+        return (int) (id * 0x9E3779B97F4A7C15L >>> 40);
+    }
+
+    /**
+     * @param minimumSize minimum length of the buffer
+     * @return a recycled or new byte buffer of at least the requested size
+     */
+    public static @Nonnull byte[] byteBuffer(int minimumSize) {
+        int first = firstSlot();
+        for(int i = 0; i < PROBES; i++) {
+            int slot = first + i & SLOTS - 1;
+            byte[] buffer = BYTE_BUFFERS.get(slot);
+            if(buffer != null && buffer.length >= minimumSize && BYTE_BUFFERS.compareAndSet(slot, buffer, null)) {
+                return buffer;
+            }
+        }
+        return new byte[Math.max(minimumSize, DEFAULT_BUFFER_SIZE)];
+    }
+
+    /**
+     * @param buffer a buffer that is no longer used
+     */
+    public static void release(@Nonnull byte[] buffer) {
+        if(buffer.length > MAX_RECYCLED_SIZE) {
+            return;
+        }
+        int first = firstSlot();
+        for(int i = 0; i < PROBES; i++) {
+            int slot = first + i & SLOTS - 1;
+            if(BYTE_BUFFERS.get(slot) == null && BYTE_BUFFERS.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param minimumSize minimum length of the buffer
+     * @return a recycled or new char buffer of at least the requested size
+     */
+    public static @Nonnull char[] charBuffer(int minimumSize) {
+        int first = firstSlot();
+        for(int i = 0; i < PROBES; i++) {
+            int slot = first + i & SLOTS - 1;
+            char[] buffer = CHAR_BUFFERS.get(slot);
+            if(buffer != null && buffer.length >= minimumSize && CHAR_BUFFERS.compareAndSet(slot, buffer, null)) {
+                return buffer;
+            }
+        }
+        return new char[Math.max(minimumSize, DEFAULT_BUFFER_SIZE)];
+    }
+
+    /**
+     * @param buffer a buffer that is no longer used
+     */
+    public static void release(@Nonnull char[] buffer) {
+        if(buffer.length > MAX_RECYCLED_SIZE) {
+            return;
+        }
+        int first = firstSlot();
+        for(int i = 0; i < PROBES; i++) {
+            int slot = first + i & SLOTS - 1;
+            if(CHAR_BUFFERS.get(slot) == null && CHAR_BUFFERS.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sink that collects the bytes in a growing array, like an unsynchronized ByteArrayOutputStream.
+ */
+public final class ByteArraySink implements ByteSink {
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] bytes;
+    private int size;
+    private boolean recycled;
+
+    public ByteArraySink() {
+        this(256);
+    }
+
+    /**
+     * @param capacity initial capacity
+     */
+    public ByteArraySink(int capacity) {
+        bytes = new byte[Math.max(16, capacity)];
+    }
+
+    private ByteArraySink(byte[] bytes) {
+        this.bytes = bytes;
+        recycled = true;
+    }
+
+    /**
+     * @return a sink that writes to a buffer from the {@link BufferRecycler}; call {@link #release()} when done with
+     *         it
+     */
+    public static @Nonnull ByteArraySink recycled() {
+        return new ByteArraySink(BufferRecycler.byteBuffer(BufferRecycler.DEFAULT_BUFFER_SIZE));
+    }
+
+    @Override
+    public void write(int b) {
+        if(size == bytes.length) {
+            grow(1);
+        }
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(@Nonnull byte[] source, int offset, int length) {
+        if(length > bytes.length - size) {
+            grow(length);
+        }
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    private void grow(int extra) {
+        byte[] grown = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        if(recycled) {
+            // give back the smaller buffer and recycle the grown one instead
+            BufferRecycler.release(bytes);
+        }
+        bytes = grown;
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Discards the content, keeping the allocated array.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Discards the content and returns the buffer of a {@link #recycled()} sink to the {@link BufferRecycler}. Only do
+     * this if nothing uses the sink anymore; afterwards the sink starts out empty again with a new array.
+     */
+    public void release() {
+        if(recycled) {
+            BufferRecycler.release(bytes);
+            recycled = false;
+        }
+        bytes = EMPTY;
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the bytes written
+     */
+    public @Nonnull byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * @param out stream to copy the bytes written to
+     * @throws IOException if the stream can't be written
+     */
+    public void writeTo(@Nonnull OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * @param sink sink to copy the bytes written to
+     * @throws IOException if the sink can't be written
+     */
+    public void writeTo(@Nonnull ByteSink sink) throws IOException {
+        sink.write(bytes, 0, size);
+    }
+
+    /**
+     * @return the bytes written, decoded as utf-8
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+
+/**
+ * Puts bytes in a buffer, see {@link ByteSink#of(ByteBuffer)}.
+ */
+final class ByteBufferByteSink implements ByteSink {
+    private final ByteBuffer buffer;
+
+    ByteBufferByteSink(@Nonnull ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(@Nonnull byte[] bytes, int offset, int length) {
+        buffer.put(bytes, offset, length);
+    }
+}
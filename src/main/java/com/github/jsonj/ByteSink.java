@@ -0,0 +1,57 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination for json serialized as utf-8 bytes, see {@link JsonElement#serialize(ByteSink)}. Unlike a writer, a sink
+ * does not encode anything: string values are copied from the utf-8 bytes stored in the primitives. Sinks are not
+ * thread safe.
+ */
+public interface ByteSink {
+
+    void write(int b) throws IOException;
+
+    void write(@Nonnull byte[] bytes, int offset, int length) throws IOException;
+
+    default void write(@Nonnull byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param ascii text that only contains ascii characters, e.g. a number
+     * @throws IOException if the sink can't be written
+     */
+    default void writeAscii(@Nonnull String ascii) throws IOException {
+        for(int i = 0; i < ascii.length(); i++) {
+            write(ascii.charAt(i));
+        }
+    }
+
+    /**
+     * Writes buffered bytes to the underlying destination.
+     *
+     * @throws IOException if the destination can't be written
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * @param out stream to write to
+     * @return a buffered sink; call {@link #flush()} when done. The stream is not closed.
+     */
+    static @Nonnull ByteSink of(@Nonnull OutputStream out) {
+        return new OutputStreamByteSink(out);
+    }
+
+    /**
+     * @param buffer buffer to put the bytes in at its position
+     * @return a sink that throws a {@link BufferOverflowException} if the buffer is full
+     */
+    static @Nonnull ByteSink of(@Nonnull ByteBuffer buffer) {
+        return new ByteBufferByteSink(buffer);
+    }
+}
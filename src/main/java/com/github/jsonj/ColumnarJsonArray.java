@@ -0,0 +1,850 @@
+package com.github.jsonj;
+
+import com.github.jsonj.exceptions.JsonTypeMismatchException;
+
+import javax.annotation.Nonnull;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+
+/**
+ * Column oriented copy of a {@link JsonArray} of objects, created with {@link JsonArray#toColumnar()}. Intended for
+ * scanning, filtering, and aggregating large arrays of small, similarly shaped objects.
+ *
+ * Nested objects are flattened: every path to a leaf value gets its own column. Depending on the values found in
+ * the array, a column stores longs, doubles, dictionary encoded strings, or booleans in primitive arrays. Paths with
+ * mixed value types, arrays, or empty objects fall back to a column of JsonElements. When some objects have a leaf
+ * value at a path where others have a nested object, the whole subtree at that path is stored in a single column of
+ * JsonElements. Each column tracks which rows have a value and which rows have an explicit json null in a
+ * {@link BitSet}; missing values are stored as 0 so that sums can simply run over the whole array.
+ *
+ * Filters return a {@link BitSet} of matching rows that can be combined with {@link BitSet#and(BitSet)} and
+ * {@link BitSet#or(BitSet)} and passed to the aggregate methods or to {@link #toJsonArray(BitSet)}.
+ *
+ * Numbers are normalized to long or double, so converting back to rows is not guaranteed to preserve the exact
+ * number types of the original (e.g. BigDecimal values come back as doubles).
+ */
+public class ColumnarJsonArray {
+    private final int rows;
+    private final Map<List<String>, Column> columns = new LinkedHashMap<>();
+    // paths of the non empty objects found so far; a path is either a column or a parent, never both
+    private final Set<List<String>> parents = new HashSet<>();
+
+    ColumnarJsonArray(@Nonnull JsonArray array) {
+        rows = array.size();
+        String[] path = new String[8];
+        for(int row=0; row<rows;row++) {
+            addRow(row, array.get(row).asObject(), path, 0);
+        }
+    }
+
+    private void addRow(int row, JsonObject object, String[] path, int depth) {
+        for(Entry<String, JsonElement> entry: object.entrySet()) {
+            if(depth == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[depth] = entry.getKey();
+            JsonElement value = entry.getValue();
+            List<String> key = Arrays.asList(Arrays.copyOf(path, depth + 1));
+            Column column = columns.get(key);
+            if(value.isObject() && value.asObject().size() > 0 && !(column instanceof ElementColumn)) {
+                if(column != null) {
+                    // a leaf in earlier rows
+                    column = collapse(key);
+                    column.set(row, value);
+                } else {
+                    parents.add(key);
+                    addRow(row, value.asObject(), path, depth + 1);
+                }
+            } else {
+                if(column == null && parents.contains(key)) {
+                    // an object in earlier rows
+                    column = collapse(key);
+                } else if(column == null || !column.accepts(value)) {
+                    column = Column.widen(column, key, rows, value);
+                    columns.put(key, column);
+                }
+                column.set(row, value);
+            }
+        }
+    }
+
+    /**
+     * Replaces the columns at and below the path with a single column of JsonElements that holds the whole subtree.
+     * Used when some rows have a leaf and others an object at the same path.
+     */
+    private Column collapse(List<String> key) {
+        ElementColumn collapsed = new ElementColumn(key, rows);
+        int depth = key.size();
+        Iterator<Column> iterator = columns.values().iterator();
+        while(iterator.hasNext()) {
+            Column column = iterator.next();
+            if(column.path.length < depth || !Arrays.asList(column.path).subList(0, depth).equals(key)) {
+                continue;
+            }
+            iterator.remove();
+            for(int row = 0; row < rows; row++) {
+                JsonElement value = column.get(row);
+                if(value == null) {
+                    continue;
+                }
+                if(column.path.length == depth) {
+                    collapsed.set(row, value);
+                } else {
+                    JsonObject object = (JsonObject) collapsed.value(row);
+                    if(object == null) {
+                        object = new JsonObject();
+                        collapsed.set(row, object);
+                    }
+                    String[] rest = Arrays.copyOfRange(column.path, depth, column.path.length);
+                    if(rest.length == 1) {
+                        object.put(rest[0], value);
+                    } else {
+                        object.getOrCreateObject(Arrays.copyOf(rest, rest.length - 1)).put(rest[rest.length - 1], value);
+                    }
+                }
+            }
+        }
+        parents.removeIf(parent -> parent.size() >= depth && parent.subList(0, depth).equals(key));
+        columns.put(key, collapsed);
+        return collapsed;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * @return the columns in the order their paths were first encountered
+     */
+    public @Nonnull Collection<Column> columns() {
+        return Collections.unmodifiableCollection(columns.values());
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column or null if no object had a value at that path
+     */
+    public Column column(@Nonnull String... path) {
+        return columns.get(Arrays.asList(path));
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column
+     * @throws JsonTypeMismatchException if the column is missing or does not contain only numbers
+     */
+    public @Nonnull NumberColumn numberColumn(@Nonnull String... path) {
+        return typedColumn(NumberColumn.class, path);
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column
+     * @throws JsonTypeMismatchException if the column is missing or does not contain only integer numbers
+     */
+    public @Nonnull LongColumn longColumn(@Nonnull String... path) {
+        return typedColumn(LongColumn.class, path);
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column
+     * @throws JsonTypeMismatchException if the column is missing or contains non numbers or only integer numbers
+     */
+    public @Nonnull DoubleColumn doubleColumn(@Nonnull String... path) {
+        return typedColumn(DoubleColumn.class, path);
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column
+     * @throws JsonTypeMismatchException if the column is missing or does not contain only strings
+     */
+    public @Nonnull StringColumn stringColumn(@Nonnull String... path) {
+        return typedColumn(StringColumn.class, path);
+    }
+
+    /**
+     * @param path path of the leaf in the original objects
+     * @return the column
+     * @throws JsonTypeMismatchException if the column is missing or does not contain only booleans
+     */
+    public @Nonnull BooleanColumn booleanColumn(@Nonnull String... path) {
+        return typedColumn(BooleanColumn.class, path);
+    }
+
+    private <T extends Column> T typedColumn(Class<T> clazz, String... path) {
+        Column column = column(path);
+        if(column == null) {
+            throw new JsonTypeMismatchException("no column " + Arrays.toString(path));
+        }
+        if(!clazz.isInstance(column)) {
+            throw new JsonTypeMismatchException("column " + column.name() + " is a " + column.getClass().getSimpleName());
+        }
+        return clazz.cast(column);
+    }
+
+    /**
+     * @return selection of all rows
+     */
+    public @Nonnull BitSet all() {
+        BitSet selection = new BitSet(rows);
+        selection.set(0, rows);
+        return selection;
+    }
+
+    /**
+     * @param row row number
+     * @return the row reconstructed as a JsonObject
+     */
+    public @Nonnull JsonObject row(int row) {
+        if(row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("row " + row);
+        }
+        JsonObject object = new JsonObject();
+        for(Column column: columns.values()) {
+            JsonElement value = column.get(row);
+            if(value != null) {
+                String[] path = column.path;
+                if(path.length == 1) {
+                    object.put(path[0], value);
+                } else {
+                    object.getOrCreateObject(Arrays.copyOf(path, path.length - 1)).put(path[path.length - 1], value);
+                }
+            }
+        }
+        return object;
+    }
+
+    /**
+     * @return all rows converted back to JsonObjects
+     */
+    public @Nonnull JsonArray toJsonArray() {
+        return toJsonArray(all());
+    }
+
+    /**
+     * @param selection rows to convert, e.g. the result of one or more filters
+     * @return the selected rows converted back to JsonObjects
+     */
+    public @Nonnull JsonArray toJsonArray(@Nonnull BitSet selection) {
+        JsonArray array = new JsonArray();
+        array.ensureCapacity(selection.cardinality());
+        for(int row = selection.nextSetBit(0); row >= 0 && row < rows; row = selection.nextSetBit(row + 1)) {
+            array.add(row(row));
+        }
+        return array;
+    }
+
+    /**
+     * A column of values for one path.
+     */
+    public abstract static class Column {
+        final String[] path;
+        final int rows;
+        // rows with a non null value
+        final BitSet present = new BitSet();
+        // rows with an explicit json null
+        final BitSet nulls = new BitSet();
+
+        Column(List<String> path, int rows) {
+            this.path = path.toArray(new String[path.size()]);
+            this.rows = rows;
+        }
+
+        /**
+         * @return path of the leaf in the original objects
+         */
+        public @Nonnull String[] path() {
+            return path.clone();
+        }
+
+        /**
+         * @return the path joined with dots
+         */
+        public @Nonnull String name() {
+            return String.join(".", path);
+        }
+
+        /**
+         * @param row row number
+         * @return true if the row has a non null value for this column
+         */
+        public boolean isPresent(int row) {
+            return present.get(row);
+        }
+
+        /**
+         * @param row row number
+         * @return true if the row has an explicit json null for this column
+         */
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        /**
+         * @return number of rows with a non null value
+         */
+        public int count() {
+            return present.cardinality();
+        }
+
+        /**
+         * @return selection of the rows with a non null value
+         */
+        public @Nonnull BitSet presentRows() {
+            return (BitSet) present.clone();
+        }
+
+        /**
+         * @param row row number
+         * @return the value, {@link JsonPrimitive#JSON_NULL} for json nulls, or null if the row has no value
+         */
+        public JsonElement get(int row) {
+            if(present.get(row)) {
+                return value(row);
+            } else if(nulls.get(row)) {
+                return JsonPrimitive.JSON_NULL;
+            } else {
+                return null;
+            }
+        }
+
+        /**
+         * Generic filter; the typed columns have more efficient variants.
+         *
+         * @param predicate predicate on the values
+         * @return selection of the rows with a non null value that matches
+         */
+        public @Nonnull BitSet filter(@Nonnull Predicate<JsonElement> predicate) {
+            BitSet result = new BitSet(rows);
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                if(predicate.test(value(row))) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + " " + name();
+        }
+
+        abstract JsonElement value(int row);
+
+        abstract boolean acceptsValue(JsonElement value);
+
+        abstract void setValue(int row, JsonElement value);
+
+        boolean accepts(JsonElement value) {
+            return value.isNull() || acceptsValue(value);
+        }
+
+        void set(int row, JsonElement value) {
+            if(value.isNull()) {
+                nulls.set(row);
+            } else {
+                setValue(row, value);
+                present.set(row);
+            }
+        }
+
+        /**
+         * @return a column that accepts the value, containing the values of the old column if any
+         */
+        static Column widen(Column old, List<String> path, int rows, JsonElement value) {
+            Column column;
+            if(old == null || old.present.isEmpty()) {
+                column = forValue(path, rows, value);
+            } else if(old instanceof LongColumn && value.isNumber() && !isLong(value)) {
+                column = new DoubleColumn(path, rows);
+            } else {
+                column = new ElementColumn(path, rows);
+            }
+            if(old != null) {
+                column.nulls.or(old.nulls);
+                for(int row = old.present.nextSetBit(0); row >= 0; row = old.present.nextSetBit(row + 1)) {
+                    column.set(row, old.value(row));
+                }
+            }
+            return column;
+        }
+
+        private static Column forValue(List<String> path, int rows, JsonElement value) {
+            switch(value.type()) {
+            case number:
+                return isLong(value) ? new LongColumn(path, rows) : new DoubleColumn(path, rows);
+            case string:
+                return new StringColumn(path, rows);
+            case bool:
+                return new BooleanColumn(path, rows);
+            case nullValue:
+                // no type yet, replaced as soon as there is a non null value
+                return new LongColumn(path, rows);
+            default:
+                return new ElementColumn(path, rows);
+            }
+        }
+
+        static boolean isLong(JsonElement value) {
+            Number n = value.asNumber();
+            if(n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+                return true;
+            } else if(n instanceof BigInteger) {
+                return ((BigInteger) n).bitLength() < 64;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Common super class of {@link LongColumn} and {@link DoubleColumn}.
+     */
+    public abstract static class NumberColumn extends Column {
+        NumberColumn(List<String> path, int rows) {
+            super(path, rows);
+        }
+
+        /**
+         * @param row row number
+         * @return the value as a double; 0 if the row has no value
+         */
+        public abstract double getDouble(int row);
+
+        /**
+         * @return the sum of all values
+         */
+        public abstract double sum();
+
+        /**
+         * @param selection selected rows
+         * @return the sum of the values in the selected rows
+         */
+        public double sum(@Nonnull BitSet selection) {
+            double sum = 0;
+            for(int row = selection.nextSetBit(0); row >= 0 && row < rows; row = selection.nextSetBit(row + 1)) {
+                sum += getDouble(row);
+            }
+            return sum;
+        }
+
+        /**
+         * @return the average of the values or empty if there are none
+         */
+        public @Nonnull OptionalDouble average() {
+            int count = count();
+            return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum() / count);
+        }
+
+        /**
+         * @param selection selected rows
+         * @return the average of the values in the selected rows or empty if there are none
+         */
+        public @Nonnull OptionalDouble average(@Nonnull BitSet selection) {
+            BitSet selected = (BitSet) selection.clone();
+            selected.and(present);
+            int count = selected.cardinality();
+            return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum(selected) / count);
+        }
+
+        /**
+         * @return the minimum value or empty if there are none
+         */
+        public @Nonnull OptionalDouble min() {
+            boolean found = false;
+            double min = Double.POSITIVE_INFINITY;
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                min = Math.min(min, getDouble(row));
+                found = true;
+            }
+            return found ? OptionalDouble.of(min) : OptionalDouble.empty();
+        }
+
+        /**
+         * @return the maximum value or empty if there are none
+         */
+        public @Nonnull OptionalDouble max() {
+            boolean found = false;
+            double max = Double.NEGATIVE_INFINITY;
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                max = Math.max(max, getDouble(row));
+                found = true;
+            }
+            return found ? OptionalDouble.of(max) : OptionalDouble.empty();
+        }
+
+        /**
+         * @param predicate predicate on the values
+         * @return selection of the rows with a value that matches
+         */
+        public @Nonnull BitSet filterDoubles(@Nonnull DoublePredicate predicate) {
+            BitSet result = new BitSet(rows);
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                if(predicate.test(getDouble(row))) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Counts the values in equally sized buckets between min (inclusive) and max (exclusive). Values outside the
+         * range are ignored.
+         *
+         * @param min lower bound of the first bucket
+         * @param max upper bound of the last bucket
+         * @param buckets number of buckets
+         * @return the counts per bucket
+         */
+        public @Nonnull long[] histogram(double min, double max, int buckets) {
+            if(buckets <= 0 || max <= min) {
+                throw new IllegalArgumentException("need at least one bucket and max > min");
+            }
+            long[] counts = new long[buckets];
+            double width = (max - min) / buckets;
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                double value = getDouble(row);
+                if(value >= min && value < max) {
+                    counts[Math.min(buckets - 1, (int) ((value - min) / width))]++;
+                }
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Column of integer numbers.
+     */
+    public static class LongColumn extends NumberColumn {
+        private final long[] values;
+
+        LongColumn(List<String> path, int rows) {
+            super(path, rows);
+            values = new long[rows];
+        }
+
+        /**
+         * @param row row number
+         * @return the value; 0 if the row has no value
+         */
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        /**
+         * @return the sum of all values as a long
+         */
+        public long sumLong() {
+            long sum = 0;
+            for(long value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Override
+        public double sum() {
+            return sumLong();
+        }
+
+        /**
+         * @param predicate predicate on the values
+         * @return selection of the rows with a value that matches
+         */
+        public @Nonnull BitSet filterLongs(@Nonnull LongPredicate predicate) {
+            BitSet result = new BitSet(rows);
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                if(predicate.test(values[row])) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        JsonElement value(int row) {
+            return primitive(values[row]);
+        }
+
+        @Override
+        boolean acceptsValue(JsonElement value) {
+            return value.isNumber() && isLong(value);
+        }
+
+        @Override
+        void setValue(int row, JsonElement value) {
+            values[row] = value.asLong();
+        }
+    }
+
+    /**
+     * Column of floating point numbers.
+     */
+    public static class DoubleColumn extends NumberColumn {
+        private final double[] values;
+
+        DoubleColumn(List<String> path, int rows) {
+            super(path, rows);
+            values = new double[rows];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double sum() {
+            double sum = 0;
+            for(double value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        @Override
+        JsonElement value(int row) {
+            return primitive(values[row]);
+        }
+
+        @Override
+        boolean acceptsValue(JsonElement value) {
+            return value.isNumber();
+        }
+
+        @Override
+        void setValue(int row, JsonElement value) {
+            values[row] = value.asDouble();
+        }
+    }
+
+    /**
+     * Dictionary encoded column of strings.
+     */
+    public static class StringColumn extends Column {
+        private final int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final List<JsonPrimitive> dictionaryValues = new ArrayList<>();
+        private final Map<String, Integer> lookup = new HashMap<>();
+
+        StringColumn(List<String> path, int rows) {
+            super(path, rows);
+            codes = new int[rows];
+        }
+
+        /**
+         * @param row row number
+         * @return the value or null if the row has no value
+         */
+        public String getString(int row) {
+            return present.get(row) ? dictionary.get(codes[row]) : null;
+        }
+
+        /**
+         * @return the number of distinct values
+         */
+        public int cardinality() {
+            return dictionary.size();
+        }
+
+        /**
+         * @return the distinct values in the column
+         */
+        public @Nonnull List<String> dictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        /**
+         * Evaluates the predicate once per distinct value and then selects rows by their dictionary code.
+         *
+         * @param predicate predicate on the values
+         * @return selection of the rows with a value that matches
+         */
+        public @Nonnull BitSet filterStrings(@Nonnull Predicate<String> predicate) {
+            boolean[] matches = new boolean[dictionary.size()];
+            for(int i=0; i<matches.length;i++) {
+                matches[i] = predicate.test(dictionary.get(i));
+            }
+            BitSet result = new BitSet(rows);
+            for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                if(matches[codes[row]]) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @param value a value
+         * @return selection of the rows with that value
+         */
+        public @Nonnull BitSet equalTo(String value) {
+            BitSet result = new BitSet(rows);
+            Integer code = lookup.get(value);
+            if(code != null) {
+                int c = code;
+                for(int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                    if(codes[row] == c) {
+                        result.set(row);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return number of rows per distinct value
+         */
+        public @Nonnull Map<String, Long> countBy() {
+            return countBy(present);
+        }
+
+        /**
+         * @param selection selected rows
+         * @return number of selected rows per distinct value
+         */
+        public @Nonnull Map<String, Long> countBy(@Nonnull BitSet selection) {
+            long[] counts = new long[dictionary.size()];
+            for(int row = selection.nextSetBit(0); row >= 0 && row < rows; row = selection.nextSetBit(row + 1)) {
+                if(present.get(row)) {
+                    counts[codes[row]]++;
+                }
+            }
+            Map<String, Long> result = new LinkedHashMap<>();
+            for(int i=0; i<counts.length;i++) {
+                if(counts[i] > 0) {
+                    result.put(dictionary.get(i), counts[i]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        JsonElement value(int row) {
+            return dictionaryValues.get(codes[row]);
+        }
+
+        @Override
+        boolean acceptsValue(JsonElement value) {
+            return value.isString();
+        }
+
+        @Override
+        void setValue(int row, JsonElement value) {
+            String s = value.asString();
+            Integer code = lookup.get(s);
+            if(code == null) {
+                code = dictionary.size();
+                dictionary.add(s);
+                dictionaryValues.add(value.asPrimitive());
+                lookup.put(s, code);
+            }
+            codes[row] = code;
+        }
+    }
+
+    /**
+     * Column of booleans.
+     */
+    public static class BooleanColumn extends Column {
+        private final BitSet values = new BitSet();
+
+        BooleanColumn(List<String> path, int rows) {
+            super(path, rows);
+        }
+
+        /**
+         * @param row row number
+         * @return the value; false if the row has no value
+         */
+        public boolean getBoolean(int row) {
+            return values.get(row);
+        }
+
+        /**
+         * @return selection of the rows that are true
+         */
+        public @Nonnull BitSet trueRows() {
+            return (BitSet) values.clone();
+        }
+
+        /**
+         * @return selection of the rows that are false
+         */
+        public @Nonnull BitSet falseRows() {
+            BitSet result = (BitSet) present.clone();
+            result.andNot(values);
+            return result;
+        }
+
+        @Override
+        JsonElement value(int row) {
+            return primitive(values.get(row));
+        }
+
+        @Override
+        boolean acceptsValue(JsonElement value) {
+            return value.isBoolean();
+        }
+
+        @Override
+        void setValue(int row, JsonElement value) {
+            values.set(row, value.asBoolean());
+        }
+    }
+
+    /**
+     * Fallback column for paths with mixed types, arrays, or empty objects.
+     */
+    public static class ElementColumn extends Column {
+        private final JsonElement[] values;
+
+        ElementColumn(List<String> path, int rows) {
+            super(path, rows);
+            values = new JsonElement[rows];
+        }
+
+        @Override
+        JsonElement value(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean acceptsValue(JsonElement value) {
+            return true;
+        }
+
+        @Override
+        void setValue(int row, JsonElement value) {
+            values[row] = value;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary format used for java serialization of json elements (see {@link java.io.Externalizable}). Elements are written
+ * as a tag byte followed by their content: varints for integers, raw bits for doubles, the utf-8 bytes of strings as
+ * stored in {@link JsonPrimitive}, and a size followed by the entries for objects and arrays. Object keys are written
+ * once per call to writeExternal; after that they are referred to by number.
+ *
+ * Deserialized elements are mutable. Objects keep their implementation (map based objects get a LinkedHashMap), and
+ * sets keep their id strategy if it was created from field names or is serializable.
+ */
+final class ExternalFormat {
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BIG_INTEGER = 6;
+    private static final byte BIG_DECIMAL = 7;
+    private static final byte OTHER_NUMBER = 8;
+    private static final byte STRING = 9;
+    private static final byte OBJECT = 10;
+    private static final byte MAP_BASED_OBJECT = 11;
+    private static final byte INT_MAP_OBJECT = 12;
+    private static final byte ARRAY = 13;
+    private static final byte SET = 14;
+
+    private ExternalFormat() {
+    }
+
+    static final class Writer {
+        private final ObjectOutput out;
+        private final Map<String, Integer> keys = new HashMap<>();
+
+        Writer(@Nonnull ObjectOutput out) {
+            this.out = out;
+        }
+
+        void write(@Nonnull JsonElement element) throws IOException {
+            if(element.isObject()) {
+                JsonObject object = element.asObject();
+                if(object instanceof MapBasedJsonObject) {
+                    out.writeByte(MAP_BASED_OBJECT);
+                } else if(object instanceof SimpleIntMapJsonObject) {
+                    out.writeByte(INT_MAP_OBJECT);
+                } else {
+                    out.writeByte(OBJECT);
+                }
+                writeEntries(object);
+            } else if(element instanceof JsonSet) {
+                out.writeByte(SET);
+                writeElements((JsonSet) element);
+                ((JsonSet) element).writeStrategy(out);
+            } else if(element.isArray()) {
+                out.writeByte(ARRAY);
+                writeElements(element.asArray());
+            } else {
+                writePrimitive(element.asPrimitive());
+            }
+        }
+
+        void writeEntries(@Nonnull JsonObject object) throws IOException {
+            writeVarint(out, object.size());
+            for(Entry<String, JsonElement> entry : object.entrySet()) {
+                writeKey(entry.getKey());
+                write(entry.getValue());
+            }
+        }
+
+        void writeElements(@Nonnull JsonArray array) throws IOException {
+            writeVarint(out, array.size());
+            for(JsonElement element : array) {
+                write(element);
+            }
+        }
+
+        private void writeKey(String key) throws IOException {
+            Integer number = keys.get(key);
+            if(number != null) {
+                writeVarint(out, number + 1);
+            } else {
+                writeVarint(out, 0);
+                writeBytes(out, key.getBytes(StandardCharsets.UTF_8));
+                keys.put(key, keys.size());
+            }
+        }
+
+        private void writePrimitive(JsonPrimitive primitive) throws IOException {
+            Object value = primitive.rawValue();
+            switch (primitive.type()) {
+            case nullValue:
+                out.writeByte(NULL);
+                break;
+            case bool:
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+                break;
+            case string:
+                out.writeByte(STRING);
+                writeBytes(out, (byte[]) value);
+                break;
+            default:
+                writeNumber((Number) value);
+            }
+        }
+
+        private void writeNumber(Number number) throws IOException {
+            if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte
+                    || number instanceof AtomicLong || number instanceof AtomicInteger) {
+                out.writeByte(LONG);
+                writeVarint(out, zigzag(number.longValue()));
+            } else if(number instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(number.doubleValue());
+            } else if(number instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat(number.floatValue());
+            } else if(number instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                writeBytes(out, ((BigInteger) number).toByteArray());
+            } else if(number instanceof BigDecimal) {
+                BigDecimal decimal = (BigDecimal) number;
+                out.writeByte(BIG_DECIMAL);
+                writeVarint(out, zigzag(decimal.scale()));
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+            } else {
+                out.writeByte(OTHER_NUMBER);
+                out.writeObject(number);
+            }
+        }
+    }
+
+    static final class Reader {
+        private final ObjectInput in;
+        private final List<String> keys = new ArrayList<>();
+
+        Reader(@Nonnull ObjectInput in) {
+            this.in = in;
+        }
+
+        @Nonnull
+        JsonElement read() throws IOException, ClassNotFoundException {
+            byte tag = in.readByte();
+            switch (tag) {
+            case NULL:
+                return JsonPrimitive.JSON_NULL;
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case LONG:
+                return new JsonPrimitive(unzigzag(readVarLong(in)));
+            case DOUBLE:
+                return new JsonPrimitive(in.readDouble());
+            case FLOAT:
+                return new JsonPrimitive(in.readFloat());
+            case BIG_INTEGER:
+                return new JsonPrimitive(new BigInteger(readBytes(in)));
+            case BIG_DECIMAL:
+                int scale = (int) unzigzag(readVarLong(in));
+                return new JsonPrimitive(new BigDecimal(new BigInteger(readBytes(in)), scale));
+            case OTHER_NUMBER:
+                return new JsonPrimitive((Number) in.readObject());
+            case STRING:
+                return JsonPrimitive.fromUtf8(readBytes(in));
+            case OBJECT:
+                return readEntries(new JsonObject());
+            case MAP_BASED_OBJECT:
+                return readEntries(new MapBasedJsonObject());
+            case INT_MAP_OBJECT:
+                return readEntries(new SimpleIntMapJsonObject());
+            case ARRAY:
+                return readElements(new JsonArray());
+            case SET:
+                JsonSet set = readElements(new JsonSet());
+                set.readStrategy(in);
+                return set;
+            default:
+                throw new InvalidObjectException("unknown tag " + tag);
+            }
+        }
+
+        <T extends JsonObject> T readEntries(@Nonnull T object) throws IOException, ClassNotFoundException {
+            int size = readVarint(in);
+            // readExternal may be called on an object that already has entries; the stream replaces them
+            if(!object.isEmpty()) {
+                object.clear();
+            }
+            for(int i = 0; i < size; i++) {
+                // keys were unique when written
+                object.appendUnchecked(readKey(), read());
+            }
+            return object;
+        }
+
+        <T extends JsonArray> T readElements(@Nonnull T array) throws IOException, ClassNotFoundException {
+            int size = readVarint(in);
+            if(!array.isEmpty()) {
+                array.clear();
+            }
+            array.ensureCapacity(size);
+            for(int i = 0; i < size; i++) {
+                array.appendUnchecked(read());
+            }
+            return array;
+        }
+
+        private String readKey() throws IOException {
+            int number = readVarint(in);
+            if(number == 0) {
+                String key = new String(readBytes(in), StandardCharsets.UTF_8);
+                keys.add(key);
+                return key;
+            } else if(number <= keys.size()) {
+                return keys.get(number - 1);
+            } else {
+                throw new InvalidObjectException("unknown key " + number);
+            }
+        }
+    }
+
+    /**
+     * Stand in for {@link JsonPrimitive} in object streams; primitives have final fields and can't implement
+     * readExternal themselves.
+     */
+    static final class SerializedPrimitive implements Externalizable {
+        private static final long serialVersionUID = 1L;
+
+        private JsonElement primitive;
+
+        // required for Externalizable
+        public SerializedPrimitive() {
+        }
+
+        SerializedPrimitive(JsonPrimitive primitive) {
+            this.primitive = primitive;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            new Writer(out).write(primitive);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+            primitive = new Reader(in).read();
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return primitive;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ObjectOutput out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ObjectInput in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("malformed varint");
+    }
+
+    private static int readVarint(ObjectInput in) throws IOException {
+        long value = readVarLong(in);
+        if(value < 0 || value > Integer.MAX_VALUE) {
+            throw new InvalidObjectException("bad size " + value);
+        }
+        return (int) value;
+    }
+
+    private static void writeBytes(ObjectOutput out, byte[] bytes) throws IOException {
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ObjectInput in) throws IOException {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks the leaves of a json structure together with their flattened paths, as used by
+ * {@link IJsonObject#flatten(String)}. The paths are built in a single StringBuilder that is truncated when going back
+ * up, instead of concatenating a new string at every level. Empty objects and arrays have no leaves and are left out.
+ */
+final class Flattener implements Iterator<Entry<String, JsonElement>> {
+    private final String separator;
+    private final StringBuilder path = new StringBuilder();
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    // once a key is empty or contains the separator, a later path may be the same as an earlier one
+    private boolean separatorInKey = false;
+
+    private String leafPath = null;
+    private JsonElement leaf = null;
+
+    private Flattener(@Nonnull JsonElement root, @Nonnull String separator) {
+        this.separator = separator;
+        if(separator.isEmpty()) {
+            separatorInKey = true;
+        }
+        push(root);
+    }
+
+    static void flatten(@Nonnull JsonElement root, @Nonnull String separator, @Nonnull BiConsumer<String, JsonElement> visitor) {
+        Flattener flattener = new Flattener(root, separator);
+        while(flattener.advance()) {
+            visitor.accept(flattener.leafPath, flattener.leaf);
+        }
+    }
+
+    static @Nonnull Stream<Entry<String, JsonElement>> stream(@Nonnull JsonElement root, @Nonnull String separator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Flattener(root, separator), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Adds the leaves to the result, which should be empty. Paths are appended without checking for duplicates, unless
+     * a key contains the separator and paths may collide.
+     */
+    static @Nonnull JsonObject flatten(@Nonnull JsonElement root, @Nonnull String separator, @Nonnull JsonObject result) {
+        Flattener flattener = new Flattener(root, separator);
+        while(flattener.advance()) {
+            if(flattener.separatorInKey) {
+                result.put(flattener.leafPath, flattener.leaf);
+            } else {
+                result.appendUnchecked(flattener.leafPath, flattener.leaf);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inverse of flatten: splits the keys on the separator and nests the values. Objects with the keys 0 to n-1, in
+     * that order, become arrays. If a path is both a value and the prefix of other paths, the last one wins.
+     */
+    static @Nonnull JsonObject unflatten(@Nonnull IJsonObject flat, @Nonnull String separator) {
+        if(separator.isEmpty()) {
+            throw new IllegalArgumentException("separator should not be empty");
+        }
+        JsonObject root = new JsonObject();
+        for(Entry<String, JsonElement> entry : flat.entrySet()) {
+            String key = entry.getKey();
+            JsonObject current = root;
+            int start = 0;
+            int index;
+            while((index = key.indexOf(separator, start)) >= 0) {
+                String segment = key.substring(start, index);
+                JsonElement child = current.get(segment);
+                if(child == null || !child.isObject()) {
+                    child = new JsonObject();
+                    current.put(segment, child);
+                }
+                current = child.asObject();
+                start = index + separator.length();
+            }
+            current.put(key.substring(start), entry.getValue());
+        }
+        // the root stays an object, even if its keys are 0 to n-1
+        for(Entry<String, JsonElement> entry : root.entrySet()) {
+            JsonElement converted = toArrays(entry.getValue());
+            if(converted != entry.getValue()) {
+                root.put(entry.getKey(), converted);
+            }
+        }
+        return root;
+    }
+
+    private static JsonElement toArrays(JsonElement element) {
+        if(!element.isObject()) {
+            return element;
+        }
+        JsonObject object = element.asObject();
+        int i = 0;
+        boolean sequential = true;
+        for(Entry<String, JsonElement> entry : object.entrySet()) {
+            JsonElement converted = toArrays(entry.getValue());
+            if(converted != entry.getValue()) {
+                object.put(entry.getKey(), converted);
+            }
+            sequential = sequential && entry.getKey().equals(Integer.toString(i++));
+        }
+        if(!sequential || object.isEmpty()) {
+            return object;
+        }
+        JsonArray array = new JsonArray();
+        array.ensureCapacity(object.size());
+        array.addAll(object.values());
+        return array;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return leaf != null || advance();
+    }
+
+    @Override
+    public Entry<String, JsonElement> next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<String, JsonElement> next = new SimpleImmutableEntry<>(leafPath, leaf);
+        leaf = null;
+        return next;
+    }
+
+    /**
+     * Moves to the next leaf.
+     *
+     * @return false if there are no more leaves
+     */
+    private boolean advance() {
+        while(!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            path.setLength(frame.pathLength);
+            JsonElement child;
+            if(frame.entries != null) {
+                if(!frame.entries.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                Entry<String, JsonElement> entry = frame.entries.next();
+                String key = entry.getKey();
+                if(!separatorInKey && (key.isEmpty() || key.contains(separator))) {
+                    separatorInKey = true;
+                }
+                appendSeparator();
+                path.append(key);
+                child = entry.getValue();
+            } else {
+                if(frame.index >= frame.array.size()) {
+                    stack.pop();
+                    continue;
+                }
+                appendSeparator();
+                path.append(frame.index);
+                child = frame.array.get(frame.index++);
+            }
+            if(!push(child)) {
+                leafPath = path.toString();
+                leaf = child;
+                return true;
+            }
+        }
+        leaf = null;
+        return false;
+    }
+
+    private void appendSeparator() {
+        if(path.length() > 0) {
+            path.append(separator);
+        }
+    }
+
+    private boolean push(JsonElement element) {
+        if(element.isObject()) {
+            stack.push(new Frame(element.asObject().entrySet().iterator(), null, path.length()));
+            return true;
+        } else if(element.isArray()) {
+            stack.push(new Frame(null, element.asArray(), path.length()));
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private static final class Frame {
+        final Iterator<Entry<String, JsonElement>> entries;
+        final JsonArray array;
+        final int pathLength;
+        int index = 0;
+
+        Frame(Iterator<Entry<String, JsonElement>> entries, JsonArray array, int pathLength) {
+            this.entries = entries;
+            this.array = array;
+            this.pathLength = pathLength;
+        }
+    }
+}
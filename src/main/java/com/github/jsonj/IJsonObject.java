@@ -11,6 +11,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import static com.github.jsonj.tools.JsonBuilder.primitive;
 
@@ -83,7 +85,7 @@ public interface IJsonObject extends Map<String,JsonElement>,JsonElement {
             String key = entry.getKey();
             JsonElement value = entry.getValue();
             w.append(JsonSerializer.QUOTE);
-            w.append(JsonSerializer.jsonEscape(key));
+            w.append(JsonSerializer.escapeKey(key));
             w.append(JsonSerializer.QUOTE);
             w.append(JsonSerializer.COLON);
             value.serialize(w);
@@ -94,6 +96,21 @@ public interface IJsonObject extends Map<String,JsonElement>,JsonElement {
         w.append(JsonSerializer.CLOSE_BRACE);
     }
 
+    @Override
+    default void serialize(@Nonnull ByteSink sink) throws IOException {
+        sink.write('{');
+        Iterator<Entry<String, JsonElement>> iterator = entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<String, JsonElement> entry = iterator.next();
+            JsonSerializer.writeKey(sink, entry.getKey());
+            entry.getValue().serialize(sink);
+            if (iterator.hasNext()) {
+                sink.write(',');
+            }
+        }
+        sink.write('}');
+    }
+
     @Override
     default boolean isObject() {
         return true;
@@ -665,13 +682,20 @@ public interface IJsonObject extends Map<String,JsonElement>,JsonElement {
         return true;
     }
 
+    /**
+     * Order independent hash code over the entries, consistent with {@link #defaultEquals(Object)}. Entry hashes are
+     * summed like in {@link java.util.AbstractMap} rather than multiplied, which would quickly degrade to 0 for objects
+     * with more than a few fields and cripple hash based collections such as {@link JsonSet}.
+     *
+     * @return hash code
+     */
     default int defaultHashCode() {
         int hashCode = 23;
         Set<Entry<String, JsonElement>> entrySet = entrySet();
         for (Entry<String, JsonElement> entry : entrySet) {
             JsonElement value = entry.getValue();
             if (value != null) { // skip null entries
-                hashCode = hashCode * entry.getKey().hashCode() * value.hashCode();
+                hashCode += entry.getKey().hashCode() ^ value.hashCode();
             }
         }
         return hashCode;
@@ -681,4 +705,33 @@ public interface IJsonObject extends Map<String,JsonElement>,JsonElement {
 
     JsonObject flatten(String separator);
 
+    /**
+     * Like {@link #flatten(String)} but passes each leaf to the visitor instead of building an object.
+     *
+     * @param separator separator for the path segments
+     * @param visitor receives the flattened path and the value of each leaf
+     */
+    default void flatten(@Nonnull String separator, @Nonnull BiConsumer<String, JsonElement> visitor) {
+        Flattener.flatten(this, separator, visitor);
+    }
+
+    /**
+     * @param separator separator for the path segments
+     * @return lazy stream of the flattened paths and values of the leaves
+     */
+    default Stream<Entry<String, JsonElement>> flattenedStream(@Nonnull String separator) {
+        return Flattener.stream(this, separator);
+    }
+
+    /**
+     * Inverse of {@link #flatten(String)}: nests the values by splitting the keys on the separator. Nested objects with
+     * the keys 0 to n-1, in that order, become arrays.
+     *
+     * @param separator separator for the path segments
+     * @return new object with the nested values
+     */
+    default JsonObject unflatten(@Nonnull String separator) {
+        return Flattener.unflatten(this, separator);
+    }
+
 }
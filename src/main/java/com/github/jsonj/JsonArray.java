@@ -27,13 +27,22 @@ import com.github.jsonj.tools.JsonSerializer;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import java.io.Externalizable;
 import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Writer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -46,9 +55,11 @@ import static com.github.jsonj.tools.JsonBuilder.primitive;
 /**
  * Representation of json arrays.
  */
-public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
+public class JsonArray extends ArrayList<JsonElement> implements JsonElement, Externalizable {
     private static final long serialVersionUID = -1269731858619421388L;
     private boolean immutable=false;
+    // secondary indexes; null unless indexBy and friends were used so that plain arrays pay nothing
+    private transient List<JsonArrayIndex> indexes = null;
 
     public JsonArray() {
         super();
@@ -201,7 +212,15 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        return super.add(e);
+        if(indexes == null) {
+            return super.add(e);
+        }
+        List<JsonElement> added = Collections.singletonList(e);
+        checkIndexes(Collections.emptyList(), added);
+        int before = modCount;
+        boolean result = super.add(e);
+        updateIndexes(before, Collections.emptyList(), added);
+        return result;
     }
 
     @Override
@@ -209,7 +228,15 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
+        if(indexes == null) {
+            super.add(index, element);
+            return;
+        }
+        List<JsonElement> added = Collections.singletonList(element);
+        checkIndexes(Collections.emptyList(), added);
+        int before = modCount;
         super.add(index, element);
+        updateIndexes(before, Collections.emptyList(), added);
     }
 
     @Override
@@ -494,12 +521,14 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-
-        if(o instanceof JsonElement) {
-            return super.remove(o);
+        // try remove it as a primitive if needed.
+        int index = indexOf(o instanceof JsonElement ? o : primitive(o));
+        if(index >= 0) {
+            // route through remove(int) so subclasses and indexes only have to track that
+            remove(index);
+            return true;
         } else {
-            // try remove it as a primitive.
-            return super.remove(primitive(o));
+            return false;
         }
     }
 
@@ -539,6 +568,19 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         w.append(JsonSerializer.CLOSE_BRACKET);
     }
 
+    @Override
+    public void serialize(@Nonnull ByteSink sink) throws IOException {
+        sink.write('[');
+        Iterator<JsonElement> it = iterator();
+        while (it.hasNext()) {
+            it.next().serialize(sink);
+            if(it.hasNext()) {
+                sink.write(',');
+            }
+        }
+        sink.write(']');
+    }
+
     @Override
     public String prettyPrint() {
         return JsonSerializer.serialize(this, true);
@@ -624,15 +666,32 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        return super.set(index, element);
+        if(indexes == null) {
+            return super.set(index, element);
+        }
+        List<JsonElement> removed = Collections.singletonList(get(index));
+        List<JsonElement> added = Collections.singletonList(element);
+        checkIndexes(removed, added);
+        int before = modCount;
+        JsonElement old = super.set(index, element);
+        updateIndexes(before, removed, added);
+        return old;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public boolean addAll(int index, Collection<? extends JsonElement> c) {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        return super.addAll(index, c);
+        if(indexes == null) {
+            return super.addAll(index, c);
+        }
+        checkIndexes(Collections.emptyList(), (Collection<JsonElement>) c);
+        int before = modCount;
+        boolean result = super.addAll(index, c);
+        updateIndexes(before, Collections.emptyList(), (Collection<JsonElement>) c);
+        return result;
     }
 
     @Override
@@ -674,7 +733,13 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        return super.remove(index);
+        if(indexes == null) {
+            return super.remove(index);
+        }
+        int before = modCount;
+        JsonElement removed = super.remove(index);
+        updateIndexes(before, Collections.singletonList(removed), Collections.emptyList());
+        return removed;
     }
 
     @Override
@@ -690,7 +755,21 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        return super.removeIf(filter);
+        if(indexes == null) {
+            return super.removeIf(filter);
+        }
+        List<JsonElement> removed = new ArrayList<>();
+        int before = modCount;
+        boolean result = super.removeIf(e -> {
+            if(filter.test(e)) {
+                removed.add(e);
+                return true;
+            } else {
+                return false;
+            }
+        });
+        updateIndexes(before, removed, Collections.emptyList());
+        return result;
     }
 
     @Override
@@ -709,12 +788,39 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         return super.listIterator(index);
     }
 
+    /**
+     * The returned view routes all changes through the methods of this array, so that immutability, the secondary
+     * indexes, and the index of a {@link JsonSet} also see changes made through a sub list.
+     */
+    @Override
+    public List<JsonElement> subList(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size());
+        }
+        return new SubList(this, fromIndex, toIndex - fromIndex);
+    }
+
     @Override
     public void replaceAll(UnaryOperator<JsonElement> operator) {
         if(immutable) {
             throw new IllegalStateException("object is immutable");
         }
-        super.replaceAll(operator);
+        if(indexes == null) {
+            super.replaceAll(operator);
+            return;
+        }
+        // compute the replacements up front so unique indexes can reject them before anything changes
+        JsonElement[] replacements = new JsonElement[size()];
+        for(int i=0; i<replacements.length;i++) {
+            replacements[i] = operator.apply(get(i));
+        }
+        List<JsonElement> removed = new ArrayList<>(this);
+        List<JsonElement> added = Arrays.asList(replacements);
+        checkIndexes(removed, added);
+        int before = modCount;
+        int[] i = {0};
+        super.replaceAll(e -> replacements[i[0]++]);
+        updateIndexes(before, removed, added);
     }
 
     @Override
@@ -725,6 +831,130 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         return super.retainAll(c);
     }
 
+    /**
+     * Creates a column oriented copy of this array for fast scans and aggregations. All elements must be objects.
+     *
+     * @return a {@link ColumnarJsonArray} with the same content
+     * @throws JsonTypeMismatchException if the array contains elements that are not objects
+     */
+    public @Nonnull ColumnarJsonArray toColumnar() {
+        return new ColumnarJsonArray(this);
+    }
+
+    /**
+     * Creates (or returns the existing) hash index on the value at the path in the objects of this array. The index
+     * is kept up to date as the array is modified. Use this instead of {@link #findFirstWithFieldValue(String, String)}
+     * when you need to do many lookups on the same array.
+     *
+     * @param path path to the indexed field
+     * @return the index
+     */
+    public @Nonnull JsonArrayIndex indexBy(@Nonnull String... path) {
+        return getOrCreateIndex(false, false, path);
+    }
+
+    /**
+     * Like {@link #indexBy(String...)} but for fields that identify the object. Adding an object with a value that is
+     * already in the index fails with an IllegalStateException.
+     *
+     * @param path path to the indexed field
+     * @return the index
+     * @throws IllegalStateException if the array already contains objects with the same value
+     */
+    public @Nonnull JsonArrayIndex uniqueIndexBy(@Nonnull String... path) {
+        return getOrCreateIndex(true, false, path);
+    }
+
+    /**
+     * Like {@link #indexBy(String...)} but backed by a sorted map so it also supports range queries.
+     *
+     * @param path path to the indexed field
+     * @return the index
+     */
+    public @Nonnull JsonArrayIndex sortedIndexBy(@Nonnull String... path) {
+        return getOrCreateIndex(false, true, path);
+    }
+
+    /**
+     * @param path path of the indexed field
+     * @return optional of an index on the path; a hash index is preferred over a sorted one
+     */
+    public Optional<JsonArrayIndex> getIndex(@Nonnull String... path) {
+        if(indexes != null) {
+            JsonArrayIndex result = null;
+            for(JsonArrayIndex index: indexes) {
+                if(Arrays.equals(index.getPath(), path) && (result == null || !index.isSorted())) {
+                    result = index;
+                }
+            }
+            return Optional.ofNullable(result);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Stops maintaining the index.
+     * @param index an index created on this array
+     * @return true if the index was dropped
+     */
+    public boolean dropIndex(JsonArrayIndex index) {
+        if(indexes != null && indexes.remove(index)) {
+            if(indexes.isEmpty()) {
+                indexes = null;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private JsonArrayIndex getOrCreateIndex(boolean unique, boolean sorted, String... path) {
+        if(indexes == null) {
+            indexes = new ArrayList<>(1);
+        } else {
+            for(JsonArrayIndex index: indexes) {
+                if(index.matches(unique, sorted, path)) {
+                    return index;
+                }
+            }
+        }
+        JsonArrayIndex index = new JsonArrayIndex(this, unique, sorted, path.clone());
+        indexes.add(index);
+        return index;
+    }
+
+    int modificationCount() {
+        return modCount;
+    }
+
+    /**
+     * Adds an element without the immutability and index checks; for filling a new array during deserialization.
+     */
+    void appendUnchecked(@Nonnull JsonElement element) {
+        super.add(element);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        new ExternalFormat.Writer(out).writeElements(this);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        new ExternalFormat.Reader(in).readElements(this);
+    }
+
+    private void checkIndexes(Collection<JsonElement> removed, Collection<JsonElement> added) {
+        for(JsonArrayIndex index: indexes) {
+            index.checkUnique(removed, added);
+        }
+    }
+
+    private void updateIndexes(int modCountBefore, Collection<JsonElement> removed, Collection<JsonElement> added) {
+        for(JsonArrayIndex index: indexes) {
+            index.update(modCountBefore, removed, added);
+        }
+    }
+
     /**
      * Convenience method to prevent casting JsonElement to JsonObject when iterating in the common case that you have
      * an array of JsonObjects.
@@ -759,6 +989,17 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
         return stream().map(e -> e.asObject());
     }
 
+    /**
+     * Parallel variant of {@link #streamObjects()}. The underlying spliterator knows the exact size of the array and
+     * splits it into even halves, so the work is spread evenly over the fork join pool. Use with the collectors in
+     * {@link JsonjCollectors}, which are designed to be combined cheaply.
+     *
+     * @return parallel stream of the objects in the array
+     */
+    public @Nonnull Stream<JsonObject> parallelStreamObjects() {
+        return parallelStream().map(e -> e.asObject());
+    }
+
     public @Nonnull Stream<JsonArray> streamArrays() {
         return stream().map(e -> e.asArray());
     }
@@ -930,4 +1171,73 @@ public class JsonArray extends ArrayList<JsonElement> implements JsonElement {
             };
         };
     }
+
+    private static class SubList extends AbstractList<JsonElement> implements RandomAccess {
+        private final JsonArray parent;
+        private final int offset;
+        private int size;
+        private int expectedModCount;
+
+        SubList(JsonArray parent, int offset, int size) {
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public JsonElement get(int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            return parent.get(offset + index);
+        }
+
+        @Override
+        public JsonElement set(int index, JsonElement element) {
+            checkIndex(index, size);
+            checkForComodification();
+            JsonElement old = parent.set(offset + index, element);
+            expectedModCount = parent.modCount;
+            return old;
+        }
+
+        @Override
+        public void add(int index, JsonElement element) {
+            checkIndex(index, size + 1);
+            checkForComodification();
+            parent.add(offset + index, element);
+            expectedModCount = parent.modCount;
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public JsonElement remove(int index) {
+            checkIndex(index, size);
+            checkForComodification();
+            JsonElement old = parent.remove(offset + index);
+            expectedModCount = parent.modCount;
+            size--;
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            checkForComodification();
+            return size;
+        }
+
+        private static void checkIndex(int index, int length) {
+            if(index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + length);
+            }
+        }
+
+        private void checkForComodification() {
+            if(parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
 }
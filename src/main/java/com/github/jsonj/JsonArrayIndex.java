@@ -0,0 +1,326 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.github.jsonj.tools.JsonBuilder.fromObject;
+
+/**
+ * Secondary index on the objects in a {@link JsonArray}, keyed by the value at a path in those objects. Create one
+ * with {@link JsonArray#indexBy(String...)}, {@link JsonArray#uniqueIndexBy(String...)}, or
+ * {@link JsonArray#sortedIndexBy(String...)}.
+ *
+ * The array keeps its indexes up to date when elements are added, set, or removed (including removeIf and
+ * replaceAll). Other structural modifications, e.g. through a subList, are detected and cause the index to be rebuilt
+ * on the next lookup. Changing the indexed field of an object that is already in the array is not detected; call
+ * {@link #rebuild()} if you do that.
+ *
+ * Elements that are not objects or that have no value at the path are not indexed.
+ */
+public class JsonArrayIndex {
+    private static final Comparator<JsonElement> VALUE_ORDER = JsonArrayIndex::compareValues;
+
+    private final JsonArray array;
+    private final String[] path;
+    private final boolean unique;
+    private final boolean sorted;
+
+    // key -> JsonObject or, when there is more than one object with that key, List<JsonObject>
+    private Map<JsonElement, Object> entries;
+    // modCount of the array when the index was last in sync with it
+    private int syncedModCount;
+
+    JsonArrayIndex(@Nonnull JsonArray array, boolean unique, boolean sorted, @Nonnull String... path) {
+        if(path.length == 0) {
+            throw new IllegalArgumentException("path should not be empty");
+        }
+        this.array = array;
+        this.path = path;
+        this.unique = unique;
+        this.sorted = sorted;
+        rebuild();
+    }
+
+    /**
+     * @return the path of the indexed field
+     */
+    public @Nonnull String[] getPath() {
+        return path.clone();
+    }
+
+    /**
+     * @return true if the index allows at most one object per value
+     */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * @return true if the index supports range queries
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * @param value the value of the indexed field; will be passed through fromObject()
+     * @return the first indexed object with the given value or null
+     */
+    public JsonObject get(Object value) {
+        Object entry = current().get(fromObject(value));
+        if(entry == null) {
+            return null;
+        } else if(entry instanceof JsonObject) {
+            return (JsonObject) entry;
+        } else {
+            return asList(entry).get(0);
+        }
+    }
+
+    /**
+     * @param value the value of the indexed field; will be passed through fromObject()
+     * @return optional of the first indexed object with the given value
+     */
+    public Optional<JsonObject> maybeGet(Object value) {
+        return Optional.ofNullable(get(value));
+    }
+
+    /**
+     * @param value the value of the indexed field; will be passed through fromObject()
+     * @return all the indexed objects with the given value
+     */
+    public @Nonnull List<JsonObject> getAll(Object value) {
+        return Collections.unmodifiableList(asList(current().get(fromObject(value))));
+    }
+
+    /**
+     * @param value the value of the indexed field; will be passed through fromObject()
+     * @return true if at least one object has the given value
+     */
+    public boolean contains(Object value) {
+        return current().containsKey(fromObject(value));
+    }
+
+    /**
+     * @return the number of distinct values in the index
+     */
+    public int size() {
+        return current().size();
+    }
+
+    /**
+     * Range query on a sorted index. Numbers are compared numerically and strings lexicographically; values of
+     * different types are ordered by their {@link JsonType}.
+     *
+     * @param from lower bound (inclusive) or null for no lower bound; will be passed through fromObject()
+     * @param to upper bound (exclusive) or null for no upper bound; will be passed through fromObject()
+     * @return stream of the objects with values in the range, ordered by value
+     * @throws UnsupportedOperationException if the index is not sorted
+     */
+    public @Nonnull Stream<JsonObject> range(Object from, Object to) {
+        if(!sorted) {
+            throw new UnsupportedOperationException("range queries require a sorted index");
+        }
+        NavigableMap<JsonElement, Object> map = (NavigableMap<JsonElement, Object>) current();
+        if(from != null && to != null) {
+            map = map.subMap(fromObject(from), true, fromObject(to), false);
+        } else if(from != null) {
+            map = map.tailMap(fromObject(from), true);
+        } else if(to != null) {
+            map = map.headMap(fromObject(to), false);
+        }
+        return map.values().stream().flatMap(entry -> asList(entry).stream());
+    }
+
+    /**
+     * Rebuilds the index from the array. Only needed if you modified the indexed field of objects in the array.
+     *
+     * @throws IllegalStateException if the index is unique and the array contains objects with the same value
+     */
+    public void rebuild() {
+        Map<JsonElement, Object> newEntries = newMap();
+        for(JsonElement element : array) {
+            add(newEntries, element);
+        }
+        entries = newEntries;
+        syncedModCount = array.modificationCount();
+    }
+
+    @Override
+    public String toString() {
+        return (unique ? "unique " : "") + (sorted ? "sorted " : "") + "index on " + Arrays.toString(path);
+    }
+
+    boolean matches(boolean unique, boolean sorted, String[] path) {
+        return this.unique == unique && this.sorted == sorted && Arrays.equals(this.path, path);
+    }
+
+    /**
+     * Verifies that removing and adding the given elements does not violate the uniqueness of the index. Called
+     * before the array is modified.
+     */
+    void checkUnique(@Nonnull Iterable<JsonElement> removed, @Nonnull Iterable<JsonElement> added) {
+        if(!unique) {
+            return;
+        }
+        Map<JsonElement, Object> current = current();
+        Map<JsonElement, Integer> delta = new HashMap<>();
+        for(JsonElement element : removed) {
+            JsonElement key = keyOf(element);
+            if(key != null) {
+                delta.merge(key, -1, Integer::sum);
+            }
+        }
+        for(JsonElement element : added) {
+            JsonElement key = keyOf(element);
+            if(key != null) {
+                int count = delta.merge(key, 1, Integer::sum) + (current.containsKey(key) ? 1 : 0);
+                if(count > 1) {
+                    throw new IllegalStateException("duplicate value " + key + " for " + this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by the array after it was modified. If the index was in sync before the modification, it is updated
+     * incrementally; otherwise it will be rebuilt on the next lookup.
+     */
+    void update(int modCountBefore, @Nonnull Iterable<JsonElement> removed, @Nonnull Iterable<JsonElement> added) {
+        if(syncedModCount != modCountBefore) {
+            return;
+        }
+        for(JsonElement element : removed) {
+            remove(entries, element);
+        }
+        for(JsonElement element : added) {
+            add(entries, element);
+        }
+        syncedModCount = array.modificationCount();
+    }
+
+    private Map<JsonElement, Object> current() {
+        if(syncedModCount != array.modificationCount()) {
+            rebuild();
+        }
+        return entries;
+    }
+
+    private Map<JsonElement, Object> newMap() {
+        if(sorted) {
+            return new TreeMap<>(VALUE_ORDER);
+        } else {
+            return new HashMap<>();
+        }
+    }
+
+    private JsonElement keyOf(JsonElement element) {
+        if(element != null && element.isObject()) {
+            return element.asObject().get(path);
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Map<JsonElement, Object> map, JsonElement element) {
+        JsonElement key = keyOf(element);
+        if(key == null) {
+            return;
+        }
+        JsonObject object = element.asObject();
+        Object entry = map.get(key);
+        if(entry == null) {
+            map.put(key, object);
+        } else if(unique) {
+            throw new IllegalStateException("duplicate value " + key + " for " + this);
+        } else if(entry instanceof JsonObject) {
+            List<JsonObject> list = new ArrayList<>(2);
+            list.add((JsonObject) entry);
+            list.add(object);
+            map.put(key, list);
+        } else {
+            ((List<JsonObject>) entry).add(object);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void remove(Map<JsonElement, Object> map, JsonElement element) {
+        JsonElement key = keyOf(element);
+        if(key == null) {
+            return;
+        }
+        Object entry = map.get(key);
+        if(entry == element) {
+            map.remove(key);
+        } else if(entry instanceof List) {
+            List<JsonObject> list = (List<JsonObject>) entry;
+            for(int i = 0; i < list.size(); i++) {
+                // identity, the array may contain several equal objects
+                if(list.get(i) == element) {
+                    list.remove(i);
+                    break;
+                }
+            }
+            if(list.size() == 1) {
+                map.put(key, list.get(0));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<JsonObject> asList(Object entry) {
+        if(entry == null) {
+            return Collections.emptyList();
+        } else if(entry instanceof JsonObject) {
+            return Collections.singletonList((JsonObject) entry);
+        } else {
+            return (List<JsonObject>) entry;
+        }
+    }
+
+    static int compareValues(JsonElement left, JsonElement right) {
+        if(left.isNumber() && right.isNumber()) {
+            Number l = left.asNumber();
+            Number r = right.asNumber();
+            if(isIntegral(l) && isIntegral(r)) {
+                return Long.compare(l.longValue(), r.longValue());
+            } else if(l instanceof BigDecimal || r instanceof BigDecimal || l instanceof BigInteger || r instanceof BigInteger) {
+                return new BigDecimal(l.toString()).compareTo(new BigDecimal(r.toString()));
+            } else {
+                return Double.compare(l.doubleValue(), r.doubleValue());
+            }
+        }
+        int typeOrder = left.type().compareTo(right.type());
+        if(typeOrder != 0) {
+            return typeOrder;
+        }
+        switch (left.type()) {
+        case string:
+            return left.asString().compareTo(right.asString());
+        case bool:
+            return Boolean.compare(left.asBoolean(), right.asBoolean());
+        case nullValue:
+            return 0;
+        default:
+            // objects and arrays; not very meaningful but consistent
+            return left.toString().compareTo(right.toString());
+        }
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte;
+    }
+}
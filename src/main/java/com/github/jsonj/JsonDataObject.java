@@ -163,11 +163,11 @@ public interface JsonDataObject extends Serializable {
     }
 
     default void writeObject(java.io.ObjectOutputStream out) throws IOException {
-        getJsonObject().writeObject(out);
+        getJsonObject().writeExternal(out);
     }
 
     default void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
-        getJsonObject().readObject(in);
+        getJsonObject().readExternal(in);
     }
 
     default Optional<JsonElement> maybeGet(String...labels) {
@@ -22,15 +22,17 @@
 package com.github.jsonj;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.github.jsonj.exceptions.JsonTypeMismatchException;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map.Entry;
 
 /**
  * Super type of all Json elements (object, list, and primitive).
@@ -142,12 +144,32 @@ public interface JsonElement extends Cloneable, Serializable {
     @JsonIgnore
     boolean isString();
 
+    /**
+     * Serialize a utf8 encoded representation to the stream and close it.
+     * @param out stream
+     * @throws IOException when there is a problem with the stream
+     */
     default void serialize(@Nonnull OutputStream out) throws IOException {
-        try(OutputStreamWriter w = new OutputStreamWriter(out, "UTF-8")) {
-            serialize(w);
+        try(OutputStream o = out) {
+            ByteSink sink = ByteSink.of(o);
+            serialize(sink);
+            sink.flush();
         }
     }
 
+    /**
+     * Serialize a utf8 encoded representation to the sink. Strings are copied from their utf-8 storage, so this is
+     * cheaper than serializing to a writer.
+     * @param sink sink, see {@link ByteSink#of(OutputStream)} and {@link ByteSink#of(java.nio.ByteBuffer)}
+     * @throws IOException when there is a problem with the sink
+     */
+    default void serialize(@Nonnull ByteSink sink) throws IOException {
+        // for implementations that only know how to write to a writer
+        StringBuilderWriter w = new StringBuilderWriter();
+        serialize(w);
+        sink.write(w.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Serialize a utf8 encoded representation to the writer.
      * @param w writer
@@ -155,6 +177,36 @@ public interface JsonElement extends Cloneable, Serializable {
      */
     void serialize(@Nonnull Writer w) throws IOException;
 
+    /**
+     * Writes the element as tokens to a jackson generator, which lets any jackson data format serialize jsonj trees;
+     * see {@link com.github.jsonj.tools.JsonFactoryBasedSerializer}. Numbers are written with the type they are stored
+     * with. The generator is not flushed or closed.
+     * @param generator generator
+     * @throws IOException when there is a problem with the generator
+     */
+    default void writeTo(@Nonnull JsonGenerator generator) throws IOException {
+        switch(type()) {
+        case object:
+            generator.writeStartObject();
+            for(Entry<String, JsonElement> entry : asObject().entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                entry.getValue().writeTo(generator);
+            }
+            generator.writeEndObject();
+            break;
+        case array:
+            generator.writeStartArray();
+            for(JsonElement element : asArray()) {
+                element.writeTo(generator);
+            }
+            generator.writeEndArray();
+            break;
+        default:
+            asPrimitive().writeTo(generator);
+            break;
+        }
+    }
+
     @Nonnull JsonSet asSet();
 
     /**
@@ -21,14 +21,14 @@
  */
 package com.github.jsonj;
 
-import com.github.jsonj.tools.JsonParser;
 import com.github.jsonj.tools.JsonSerializer;
 import org.apache.commons.lang3.Validate;
 
 import javax.annotation.Nonnull;
+import java.io.Externalizable;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -44,12 +44,9 @@ import static com.github.jsonj.tools.JsonBuilder.nullValue;
  * of the common stuff has been pulled up into the IJsonObject interface in the form of default methods.
  */
 
-public class JsonObject implements IJsonObject {
+public class JsonObject implements IJsonObject, Externalizable {
     private static final long serialVersionUID = 497820087656073803L;
 
-    // used only during java object deserialization
-    private static JsonParser parser = null;
-
     private final SimpleStringKeyMap<JsonElement> simpleMap = new SimpleStringKeyMap<>();
 
     private String idField = null;
@@ -111,6 +108,30 @@ public class JsonObject implements IJsonObject {
         }
     }
 
+    /**
+     * Adds a key without checking if it is already there; for building objects from input with known unique keys.
+     * Subclasses may store their entries elsewhere (and can't override this outside this package), so they get a
+     * normal put.
+     */
+    void appendUnchecked(@Nonnull String key, @Nonnull JsonElement value) {
+        if(getClass() != JsonObject.class) {
+            put(key, value);
+        } else {
+            simpleMap.append(key, value);
+        }
+    }
+
+    /**
+     * Used by {@link JsonPath} to look up keys using the slot where they were found in the previous object. Subclasses
+     * may store their entries elsewhere (and can't override this outside this package), so they get a normal get.
+     */
+    JsonElement get(@Nonnull String key, @Nonnull int[] slotHint) {
+        if(getClass() != JsonObject.class) {
+            return get(key);
+        }
+        return simpleMap.getWithSlotHint(key, slotHint);
+    }
+
     @Override
     public MapBasedJsonObject toMapBasedJsonObject() {
         return new MapBasedJsonObject(this);
@@ -333,68 +354,16 @@ public class JsonObject implements IJsonObject {
 
     @Override
     public JsonObject flatten(@Nonnull String separator) {
-        JsonObject o = createNew();
-        flatten(o,"",separator,this);
-        return o;
-    }
-
-    protected void flatten(@Nonnull JsonObject root, @Nonnull String path, @Nonnull String separator, JsonElement element) {
-        JsonType type = element.type();
-        switch (type) {
-        case array:
-            JsonArray arr = element.asArray();
-            for(int i=0; i<arr.size();i++) {
-                if(path.length()>0) {
-                    flatten(root,path+separator+i,separator,arr.get(i));
-                } else {
-                    flatten(root,""+i,separator,arr.get(i));
-                }
-            }
-            break;
-        case object:
-            if(path.length()>0) {
-                element.asObject().forEach((key, value) -> flatten(root,path+separator+key,separator,value));
-            } else {
-                element.asObject().forEach((key, value) -> flatten(root,key,separator,value));
-            }
-
-            break;
-
-        default:
-            root.put(path, element);
-            break;
-        }
+        return Flattener.flatten(this, separator, createNew());
     }
 
-    // used by java serialization
-    void writeObject(java.io.ObjectOutputStream out) throws IOException {
-        // when using object serialization, write the json bytes
-        byte[] bytes = toString().getBytes(StandardCharsets.UTF_8);
-        out.writeInt(bytes.length);
-        out.write(bytes);
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        new ExternalFormat.Writer(out).writeEntries(this);
     }
 
-    // used by java serialization
-    void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
-        // when deserializing, parse the json string
-        try {
-            int length = in.readInt();
-            byte[] buf = new byte[length];
-            in.readFully(buf);
-            if (parser == null) {
-                // create it lazily, static so won't increase object size
-                parser = new JsonParser();
-            }
-            JsonElement o = parser.parse(new String(buf, StandardCharsets.UTF_8));
-            Field f = getClass().getDeclaredField("intMap");
-            f.setAccessible(true);
-            f.set(this, new SimpleIntKeyMap<>());
-
-            for (Entry<String, JsonElement> e : o.asObject().entrySet()) {
-                put(e.getKey(), e.getValue());
-            }
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-            throw new IllegalStateException(e);
-        }
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        new ExternalFormat.Reader(in).readEntries(this);
     }
 }
@@ -0,0 +1,388 @@
+package com.github.jsonj;
+
+import com.github.jsonj.exceptions.JsonTypeMismatchException;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiled path into a json structure. Compile once and reuse it: the path is split up front so that evaluating it
+ * does not allocate, unlike {@link IJsonObject#get(String...)} and friends which create a varargs array and often an
+ * Optional per call.
+ *
+ * Two syntaxes are supported:
+ * <ul>
+ * <li>dotted paths like <code>a.b[3].c</code>; keys with dots or brackets can be quoted: <code>a['b.c']</code>.
+ * Negative indices count from the end of an array.</li>
+ * <li>JSON Pointer (RFC 6901) like <code>/a/b/3/c</code>; any expression that is empty or starts with a slash is
+ * treated as a pointer.</li>
+ * </ul>
+ *
+ * Each step remembers the slot where it found its key in the last object. Objects with the same shape (e.g. a parsed
+ * array of similar records) have their keys in the same slots, so repeated lookups mostly skip the key scan. This is
+ * only a hint; a JsonPath is safe to share between threads.
+ *
+ * The getters return null or the default value if there is nothing at the path, including when the structure does not
+ * match it (e.g. a key applied to an array).
+ */
+public final class JsonPath {
+    /**
+     * Returned by {@link #index(int)} for steps that can only be applied to objects.
+     */
+    public static final int NO_INDEX = Integer.MIN_VALUE;
+
+    private final String expression;
+    private final Step[] steps;
+
+    private JsonPath(String expression, Step[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * @param expression dotted path or JSON Pointer
+     * @return the compiled path
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public static @Nonnull JsonPath compile(@Nonnull String expression) {
+        if(expression.isEmpty() || expression.charAt(0) == '/') {
+            return new JsonPath(expression, parsePointer(expression));
+        } else {
+            return new JsonPath(expression, parseDotted(expression));
+        }
+    }
+
+    /**
+     * @param labels field names, as you would pass them to {@link IJsonObject#get(String...)}
+     * @return the compiled path
+     */
+    public static @Nonnull JsonPath of(@Nonnull String... labels) {
+        Step[] steps = new Step[labels.length];
+        StringBuilder expression = new StringBuilder();
+        for(int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            steps[i] = new Step(label, NO_INDEX);
+            if(label.isEmpty() || label.indexOf('.') >= 0 || label.indexOf('[') >= 0 || label.indexOf(']') >= 0 || label.charAt(0) == '/') {
+                expression.append("['").append(label.replace("\\", "\\\\").replace("'", "\\'")).append("']");
+            } else {
+                if(i > 0) {
+                    expression.append('.');
+                }
+                expression.append(label);
+            }
+        }
+        return new JsonPath(expression.toString(), steps);
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @return the element at the path or null
+     */
+    public JsonElement get(JsonElement root) {
+        JsonElement e = root;
+        for(Step step : steps) {
+            if(e == null) {
+                return null;
+            }
+            e = step.apply(e);
+        }
+        return e;
+    }
+
+    public @Nonnull Optional<JsonElement> maybeGet(JsonElement root) {
+        return Optional.ofNullable(get(root));
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @return true if there is an element at the path; json null counts as an element
+     */
+    public boolean exists(JsonElement root) {
+        return get(root) != null;
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @return the string value at the path or null if there is no value or the value is json null
+     */
+    public String getString(JsonElement root) {
+        JsonElement e = get(root);
+        if(e == null || e.isNull()) {
+            return null;
+        } else {
+            return e.asString();
+        }
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @param defaultValue returned if there is no value or the value is json null
+     * @return the value at the path as a long
+     */
+    public long getLong(JsonElement root, long defaultValue) {
+        JsonElement e = get(root);
+        if(e == null || e.isNull()) {
+            return defaultValue;
+        } else {
+            return e.asLong();
+        }
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @param defaultValue returned if there is no value or the value is json null
+     * @return the value at the path as an int
+     */
+    public int getInt(JsonElement root, int defaultValue) {
+        JsonElement e = get(root);
+        if(e == null || e.isNull()) {
+            return defaultValue;
+        } else {
+            return e.asInt();
+        }
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @param defaultValue returned if there is no value or the value is json null
+     * @return the value at the path as a double
+     */
+    public double getDouble(JsonElement root, double defaultValue) {
+        JsonElement e = get(root);
+        if(e == null || e.isNull()) {
+            return defaultValue;
+        } else {
+            return e.asDouble();
+        }
+    }
+
+    /**
+     * Numbers are true when they are larger than 0 and strings are parsed, like {@link IJsonObject#getBoolean(String...)}.
+     *
+     * @param root element to evaluate the path against
+     * @param defaultValue returned if there is no value or the value is json null
+     * @return the value at the path as a boolean
+     */
+    public boolean getBoolean(JsonElement root, boolean defaultValue) {
+        JsonElement e = get(root);
+        if(e == null || e.isNull()) {
+            return defaultValue;
+        } else if(e.isBoolean()) {
+            return e.asBoolean();
+        } else if(e.isNumber()) {
+            return e.asInt() > 0;
+        } else if(e.isPrimitive()) {
+            return Boolean.valueOf(e.asString());
+        } else {
+            throw new JsonTypeMismatchException("expected primitive value but was " + e.type());
+        }
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @return the object at the path or null
+     * @throws JsonTypeMismatchException if the value at the path is not an object
+     */
+    public JsonObject getObject(JsonElement root) {
+        JsonElement e = get(root);
+        return e == null ? null : e.asObject();
+    }
+
+    /**
+     * @param root element to evaluate the path against
+     * @return the array at the path or null
+     * @throws JsonTypeMismatchException if the value at the path is not an array
+     */
+    public JsonArray getArray(JsonElement root) {
+        JsonElement e = get(root);
+        return e == null ? null : e.asArray();
+    }
+
+    /**
+     * @return the number of steps in the path
+     */
+    public int length() {
+        return steps.length;
+    }
+
+    /**
+     * @param step position of the step
+     * @return the key of the step or null if the step can only be applied to arrays
+     */
+    public String key(int step) {
+        return steps[step].key;
+    }
+
+    /**
+     * @param step position of the step
+     * @return the array index of the step or {@link #NO_INDEX} if the step can only be applied to objects
+     */
+    public int index(int step) {
+        return steps[step].index;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof JsonPath && expression.equals(((JsonPath) o).expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    private static Step[] parseDotted(String expression) {
+        List<Step> steps = new ArrayList<>();
+        int i = 0;
+        int length = expression.length();
+        // true if the next character may start a key without a dot, i.e. at the start of the path
+        boolean start = true;
+        while(i < length) {
+            char c = expression.charAt(i);
+            if(c == '[') {
+                int close = expression.indexOf(']', i);
+                if(close < 0) {
+                    throw new IllegalArgumentException("missing ] in " + expression);
+                }
+                char first = i + 1 < length ? expression.charAt(i + 1) : ']';
+                if(first == '\'' || first == '"') {
+                    StringBuilder key = new StringBuilder();
+                    int j = i + 2;
+                    while(j < length && expression.charAt(j) != first) {
+                        if(expression.charAt(j) == '\\' && j + 1 < length) {
+                            j++;
+                        }
+                        key.append(expression.charAt(j));
+                        j++;
+                    }
+                    if(j + 1 >= length || expression.charAt(j + 1) != ']') {
+                        throw new IllegalArgumentException("unterminated quoted key in " + expression);
+                    }
+                    steps.add(new Step(key.toString(), NO_INDEX));
+                    i = j + 2;
+                } else {
+                    String index = expression.substring(i + 1, close).trim();
+                    try {
+                        steps.add(new Step(null, Integer.parseInt(index)));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("not an array index '" + index + "' in " + expression);
+                    }
+                    i = close + 1;
+                }
+                start = false;
+            } else if(c == '.' && !start) {
+                i++;
+                if(i == length || expression.charAt(i) == '.' || expression.charAt(i) == '[') {
+                    throw new IllegalArgumentException("empty key in " + expression);
+                }
+                i = parseKey(expression, i, steps);
+            } else if(start) {
+                i = parseKey(expression, i, steps);
+                start = false;
+            } else {
+                throw new IllegalArgumentException("unexpected '" + c + "' at " + i + " in " + expression);
+            }
+        }
+        return steps.toArray(new Step[steps.size()]);
+    }
+
+    private static int parseKey(String expression, int i, List<Step> steps) {
+        int end = i;
+        while(end < expression.length() && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+            end++;
+        }
+        if(end == i) {
+            throw new IllegalArgumentException("empty key in " + expression);
+        }
+        steps.add(new Step(expression.substring(i, end), NO_INDEX));
+        return end;
+    }
+
+    private static Step[] parsePointer(String pointer) {
+        if(pointer.isEmpty()) {
+            return new Step[0];
+        }
+        String[] tokens = pointer.substring(1).split("/", -1);
+        Step[] steps = new Step[tokens.length];
+        for(int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if(token.indexOf('~') >= 0) {
+                token = unescapePointerToken(token, pointer);
+            }
+            steps[i] = new Step(token, pointerIndex(token));
+        }
+        return steps;
+    }
+
+    private static String unescapePointerToken(String token, String pointer) {
+        StringBuilder buf = new StringBuilder(token.length());
+        for(int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if(c == '~') {
+                char next = i + 1 < token.length() ? token.charAt(i + 1) : ' ';
+                if(next == '0') {
+                    buf.append('~');
+                } else if(next == '1') {
+                    buf.append('/');
+                } else {
+                    throw new IllegalArgumentException("invalid escape in json pointer " + pointer);
+                }
+                i++;
+            } else {
+                buf.append(c);
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * RFC 6901 array indices are 0 or digits without a leading zero. Anything else, including "-" (the element after
+     * the last one), never matches an array element.
+     */
+    private static int pointerIndex(String token) {
+        int length = token.length();
+        if(length == 0 || length > 9 || (token.charAt(0) == '0' && length > 1)) {
+            return NO_INDEX;
+        }
+        for(int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if(c < '0' || c > '9') {
+                return NO_INDEX;
+            }
+        }
+        return Integer.parseInt(token);
+    }
+
+    private static final class Step {
+        // null for index only steps
+        final String key;
+        final int index;
+        // slot where the key was found last; racy updates are harmless since it is only a hint
+        final int[] slotHint = new int[1];
+
+        Step(String key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        JsonElement apply(JsonElement e) {
+            if(key != null && e.isObject()) {
+                return e.asObject().get(key, slotHint);
+            } else if(index != NO_INDEX && e.isArray()) {
+                JsonArray array = e.asArray();
+                int i = index < 0 ? array.size() + index : index;
+                if(i >= 0 && i < array.size()) {
+                    return array.get(i);
+                }
+            }
+            return null;
+        }
+    }
+}
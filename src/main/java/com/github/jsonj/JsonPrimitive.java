@@ -22,14 +22,19 @@
 package com.github.jsonj;
 
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
 import com.github.jsonj.exceptions.JsonTypeMismatchException;
 import com.github.jsonj.tools.JsonSerializer;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.text.NumberFormat;
 import java.text.ParseException;
@@ -47,6 +52,13 @@ public class JsonPrimitive implements JsonElement, Serializable, Formattable {
 
     private final Object value;
     private final @Nonnull JsonType type;
+    // markers for escaped, so that strings without special characters don't keep an extra reference to their bytes
+    private static final byte[] PLAIN = new byte[0];
+    private static final byte[] ESCAPED_ONCE = new byte[0];
+
+    // for strings: null until first serialized, then PLAIN if the value needs no escaping. Otherwise ESCAPED_ONCE,
+    // and the escaped utf-8 once it is serialized again; values that are only serialized once don't pay for a copy
+    private transient volatile byte[] escaped;
 
     /** Null object in json, no point creating this over and over again */
     public static final @Nonnull JsonPrimitive JSON_NULL = new JsonPrimitive((String)null);
@@ -234,15 +246,120 @@ public class JsonPrimitive implements JsonElement, Serializable, Formattable {
         }
     }
 
+    /**
+     * @return the stored value; the utf-8 bytes for strings. The bytes must not be modified.
+     */
+    Object rawValue() {
+        return value;
+    }
+
+    /**
+     * @return the utf-8 bytes of a string value as they are stored, without copying. The bytes must not be modified.
+     */
+    byte[] utf8Bytes() {
+        if(type != JsonType.string) {
+            throw new JsonTypeMismatchException("not a string");
+        }
+        return (byte[]) value;
+    }
+
+    /**
+     * @return the length of a string value encoded as utf-8
+     * @throws JsonTypeMismatchException if this is not a string
+     */
+    public int utf8Length() {
+        return utf8Bytes().length;
+    }
+
+    /**
+     * Writes a string value as utf-8, without quotes or escaping, for encoders of formats that store utf-8 strings.
+     *
+     * @param sink sink to write to
+     * @throws IOException if the sink can't be written
+     * @throws JsonTypeMismatchException if this is not a string
+     */
+    public void writeUtf8To(@Nonnull ByteSink sink) throws IOException {
+        byte[] utf8 = utf8Bytes();
+        sink.write(utf8, 0, utf8.length);
+    }
 
+    /**
+     * @param utf8 utf-8 encoded string
+     * @return string primitive; see {@link #fromUtf8(byte[], int, int)}
+     */
+    public static @Nonnull JsonPrimitive fromUtf8(@Nonnull byte[] utf8) {
+        return fromUtf8(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Creates a string primitive from bytes that are already utf-8 encoded, for decoders that have them at hand. The
+     * bytes are copied, so the array can be reused. Malformed input is replaced the same way as by
+     * {@link String#String(byte[], int, int, Charset)}.
+     *
+     * @param utf8 array with the utf-8 encoded string
+     * @param offset offset of the string
+     * @param length length of the string in bytes
+     * @return string primitive
+     */
+    public static @Nonnull JsonPrimitive fromUtf8(@Nonnull byte[] utf8, int offset, int length) {
+        if(isValidUtf8(utf8, offset, length)) {
+            return new JsonPrimitive(Arrays.copyOfRange(utf8, offset, offset + length), JsonType.string);
+        } else {
+            return new JsonPrimitive(new String(utf8, offset, length, UTF8));
+        }
+    }
+
+    /**
+     * Strict check as in RFC 3629: no overlong encodings, surrogates, or code points beyond U+10FFFF.
+     */
+    private static boolean isValidUtf8(byte[] utf8, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while(i < end) {
+            int b = utf8[i++];
+            if(b >= 0) {
+                continue;
+            }
+            int continuations;
+            int min;
+            if((b & 0xE0) == 0xC0) {
+                continuations = 1;
+                min = 0x80;
+                b &= 0x1F;
+            } else if((b & 0xF0) == 0xE0) {
+                continuations = 2;
+                min = 0x800;
+                b &= 0x0F;
+            } else if((b & 0xF8) == 0xF0) {
+                continuations = 3;
+                min = 0x10000;
+                b &= 0x07;
+            } else {
+                return false;
+            }
+            if(end - i < continuations) {
+                return false;
+            }
+            int codePoint = b;
+            for(int j = 0; j < continuations; j++) {
+                int c = utf8[i++];
+                if((c & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = codePoint << 6 | c & 0x3F;
+            }
+            if(codePoint < min || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     @Override
     public String toString() {
         switch (type) {
         case string:
-            String raw;
-            raw = new String((byte[]) value, UTF8);
-            return '"' + JsonSerializer.jsonEscape(raw) + '"';
+            return JsonSerializer.QUOTE + new String(escaped(), UTF8) + JsonSerializer.QUOTE;
         case bool:
             return value.toString();
         case number:
@@ -259,8 +376,7 @@ public class JsonPrimitive implements JsonElement, Serializable, Formattable {
         switch (type) {
         case string:
             w.append(JsonSerializer.QUOTE);
-            byte[] bytes = (byte[]) value;
-            w.append(JsonSerializer.jsonEscape(new String(bytes, UTF8)));
+            write(w, escaped());
             w.append(JsonSerializer.QUOTE);
             return;
         case bool:
@@ -277,6 +393,132 @@ public class JsonPrimitive implements JsonElement, Serializable, Formattable {
         }
     }
 
+    @Override
+    public void serialize(@Nonnull ByteSink sink) throws IOException {
+        switch (type) {
+        case string:
+            sink.write('"');
+            writeEscaped(sink);
+            sink.write('"');
+            return;
+        case bool:
+        case number:
+            sink.writeAscii(value.toString());
+            return;
+        case nullValue:
+            sink.writeAscii("null");
+            return;
+        default:
+            throw new IllegalArgumentException("value has to be a primitive");
+        }
+    }
+
+    private void writeEscaped(ByteSink sink) throws IOException {
+        byte[] bytes = (byte[]) value;
+        byte[] cached = escaped;
+        if(cached == PLAIN) {
+            sink.write(bytes);
+        } else if(cached == null) {
+            if(JsonSerializer.needsEscaping(bytes)) {
+                escaped = ESCAPED_ONCE;
+                JsonSerializer.writeEscaped(sink, bytes);
+            } else {
+                escaped = PLAIN;
+                sink.write(bytes);
+            }
+        } else {
+            sink.write(escaped());
+        }
+    }
+
+    /**
+     * @return the escaped utf-8 of a string value; the value itself if it needs no escaping
+     */
+    private byte[] escaped() {
+        byte[] bytes = (byte[]) value;
+        byte[] cached = escaped;
+        if(cached == PLAIN) {
+            return bytes;
+        } else if(cached == null && !JsonSerializer.needsEscaping(bytes)) {
+            escaped = PLAIN;
+            return bytes;
+        } else if(cached != null && cached != ESCAPED_ONCE) {
+            return cached;
+        }
+        ByteArraySink sink = new ByteArraySink(bytes.length + 16);
+        try {
+            JsonSerializer.writeEscaped(sink, bytes);
+        } catch (IOException e) {
+            // the sink doesn't throw
+            throw new IllegalStateException(e);
+        }
+        byte[] result = sink.toByteArray();
+        // racing threads may both escape, which is harmless
+        escaped = cached == null ? ESCAPED_ONCE : result;
+        return result;
+    }
+
+    @Override
+    public void writeTo(@Nonnull JsonGenerator generator) throws IOException {
+        switch (type) {
+        case string:
+            byte[] bytes = (byte[]) value;
+            if(generator instanceof UTF8JsonGenerator) {
+                // escapes the utf-8 as it is, so the string doesn't need to be decoded
+                generator.writeUTF8String(bytes, 0, bytes.length);
+            } else {
+                generator.writeString(asString());
+            }
+            return;
+        case bool:
+            generator.writeBoolean((Boolean) value);
+            return;
+        case number:
+            if(value instanceof Long) {
+                generator.writeNumber((Long) value);
+            } else if(value instanceof Double) {
+                generator.writeNumber((Double) value);
+            } else if(value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if(value instanceof BigInteger) {
+                generator.writeNumber((BigInteger) value);
+            } else if(value instanceof Float) {
+                generator.writeNumber((Float) value);
+            } else {
+                // shorts, bytes, atomic numbers
+                generator.writeNumber(((Number) value).longValue());
+            }
+            return;
+        case nullValue:
+            generator.writeNull();
+            return;
+        default:
+            throw new IllegalArgumentException("value has to be a primitive");
+        }
+    }
+
+    /**
+     * Decodes escaped utf-8 into a recycled char buffer. Escaped text has no four byte sequences, those are escaped as
+     * surrogate pairs.
+     */
+    private static void write(Writer w, byte[] utf8) throws IOException {
+        char[] chars = BufferRecycler.charBuffer(utf8.length);
+        int length = 0;
+        int i = 0;
+        while(i < utf8.length) {
+            int b = utf8[i++];
+            if(b >= 0) {
+                chars[length++] = (char) b;
+            } else if((b & 0xE0) == 0xC0) {
+                chars[length++] = (char) ((b & 0x1F) << 6 | utf8[i++] & 0x3F);
+            } else {
+                chars[length++] = (char) ((b & 0x0F) << 12 | (utf8[i++] & 0x3F) << 6 | utf8[i++] & 0x3F);
+            }
+        }
+        w.write(chars, 0, length);
+        BufferRecycler.release(chars);
+    }
+
     @Override
     public String prettyPrint() {
         return JsonSerializer.serialize(this, true);
@@ -385,6 +627,11 @@ public class JsonPrimitive implements JsonElement, Serializable, Formattable {
     public void removeEmpty() {
     }
 
+    // used by java serialization
+    private Object writeReplace() throws ObjectStreamException {
+        return new ExternalFormat.SerializedPrimitive(this);
+    }
+
     @Override
     public void formatTo(Formatter formatter, int flags, int width, int precision) {
         // TODO actually support more stuff here for int/double formatting
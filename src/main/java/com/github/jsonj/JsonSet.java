@@ -24,9 +24,19 @@ package com.github.jsonj;
 import com.github.jsonj.tools.JsonBuilder;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import static com.github.jsonj.tools.JsonBuilder.array;
 import static com.github.jsonj.tools.JsonBuilder.fromObject;
@@ -35,11 +45,23 @@ import static com.github.jsonj.tools.JsonBuilder.primitive;
 
 /**
  * Representation of json arrays that behaves like a set.
+ *
+ * Membership checks are backed by a hash index of the element keys (the elements themselves or the keys extracted by
+ * the {@link IdStrategy}). The index is maintained on add and remove and rebuilt lazily after any other structural
+ * modification of the underlying list. As with any hash based set, you should not modify elements while they are in
+ * the set.
  */
 public class JsonSet extends JsonArray implements Set<JsonElement> {
     private static final long serialVersionUID = 753773658521455994L;
     private IdStrategy strategy = null;
 
+    // key -> number of elements with that key; null when it needs to be (re)built
+    private transient Map<Object, Integer> keyIndex = null;
+    // value of modCount when the index was last in sync with the list
+    private transient int indexModCount = -1;
+    // true if the strategy cannot extract keys, in which case contains falls back to a linear scan
+    private transient boolean keyless = false;
+
     public JsonSet() {
         super();
     }
@@ -136,8 +158,17 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
     @Override
     public boolean remove(Object o) {
         if(strategy == null) {
-            return super.remove(o);
+            JsonElement element = o instanceof JsonElement ? (JsonElement) o : primitive(o);
+            if(!contains(element)) {
+                return false;
+            }
+            // goes through remove(int), which keeps the index up to date
+            return super.remove(element);
         } else {
+            if(!contains(o)) {
+                return false;
+            }
+            // iterator.remove goes through remove(int), which keeps the index up to date
             Iterator<JsonElement> it = iterator();
             while (it.hasNext()) {
                 JsonElement jsonElement = it.next();
@@ -156,15 +187,71 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
             e = nullValue();
         }
         if (!contains(e)) {
+            boolean inSync = isIndexInSync();
             super.add(e);
+            if(inSync) {
+                indexAdd(e);
+            }
             return true;
         } else if(strategy != null){
             remove(e); // remove the old element that is identical according to the strategy
+            boolean inSync = isIndexInSync();
             super.add(e);
+            if(inSync) {
+                indexAdd(e);
+            }
         }
         return false;
     }
 
+    @Override
+    public void add(int index, JsonElement element) {
+        boolean inSync = isIndexInSync();
+        super.add(index, element);
+        if(inSync) {
+            indexAdd(element);
+        }
+    }
+
+    @Override
+    public JsonElement set(int index, JsonElement element) {
+        boolean inSync = isIndexInSync();
+        JsonElement old = super.set(index, element);
+        if(inSync) {
+            indexRemove(old);
+            indexAdd(element);
+        }
+        return old;
+    }
+
+    @Override
+    public JsonElement remove(int index) {
+        boolean inSync = isIndexInSync();
+        JsonElement old = super.remove(index);
+        if(inSync) {
+            indexRemove(old);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super JsonElement> filter) {
+        keyIndex = null;
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<JsonElement> operator) {
+        keyIndex = null;
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void clear() {
+        keyIndex = null;
+        super.clear();
+    }
+
     @Override
     public JsonArray asArray() {
         JsonArray array = array();
@@ -220,16 +307,24 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
      */
     public JsonSet withIdStrategy(IdStrategy strategy) {
         this.strategy = strategy;
+        keyIndex = null;
+        keyless = false;
         if(size()>0) {
-            JsonSet seen=new JsonSet().withIdStrategy(strategy);
-            Iterator<JsonElement> iterator = this.iterator();
-            while (iterator.hasNext()) {
-                JsonElement e = iterator.next();
-                if(seen.contains(e)) {
-                    iterator.remove();
-                } else {
+            // keeps the first of any duplicates in a single pass; removeIf invalidates the index so it gets rebuilt
+            if(keyOf(get(0)) != null) {
+                Map<Object, Boolean> seen = new HashMap<>();
+                removeIf(e -> seen.put(keyOf(e), Boolean.TRUE) != null);
+            } else {
+                JsonArray seen = new JsonArray();
+                removeIf(e -> {
+                    for(JsonElement s : seen) {
+                        if(strategy.equals(s, e)) {
+                            return true;
+                        }
+                    }
                     seen.add(e);
-                }
+                    return false;
+                });
             }
         }
         return this;
@@ -246,27 +341,138 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
 
     @Override
     public boolean contains(Object o) {
+        if(size() == 0) {
+            return false;
+        }
+        JsonElement element = null;
+        if(o instanceof JsonElement) {
+            element = (JsonElement) o;
+        } else if(o instanceof JsonDataObject) {
+            element = ((JsonDataObject) o).getJsonObject();
+        }
+        if(element != null) {
+            Map<Object, Integer> keys = currentKeyIndex();
+            if(keys != null) {
+                return keys.containsKey(keyOf(element));
+            }
+        }
         if (strategy == null) {
             return super.contains(o);
         } else {
-            if (o instanceof JsonElement) {
-                JsonElement element = (JsonElement) o;
+            if (element != null) {
                 for (JsonElement e : this) {
                     if (strategy.equals(e, element)) {
                         return true;
                     }
                 }
             }
-            if(o instanceof JsonDataObject) {
-                JsonElement element = ((JsonDataObject) o).getJsonObject();
-                for (JsonElement e : this) {
-                    if (strategy.equals(e, element)) {
-                        return true;
-                    }
+            return false;
+        }
+    }
+
+    private Object keyOf(JsonElement e) {
+        if(strategy == null) {
+            return e;
+        } else {
+            return strategy.key(e);
+        }
+    }
+
+    private boolean isIndexInSync() {
+        return keyIndex != null && indexModCount == modCount;
+    }
+
+    /**
+     * @return the index of element keys, rebuilding it if the list was modified behind its back; or null if the
+     *         strategy does not support keys.
+     */
+    private Map<Object, Integer> currentKeyIndex() {
+        if(keyless) {
+            return null;
+        }
+        if(!isIndexInSync()) {
+            Map<Object, Integer> newIndex = new HashMap<>(Math.max(16, size() * 4 / 3 + 1));
+            for(int i=0; i<size();i++) {
+                Object key = keyOf(get(i));
+                if(key == null) {
+                    keyless = true;
+                    keyIndex = null;
+                    return null;
                 }
+                newIndex.merge(key, 1, Integer::sum);
             }
-            return false;
+            keyIndex = newIndex;
+            indexModCount = modCount;
+        }
+        return keyIndex;
+    }
+
+    private void indexAdd(JsonElement e) {
+        Object key = keyOf(e);
+        if(key == null) {
+            keyless = true;
+            keyIndex = null;
+        } else {
+            keyIndex.merge(key, 1, Integer::sum);
+            indexModCount = modCount;
+        }
+    }
+
+    private void indexRemove(JsonElement e) {
+        Object key = keyOf(e);
+        if(key == null) {
+            keyless = true;
+            keyIndex = null;
+        } else {
+            keyIndex.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            indexModCount = modCount;
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        writeStrategy(out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        readStrategy(in);
+    }
+
+    void writeStrategy(ObjectOutput out) throws IOException {
+        if(strategy == null) {
+            out.writeByte(0);
+        } else if(strategy instanceof FieldIdStrategy) {
+            String[] fields = ((FieldIdStrategy) strategy).fields;
+            out.writeByte(1);
+            out.writeInt(fields.length);
+            for(String field: fields) {
+                out.writeUTF(field);
+            }
+        } else if(strategy instanceof Serializable) {
+            out.writeByte(2);
+            out.writeObject(strategy);
+        } else {
+            throw new NotSerializableException(strategy.getClass().getName());
+        }
+    }
+
+    void readStrategy(ObjectInput in) throws IOException, ClassNotFoundException {
+        byte kind = in.readByte();
+        if(kind == 1) {
+            String[] fields = new String[in.readInt()];
+            for(int i=0; i<fields.length;i++) {
+                fields[i] = in.readUTF();
+            }
+            strategy = new FieldIdStrategy(fields);
+        } else if(kind == 2) {
+            strategy = (IdStrategy) in.readObject();
+        } else {
+            strategy = null;
         }
+        keyIndex = null;
     }
 
     private static final class FieldIdStrategy implements IdStrategy {
@@ -303,6 +509,16 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
 //            }
 //            return e1.equals(e2);
         }
+
+        @Override
+        public Object key(JsonElement element) {
+            JsonObject object = element.asObject();
+            JsonElement[] values = new JsonElement[fields.length];
+            for(int i=0; i<fields.length;i++) {
+                values[i] = object.get(fields[i]);
+            }
+            return Arrays.asList(values);
+        }
     }
 
     /**
@@ -316,5 +532,17 @@ public class JsonSet extends JsonArray implements Set<JsonElement> {
          * @return true if t1 equals t2
          */
         boolean equals(JsonElement t1, JsonElement t2);
+
+        /**
+         * Optionally extracts a key that is consistent with {@link #equals(JsonElement, JsonElement)}: two elements
+         * must have equal keys (with matching hash codes) if and only if the strategy considers them equal. Providing
+         * this allows the set to use a hash index instead of a linear scan for every contains, add and remove.
+         *
+         * @param element an element
+         * @return the key for the element or null if the strategy does not support keys (the default).
+         */
+        default Object key(JsonElement element) {
+            return null;
+        }
     }
 }
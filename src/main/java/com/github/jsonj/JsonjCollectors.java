@@ -2,6 +2,9 @@ package com.github.jsonj;
 
 import javax.annotation.Nonnull;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -10,8 +13,16 @@ import java.util.function.Supplier;
 import java.util.stream.Collector;
 
 import static com.github.jsonj.tools.JsonBuilder.fromObject;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
 
+/**
+ * Collectors for streams of json elements. All of them have combiners that are cheap enough to use with parallel
+ * streams, e.g. {@link JsonArray#parallelStreamObjects()}.
+ */
 public class JsonjCollectors {
+    // same default as the parser uses for switching to a MapBasedJsonObject
+    private static final int MAP_BASED_OBJECT_THRESHOLD = 100;
+
     public static @Nonnull Collector<Object, JsonSet, JsonSet> set() {
         return new Collector<Object, JsonSet, JsonSet>() {
             @Override
@@ -26,6 +37,7 @@ public class JsonjCollectors {
 
             @Override
             public BinaryOperator<JsonSet> combiner() {
+                // JsonSet.add is a hash lookup, so merging is linear in the size of the right hand side
                 return (l,r) -> {l.addAll(r); return l;};
             }
 
@@ -54,7 +66,12 @@ public class JsonjCollectors {
 
             @Override
             public BinaryOperator<JsonArray> combiner() {
-                return (l,r) -> {l.addAll(r); return l;};
+                // a single array copy per merge; grow once instead of letting addAll do it
+                return (l,r) -> {
+                    l.ensureCapacity(l.size() + r.size());
+                    l.addAll(r);
+                    return l;
+                };
             }
 
             @Override
@@ -67,4 +84,153 @@ public class JsonjCollectors {
                 return new HashSet<>();
             }};
     }
+
+    /**
+     * Groups the elements by the value at the path. Elements without a value at the path are skipped.
+     *
+     * @param path path of the field to group on; elements must be objects
+     * @return collector that produces an object with an array of elements for each distinct value
+     */
+    public static @Nonnull Collector<JsonElement, ?, JsonObject> groupingBy(@Nonnull String... path) {
+        return Collector.<JsonElement, Map<String, JsonArray>, JsonObject>of(
+                LinkedHashMap::new,
+                (groups, e) -> {
+                    String key = groupKey(e, path);
+                    if(key != null) {
+                        groups.computeIfAbsent(key, k -> new JsonArray()).add(e);
+                    }
+                },
+                (l, r) -> {
+                    r.forEach((key, group) -> l.merge(key, group, (lg, rg) -> {lg.addAll(rg); return lg;}));
+                    return l;
+                },
+                JsonjCollectors::toJsonObject);
+    }
+
+    /**
+     * Counts the elements by the value at the path. Elements without a value at the path are skipped.
+     *
+     * @param path path of the field to group on; elements must be objects
+     * @return collector that produces an object with the count for each distinct value
+     */
+    public static @Nonnull Collector<JsonElement, ?, JsonObject> countingBy(@Nonnull String... path) {
+        return Collector.<JsonElement, Map<String, long[]>, JsonObject>of(
+                LinkedHashMap::new,
+                (counts, e) -> {
+                    String key = groupKey(e, path);
+                    if(key != null) {
+                        counts.computeIfAbsent(key, k -> new long[1])[0]++;
+                    }
+                },
+                (l, r) -> {
+                    r.forEach((key, count) -> l.merge(key, count, (lc, rc) -> {lc[0] += rc[0]; return lc;}));
+                    return l;
+                },
+                counts -> {
+                    Map<String, JsonElement> result = new LinkedHashMap<>();
+                    counts.forEach((key, count) -> result.put(key, primitive(count[0])));
+                    return toJsonObject(result);
+                });
+    }
+
+    /**
+     * Sums the numbers at valuePath by the value at groupPath. Elements without a group value are skipped and
+     * elements without a number count as 0. Sums are longs as long as all the numbers are integers.
+     *
+     * @param groupPath path of the field to group on; elements must be objects
+     * @param valuePath path of the field with the numbers to sum
+     * @return collector that produces an object with the sum for each distinct value
+     */
+    public static @Nonnull Collector<JsonElement, ?, JsonObject> summingBy(@Nonnull String[] groupPath, @Nonnull String... valuePath) {
+        return Collector.<JsonElement, Map<String, Sum>, JsonObject>of(
+                LinkedHashMap::new,
+                (sums, e) -> {
+                    String key = groupKey(e, groupPath);
+                    if(key != null) {
+                        sums.computeIfAbsent(key, k -> new Sum()).add(e.asObject().get(valuePath));
+                    }
+                },
+                (l, r) -> {
+                    r.forEach((key, sum) -> l.merge(key, sum, Sum::add));
+                    return l;
+                },
+                sums -> {
+                    Map<String, JsonElement> result = new LinkedHashMap<>();
+                    sums.forEach((key, sum) -> result.put(key, sum.get()));
+                    return toJsonObject(result);
+                });
+    }
+
+    /**
+     * @param groupField field to group on
+     * @param valueField field with the numbers to sum
+     * @return collector that produces an object with the sum for each distinct value
+     */
+    public static @Nonnull Collector<JsonElement, ?, JsonObject> summingBy(@Nonnull String groupField, @Nonnull String valueField) {
+        return summingBy(new String[] {groupField}, valueField);
+    }
+
+    /**
+     * Collects the stream into an object. Later values replace earlier values with the same key.
+     *
+     * @param keyFn function that extracts the key
+     * @param valueFn function that extracts the value; will be passed through fromObject()
+     * @param <T> type of the stream elements
+     * @return collector that produces an object
+     */
+    public static @Nonnull <T> Collector<T, ?, JsonObject> toObject(@Nonnull Function<? super T, String> keyFn, @Nonnull Function<? super T, ?> valueFn) {
+        return Collector.<T, Map<String, JsonElement>, JsonObject>of(
+                LinkedHashMap::new,
+                (map, e) -> map.put(keyFn.apply(e), fromObject(valueFn.apply(e))),
+                (l, r) -> {l.putAll(r); return l;},
+                JsonjCollectors::toJsonObject);
+    }
+
+    private static String groupKey(JsonElement e, String[] path) {
+        JsonElement value = e.asObject().get(path);
+        if(value == null || value.isNull()) {
+            return null;
+        }
+        return value.asString();
+    }
+
+    /**
+     * Like the parser, use a MapBasedJsonObject for results with many keys.
+     */
+    private static JsonObject toJsonObject(Map<String, ? extends JsonElement> map) {
+        JsonObject object = map.size() > MAP_BASED_OBJECT_THRESHOLD ? new MapBasedJsonObject() : new JsonObject();
+        for(Entry<String, ? extends JsonElement> entry: map.entrySet()) {
+            object.put(entry.getKey(), entry.getValue());
+        }
+        return object;
+    }
+
+    private static final class Sum {
+        long longSum = 0;
+        double doubleSum = 0;
+        boolean integral = true;
+
+        void add(JsonElement value) {
+            if(value != null && value.isNumber()) {
+                Number n = value.asNumber();
+                if(n instanceof Long || n instanceof Integer) {
+                    longSum += n.longValue();
+                } else {
+                    integral = false;
+                    doubleSum += n.doubleValue();
+                }
+            }
+        }
+
+        Sum add(Sum other) {
+            longSum += other.longSum;
+            doubleSum += other.doubleSum;
+            integral = integral && other.integral;
+            return this;
+        }
+
+        JsonPrimitive get() {
+            return integral ? primitive(longSum) : primitive(longSum + doubleSum);
+        }
+    }
 }
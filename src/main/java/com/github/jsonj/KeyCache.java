@@ -0,0 +1,79 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Bounded cache for values derived from object keys, like escaped keys or encoded key fragments, shared by the
+ * serializers.
+ *
+ * Documents tend to share a limited set of keys, so caching what is derived from them saves work on every object. But
+ * keys may also be data (ids, timestamps, words), so a cache that only grows would leak memory and one that stops
+ * growing when full would keep whatever keys it saw first. This cache is a fixed size table indexed by the hash of
+ * the key in which each key can go in one of two slots. A new key takes a free slot or evicts one of the two entries,
+ * so keys that are used all the time stay cached while one-off keys come and go.
+ *
+ * Lookups are lock free. When threads race on the same slot one entry wins; the others just computed a value that
+ * is not cached. The computed values are shared, so they must not be modified.
+ *
+ * @param <V> type of the cached values
+ */
+public final class KeyCache<V> {
+    private final AtomicReferenceArray<Entry<V>> entries;
+    private final int mask;
+
+    /**
+     * @param capacity maximum number of cached keys; rounded up to a power of two
+     */
+    public KeyCache(int capacity) {
+        int size = 2;
+        while(size < capacity) {
+            size <<= 1;
+        }
+        entries = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * @param key key
+     * @param compute computes the value if the key is not cached
+     * @return the cached or computed value
+     */
+    public @Nonnull V get(@Nonnull String key, @Nonnull Function<String, V> compute) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        int first = h & mask;
+        // the other slot of the pair
+        int second = first ^ 1;
+        Entry<V> entry = entries.get(first);
+        if(entry != null && entry.key.equals(key)) {
+            return entry.value;
+        }
+        Entry<V> other = entries.get(second);
+        if(other != null && other.key.equals(key)) {
+            return other.value;
+        }
+        V value = compute.apply(key);
+        Entry<V> created = new Entry<>(key, value);
+        if(entry == null) {
+            entries.set(first, created);
+        } else if(other == null) {
+            entries.set(second, created);
+        } else {
+            // evict one of the two, picked by a bit of the hash that is not used for the slot
+            entries.set((h & (mask + 1)) == 0 ? first : second, created);
+        }
+        return value;
+    }
+
+    private static final class Entry<V> {
+        final String key;
+        final V value;
+
+        Entry(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
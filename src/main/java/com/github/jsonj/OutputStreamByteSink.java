@@ -0,0 +1,67 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffers bytes for an output stream, see {@link ByteSink#of(OutputStream)}. The buffer comes from the
+ * {@link BufferRecycler} and goes back there when the sink is flushed.
+ */
+final class OutputStreamByteSink implements ByteSink {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final OutputStream out;
+    private byte[] buffer = EMPTY;
+    private int size;
+
+    OutputStreamByteSink(@Nonnull OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if(size == buffer.length) {
+            makeRoom();
+        }
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(@Nonnull byte[] bytes, int offset, int length) throws IOException {
+        if(length > buffer.length - size) {
+            makeRoom();
+            if(length >= buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if(buffer != EMPTY) {
+            BufferRecycler.release(buffer);
+            buffer = EMPTY;
+        }
+        out.flush();
+    }
+
+    private void makeRoom() throws IOException {
+        if(buffer == EMPTY) {
+            buffer = BufferRecycler.byteBuffer(BufferRecycler.DEFAULT_BUFFER_SIZE);
+        } else {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if(size > 0) {
+            out.write(buffer, 0, size);
+            size = 0;
+        }
+    }
+}
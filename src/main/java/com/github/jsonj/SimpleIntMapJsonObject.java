@@ -21,7 +21,6 @@
  */
 package com.github.jsonj;
 
-import com.github.jsonj.tools.JsonParser;
 import com.github.jsonj.tools.JsonSerializer;
 import com.jillesvangurp.efficientstring.EfficientString;
 import org.apache.commons.lang3.Validate;
@@ -29,8 +28,6 @@ import org.apache.commons.lang3.Validate;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -48,9 +45,6 @@ import static com.github.jsonj.tools.JsonBuilder.nullValue;
 public class SimpleIntMapJsonObject extends JsonObject {
     private static final long serialVersionUID = 497820087656073803L;
 
-    // use during object serialization only
-    private static JsonParser parser = null;
-
     // private final LinkedHashMap<EfficientString, JsonElement> map = new LinkedHashMap<EfficientString,
     // JsonElement>();
 //    private final Map<EfficientString, JsonElement> map = new SimpleMap<>();
@@ -105,7 +99,7 @@ public class SimpleIntMapJsonObject extends JsonObject {
             EfficientString key = EfficientString.get(entry.getKey());
             JsonElement value = entry.getValue();
             w.append(JsonSerializer.QUOTE);
-            w.append(JsonSerializer.jsonEscape(key.toString()));
+            w.append(JsonSerializer.escapeKey(key.toString()));
             w.append(JsonSerializer.QUOTE);
             w.append(JsonSerializer.COLON);
             value.serialize(w);
@@ -116,6 +110,21 @@ public class SimpleIntMapJsonObject extends JsonObject {
         w.append(JsonSerializer.CLOSE_BRACE);
     }
 
+    @Override
+    public void serialize(@Nonnull ByteSink sink) throws IOException {
+        sink.write('{');
+        Iterator<Entry<Integer, JsonElement>> iterator = intMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<Integer, JsonElement> entry = iterator.next();
+            JsonSerializer.writeKey(sink, EfficientString.get(entry.getKey()).toString());
+            entry.getValue().serialize(sink);
+            if (iterator.hasNext()) {
+                sink.write(',');
+            }
+        }
+        sink.write('}');
+    }
+
     @Override
     public JsonElement put(String key, JsonElement value) {
         Validate.notNull(key);
@@ -165,15 +174,7 @@ public class SimpleIntMapJsonObject extends JsonObject {
                 return jsonElement.hashCode();
             }
         }
-        int hashCode = 23;
-        Set<Entry<String, JsonElement>> entrySet = entrySet();
-        for (Entry<String, JsonElement> entry : entrySet) {
-            JsonElement value = entry.getValue();
-            if (value != null) { // skip null entries
-                hashCode = hashCode * entry.getKey().hashCode() * value.hashCode();
-            }
-        }
-        return hashCode;
+        return defaultHashCode();
     }
 
     @Override
@@ -400,44 +401,4 @@ public class SimpleIntMapJsonObject extends JsonObject {
     public @Nonnull Collection<JsonElement> values() {
         return intMap.values();
     }
-
-    @Override
-    public JsonObject flatten(@Nonnull String separator) {
-        JsonObject o = new SimpleIntMapJsonObject();
-        flatten(o,"",separator,this);
-        return o;
-    }
-
-    @Override
-    void writeObject(java.io.ObjectOutputStream out) throws IOException {
-        // when using object serialization, write the json bytes
-        byte[] bytes = toString().getBytes(StandardCharsets.UTF_8);
-        out.writeInt(bytes.length);
-        out.write(bytes);
-
-    }
-
-    @Override
-    void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
-        // when deserializing, parse the json string
-        try {
-            int length = in.readInt();
-            byte[] buf = new byte[length];
-            in.readFully(buf);
-            if (parser == null) {
-                // create it lazily, static so won't increase object size
-                parser = new JsonParser();
-            }
-            JsonElement o = parser.parse(new String(buf, StandardCharsets.UTF_8));
-            Field f = getClass().getDeclaredField("intMap");
-            f.setAccessible(true);
-            f.set(this, new SimpleIntKeyMap<>());
-
-            for (Entry<String, JsonElement> e : o.asObject().entrySet()) {
-                put(e.getKey(), e.getValue());
-            }
-        } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
-            throw new IllegalStateException(e);
-        }
-    }
 }
@@ -84,6 +84,28 @@ public class SimpleStringKeyMap<V> implements Map<String, V>, Serializable {
         }
     }
 
+    /**
+     * Lookup that first checks the slot where the key was found the last time. Objects with the same shape have their
+     * keys in the same slots, so for those this avoids the linear scan.
+     *
+     * @param key key
+     * @param slotHint single element array with the slot to try first; updated when the key is found elsewhere
+     * @return the value or null
+     */
+    V getWithSlotHint(String key, int[] slotHint) {
+        int slot = slotHint[0];
+        if(slot < values.size() && key.equals(keysArr[slot])) {
+            return values.get(slot);
+        }
+        int index = getIndex(key);
+        if(index>=0) {
+            slotHint[0] = index;
+            return values.get(index);
+        } else {
+            return null;
+        }
+    }
+
     private int getIndex(String key) {
         int j=0;
         for(int i=0; i<values.size();i++) {
@@ -106,16 +128,36 @@ public class SimpleStringKeyMap<V> implements Map<String, V>, Serializable {
         if(index >=0) {
             values.set(index, value);
         } else {
-            if(values.size()+1<keysArr.length) {
-                // dynamically grow array
-                keysArr = Arrays.copyOf(keysArr, keysArr.length + 3);
-            }
-            keysArr[values.size()] = key;
+            addKey(key);
             values.add(value);
         }
         return value;
     }
 
+    /**
+     * Adds an entry without checking whether the key is already there. Only use this when the caller knows the keys are
+     * unique, e.g. when copying or deserializing another map.
+     *
+     * @param key key that is not in the map yet
+     * @param value value
+     */
+    void append(String key, V value) {
+        if(immutable) {
+            throw new IllegalStateException("object is immutable");
+        }
+        Validate.notNull(key);
+        addKey(key);
+        values.add(value);
+    }
+
+    private void addKey(String key) {
+        if(values.size() >= keysArr.length) {
+            // dynamically grow array
+            keysArr = Arrays.copyOf(keysArr, keysArr.length + (keysArr.length >> 1) + 1);
+        }
+        keysArr[values.size()] = key;
+    }
+
     @Override
     public V remove(Object key) {
         if(immutable) {
@@ -0,0 +1,80 @@
+package com.github.jsonj;
+
+import javax.annotation.Nonnull;
+import java.io.Writer;
+
+/**
+ * Writer that appends to a StringBuilder; unlike StringWriter, which uses a StringBuffer, nothing is synchronized.
+ */
+public final class StringBuilderWriter extends Writer {
+    private final StringBuilder builder;
+
+    public StringBuilderWriter() {
+        this(256);
+    }
+
+    /**
+     * @param capacity initial capacity
+     */
+    public StringBuilderWriter(int capacity) {
+        builder = new StringBuilder(capacity);
+    }
+
+    @Override
+    public void write(int c) {
+        builder.append((char) c);
+    }
+
+    @Override
+    public void write(@Nonnull char[] chars, int offset, int length) {
+        builder.append(chars, offset, length);
+    }
+
+    @Override
+    public void write(@Nonnull String str) {
+        builder.append(str);
+    }
+
+    @Override
+    public void write(@Nonnull String str, int offset, int length) {
+        builder.append(str, offset, offset + length);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        builder.append(csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) {
+        builder.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Writer append(char c) {
+        builder.append(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return the builder with everything written so far
+     */
+    public @Nonnull StringBuilder getBuilder() {
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.exceptions.JsonParseException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Layout of binary documents, shared by the writer and the readers. All fixed size numbers are big endian.
+ *
+ * <pre>
+ * document := 'J' 'B' version length:int32 table value     (length counts the bytes after the length field)
+ * table    := count:varint (size:varint utf8-bytes)*        (keys and repeated strings, referred to by number)
+ * value    := NULL | FALSE | TRUE
+ *           | INT zigzag-varint | DOUBLE float64 | FLOAT float32
+ *           | BIG_INTEGER size:varint bytes | BIG_DECIMAL scale:zigzag-varint size:varint unscaled-bytes
+ *           | STRING size:varint utf8-bytes | STRING_REF number:varint
+ *           | OBJECT length:int32 count:varint (key-number:varint value)*
+ *           | ARRAY length:int32 count:varint value*         (length counts the bytes after the length field)
+ * </pre>
+ */
+final class BinaryFormat {
+    static final byte MAGIC_1 = 'J';
+    static final byte MAGIC_2 = 'B';
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 7;
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INT = 3;
+    static final byte DOUBLE = 4;
+    static final byte FLOAT = 5;
+    static final byte BIG_INTEGER = 6;
+    static final byte BIG_DECIMAL = 7;
+    static final byte STRING = 8;
+    static final byte STRING_REF = 9;
+    static final byte OBJECT = 10;
+    static final byte ARRAY = 11;
+
+    /** strings up to this many bytes go in the table so repeated values are stored once */
+    static final int MAX_TABLE_VALUE_SIZE = 32;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * @param buffer buffer with a document at offset
+     * @param offset start of the document
+     * @return the size of the document, including the header
+     */
+    static int documentSize(ByteBuffer buffer, int offset) {
+        if(buffer.limit() - offset < HEADER_SIZE) {
+            throw new JsonParseException("truncated binary json document");
+        }
+        if(buffer.get(offset) != MAGIC_1 || buffer.get(offset + 1) != MAGIC_2) {
+            throw new JsonParseException("not a binary json document");
+        }
+        if(buffer.get(offset + 2) != VERSION) {
+            throw new JsonParseException("unsupported binary json version " + buffer.get(offset + 2));
+        }
+        int length = buffer.getInt(offset + 3);
+        if(length < 0 || length > buffer.limit() - offset - HEADER_SIZE) {
+            throw new JsonParseException("truncated binary json document");
+        }
+        return HEADER_SIZE + length;
+    }
+
+    static long readVarLong(ByteBuffer buffer, int pos) {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get(pos++);
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+        throw new JsonParseException("malformed varint");
+    }
+
+    static int readVarint(ByteBuffer buffer, int pos) {
+        long value = readVarLong(buffer, pos);
+        if(value < 0 || value > Integer.MAX_VALUE) {
+            throw new JsonParseException("bad size " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * @return the number of bytes of the varint at pos
+     */
+    static int varintLength(ByteBuffer buffer, int pos) {
+        int length = 1;
+        while(buffer.get(pos) < 0) {
+            pos++;
+            length++;
+        }
+        return length;
+    }
+
+    static int varintLength(long value) {
+        int length = 1;
+        while((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @return a copy of the bytes at pos
+     */
+    static byte[] copy(ByteBuffer buffer, int pos, int length) {
+        if(buffer.hasArray()) {
+            int start = buffer.arrayOffset() + pos;
+            return Arrays.copyOfRange(buffer.array(), start, start + length);
+        } else {
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(pos);
+            byte[] bytes = new byte[length];
+            slice.get(bytes);
+            return bytes;
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param buffer buffer with a value at pos
+     * @param pos position of the tag
+     * @return the position after the value, without looking inside objects and arrays
+     */
+    static int skip(ByteBuffer buffer, int pos) {
+        byte tag = buffer.get(pos++);
+        switch (tag) {
+        case NULL:
+        case FALSE:
+        case TRUE:
+            return pos;
+        case INT:
+        case STRING_REF:
+            return pos + varintLength(buffer, pos);
+        case DOUBLE:
+            return pos + 8;
+        case FLOAT:
+            return pos + 4;
+        case BIG_DECIMAL:
+            pos += varintLength(buffer, pos);
+            return pos + varintLength(buffer, pos) + readVarint(buffer, pos);
+        case BIG_INTEGER:
+        case STRING:
+            return pos + varintLength(buffer, pos) + readVarint(buffer, pos);
+        case OBJECT:
+        case ARRAY:
+            return pos + 4 + buffer.getInt(pos);
+        default:
+            throw new JsonParseException("unknown tag " + tag + " at " + (pos - 1));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+import com.github.jsonj.tools.JsonSerializer;
+
+import javax.annotation.Nonnull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static com.github.jsonj.binary.BinaryFormat.ARRAY;
+import static com.github.jsonj.binary.BinaryFormat.BIG_DECIMAL;
+import static com.github.jsonj.binary.BinaryFormat.BIG_INTEGER;
+import static com.github.jsonj.binary.BinaryFormat.DOUBLE;
+import static com.github.jsonj.binary.BinaryFormat.FALSE;
+import static com.github.jsonj.binary.BinaryFormat.FLOAT;
+import static com.github.jsonj.binary.BinaryFormat.HEADER_SIZE;
+import static com.github.jsonj.binary.BinaryFormat.INT;
+import static com.github.jsonj.binary.BinaryFormat.NULL;
+import static com.github.jsonj.binary.BinaryFormat.OBJECT;
+import static com.github.jsonj.binary.BinaryFormat.STRING;
+import static com.github.jsonj.binary.BinaryFormat.STRING_REF;
+import static com.github.jsonj.binary.BinaryFormat.TRUE;
+import static com.github.jsonj.binary.BinaryFormat.copy;
+import static com.github.jsonj.binary.BinaryFormat.documentSize;
+import static com.github.jsonj.binary.BinaryFormat.readVarLong;
+import static com.github.jsonj.binary.BinaryFormat.readVarint;
+import static com.github.jsonj.binary.BinaryFormat.unzigzag;
+import static com.github.jsonj.binary.BinaryFormat.varintLength;
+
+/**
+ * Decodes documents written by {@link BinaryJsonWriter} into mutable json elements. Strings that were stored once in
+ * the string table of a document share a single primitive in the result.
+ *
+ * Alternatively, {@link #view(ByteBuffer)} gives read only access to a document without decoding it, see
+ * {@link BinaryObjectView}.
+ */
+public final class BinaryJsonReader {
+    /** same default as the json parser: larger objects are read into a {@link MapBasedJsonObject} */
+    private static final int MAP_BASED_THRESHOLD = 100;
+
+    private final ByteBuffer buffer;
+    private final StringTable table;
+
+    BinaryJsonReader(ByteBuffer buffer, StringTable table) {
+        this.buffer = buffer;
+        this.table = table;
+    }
+
+    /**
+     * @param bytes encoded document
+     * @return the decoded element
+     * @throws JsonParseException if the bytes are not a valid document
+     */
+    public static @Nonnull JsonElement read(@Nonnull byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @param buffer buffer with a document at its position; the position is moved past the document
+     * @return the decoded element
+     * @throws JsonParseException if the buffer does not contain a valid document
+     */
+    public static @Nonnull JsonElement read(@Nonnull ByteBuffer buffer) {
+        BinaryJsonReader reader = open(buffer);
+        try {
+            return reader.readValue(reader.table.end());
+        } catch (IndexOutOfBoundsException e) {
+            throw new JsonParseException("truncated binary json document");
+        }
+    }
+
+    /**
+     * Gives read only access to a document without decoding it. Objects are returned as a {@link BinaryObjectView},
+     * arrays as immutable arrays of views, and primitives as primitives. The view reads from the buffer for as long as
+     * it is used, so the document must not be overwritten in the meantime.
+     *
+     * @param buffer buffer with a document at its position; the position is moved past the document
+     * @return a view of the document
+     * @throws JsonParseException if the buffer does not contain a valid document
+     */
+    public static @Nonnull JsonElement view(@Nonnull ByteBuffer buffer) {
+        BinaryJsonReader reader = open(buffer);
+        try {
+            return reader.view(reader.table.end());
+        } catch (IndexOutOfBoundsException e) {
+            throw new JsonParseException("truncated binary json document");
+        }
+    }
+
+    /**
+     * @param bytes encoded document, which must not be modified while the view is used
+     * @return a view of the document
+     * @see #view(ByteBuffer)
+     */
+    public static @Nonnull JsonElement view(@Nonnull byte[] bytes) {
+        return view(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Checks the header and the string table of the document at the position of the buffer and moves the position past
+     * the document.
+     */
+    private static BinaryJsonReader open(ByteBuffer buffer) {
+        ByteBuffer bigEndian = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int start = buffer.position();
+        int end = start + documentSize(bigEndian, start);
+        bigEndian.limit(end);
+        try {
+            StringTable table = new StringTable(bigEndian, start + HEADER_SIZE);
+            if(BinaryFormat.skip(bigEndian, table.end()) != end) {
+                throw new JsonParseException("binary json document size does not match its content");
+            }
+            buffer.position(end);
+            return new BinaryJsonReader(bigEndian, table);
+        } catch (IndexOutOfBoundsException e) {
+            throw new JsonParseException("truncated binary json document");
+        }
+    }
+
+    /**
+     * Reads the next document from a stream of documents.
+     *
+     * @param in stream positioned at the start of a document or at its end
+     * @return the decoded element or null at the end of the stream
+     * @throws IOException if the stream can't be read or ends in the middle of a document
+     */
+    public static JsonElement read(@Nonnull InputStream in) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int read = readFully(in, header, 0, HEADER_SIZE);
+        if(read == 0) {
+            return null;
+        } else if(read < HEADER_SIZE) {
+            throw new EOFException("truncated binary json document");
+        }
+        int length = ByteBuffer.wrap(header).getInt(3);
+        if(length < 0) {
+            throw new JsonParseException("negative binary json document length");
+        }
+        byte[] document = new byte[HEADER_SIZE + length];
+        System.arraycopy(header, 0, document, 0, HEADER_SIZE);
+        if(readFully(in, document, HEADER_SIZE, length) < length) {
+            throw new EOFException("truncated binary json document");
+        }
+        return read(document);
+    }
+
+    private static int readFully(InputStream in, byte[] target, int offset, int length) throws IOException {
+        int total = 0;
+        while(total < length) {
+            int read = in.read(target, offset + total, length - total);
+            if(read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * @param pos position of a value
+     * @return the decoded value
+     */
+    JsonElement readValue(int pos) {
+        byte tag = buffer.get(pos++);
+        switch (tag) {
+        case NULL:
+            return JsonPrimitive.JSON_NULL;
+        case FALSE:
+            return new JsonPrimitive(false);
+        case TRUE:
+            return new JsonPrimitive(true);
+        case INT:
+            return new JsonPrimitive(unzigzag(readVarLong(buffer, pos)));
+        case DOUBLE:
+            return new JsonPrimitive(buffer.getDouble(pos));
+        case FLOAT:
+            return new JsonPrimitive(buffer.getFloat(pos));
+        case BIG_INTEGER:
+            return new JsonPrimitive(new BigInteger(readBytes(pos)));
+        case BIG_DECIMAL:
+            int scale = (int) unzigzag(readVarLong(buffer, pos));
+            return new JsonPrimitive(new BigDecimal(new BigInteger(readBytes(pos + varintLength(buffer, pos))), scale));
+        case STRING:
+            return JsonPrimitive.fromUtf8(readBytes(pos));
+        case STRING_REF:
+            return table.string(readVarint(buffer, pos));
+        case OBJECT:
+            return readObject(pos + 4);
+        case ARRAY:
+            return readArray(pos + 4);
+        default:
+            throw new JsonParseException("unknown tag " + tag + " at " + (pos - 1));
+        }
+    }
+
+    /**
+     * @param pos position of a value
+     * @return a view if the value is an object, an immutable array of views if it is an array, or the primitive
+     */
+    JsonElement view(int pos) {
+        byte tag = buffer.get(pos);
+        if(tag == OBJECT) {
+            return new BinaryObjectView(this, pos);
+        } else if(tag == ARRAY) {
+            pos += 5;
+            int count = readVarint(buffer, pos);
+            pos += varintLength(buffer, pos);
+            JsonArray array = new JsonArray();
+            array.ensureCapacity(Math.min(count, buffer.limit() - pos));
+            for(int i = 0; i < count; i++) {
+                array.add(view(pos));
+                pos = BinaryFormat.skip(buffer, pos);
+            }
+            // views and primitives are immutable already, so this only copies the list
+            return array.immutableClone();
+        } else {
+            return readValue(pos);
+        }
+    }
+
+    /**
+     * Writes the value at pos as json without decoding objects and arrays.
+     */
+    void serialize(int pos, Writer w) throws IOException {
+        byte tag = buffer.get(pos);
+        if(tag == OBJECT || tag == ARRAY) {
+            boolean object = tag == OBJECT;
+            pos += 5;
+            int count = readVarint(buffer, pos);
+            pos += varintLength(buffer, pos);
+            w.append(object ? JsonSerializer.OPEN_BRACE : JsonSerializer.OPEN_BRACKET);
+            for(int i = 0; i < count; i++) {
+                if(i > 0) {
+                    w.append(JsonSerializer.COMMA);
+                }
+                if(object) {
+                    w.append(JsonSerializer.QUOTE);
+                    w.append(JsonSerializer.escapeKey(table.key(readVarint(buffer, pos))));
+                    w.append(JsonSerializer.QUOTE);
+                    w.append(JsonSerializer.COLON);
+                    pos += varintLength(buffer, pos);
+                }
+                serialize(pos, w);
+                pos = BinaryFormat.skip(buffer, pos);
+            }
+            w.append(object ? JsonSerializer.CLOSE_BRACE : JsonSerializer.CLOSE_BRACKET);
+        } else {
+            readValue(pos).serialize(w);
+        }
+    }
+
+    /**
+     * @param pos position of a value
+     * @return the string value at pos, decoded from the bytes without creating a primitive, or null for json null
+     */
+    String readString(int pos) {
+        byte tag = buffer.get(pos);
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING_REF:
+            return table.key(readVarint(buffer, pos + 1));
+        case STRING:
+            return new String(readBytes(pos + 1), StandardCharsets.UTF_8);
+        default:
+            return readValue(pos).asString();
+        }
+    }
+
+    /**
+     * @param pos position of a value
+     * @return the value at pos as a long, or null for json null
+     */
+    Long readLong(int pos) {
+        byte tag = buffer.get(pos);
+        switch (tag) {
+        case NULL:
+            return null;
+        case INT:
+            return unzigzag(readVarLong(buffer, pos + 1));
+        default:
+            return readValue(pos).asLong();
+        }
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    StringTable table() {
+        return table;
+    }
+
+    private JsonObject readObject(int pos) {
+        int count = readVarint(buffer, pos);
+        pos += varintLength(buffer, pos);
+        JsonObject object = count > MAP_BASED_THRESHOLD ? new MapBasedJsonObject() : new JsonObject();
+        for(int i = 0; i < count; i++) {
+            String key = table.key(readVarint(buffer, pos));
+            pos += varintLength(buffer, pos);
+            object.put(key, readValue(pos));
+            pos = BinaryFormat.skip(buffer, pos);
+        }
+        return object;
+    }
+
+    private JsonArray readArray(int pos) {
+        int count = readVarint(buffer, pos);
+        pos += varintLength(buffer, pos);
+        JsonArray array = new JsonArray();
+        // every element takes at least a byte
+        array.ensureCapacity(Math.min(count, buffer.limit() - pos));
+        for(int i = 0; i < count; i++) {
+            array.add(readValue(pos));
+            pos = BinaryFormat.skip(buffer, pos);
+        }
+        return array;
+    }
+
+    private byte[] readBytes(int pos) {
+        int length = readVarint(buffer, pos);
+        return copy(buffer, pos + varintLength(buffer, pos), length);
+    }
+}
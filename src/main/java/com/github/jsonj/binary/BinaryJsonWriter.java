@@ -0,0 +1,297 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.ByteSink;
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPrimitive;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.github.jsonj.binary.BinaryFormat.ARRAY;
+import static com.github.jsonj.binary.BinaryFormat.BIG_DECIMAL;
+import static com.github.jsonj.binary.BinaryFormat.BIG_INTEGER;
+import static com.github.jsonj.binary.BinaryFormat.DOUBLE;
+import static com.github.jsonj.binary.BinaryFormat.FALSE;
+import static com.github.jsonj.binary.BinaryFormat.FLOAT;
+import static com.github.jsonj.binary.BinaryFormat.HEADER_SIZE;
+import static com.github.jsonj.binary.BinaryFormat.INT;
+import static com.github.jsonj.binary.BinaryFormat.MAGIC_1;
+import static com.github.jsonj.binary.BinaryFormat.MAGIC_2;
+import static com.github.jsonj.binary.BinaryFormat.MAX_TABLE_VALUE_SIZE;
+import static com.github.jsonj.binary.BinaryFormat.NULL;
+import static com.github.jsonj.binary.BinaryFormat.OBJECT;
+import static com.github.jsonj.binary.BinaryFormat.STRING;
+import static com.github.jsonj.binary.BinaryFormat.STRING_REF;
+import static com.github.jsonj.binary.BinaryFormat.TRUE;
+import static com.github.jsonj.binary.BinaryFormat.VERSION;
+import static com.github.jsonj.binary.BinaryFormat.varintLength;
+import static com.github.jsonj.binary.BinaryFormat.zigzag;
+
+/**
+ * Encodes json elements in the binary format read by {@link BinaryJsonReader}. Keys and short strings are stored once
+ * per document in a shared string table; longer strings are copied from {@link JsonPrimitive} as utf-8 without
+ * re-encoding. Numbers keep their type: integral numbers other than {@link BigInteger} are stored as varint longs.
+ *
+ * A writer reuses its buffers between documents, so keep one around when encoding many documents. Writers are not
+ * thread safe.
+ */
+public final class BinaryJsonWriter {
+    // keys and short string values share the table, so a string that is used as both is stored once
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<byte[]> table = new ArrayList<>();
+    private int tableSize;
+
+    private byte[] body = new byte[256];
+    private int size;
+    private final ByteSink bodySink = new ByteSink() {
+        @Override
+        public void write(int b) {
+            writeByte((byte) b);
+        }
+
+        @Override
+        public void write(@Nonnull byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, body, size, length);
+            size += length;
+        }
+    };
+
+    /**
+     * @param element element to encode
+     * @return the encoded document
+     */
+    public @Nonnull byte[] toBytes(@Nonnull JsonElement element) {
+        encode(element);
+        byte[] document = new byte[headSize() + size];
+        int pos = writeHeaderAndTable(document);
+        System.arraycopy(body, 0, document, pos, size);
+        return document;
+    }
+
+    /**
+     * @param element element to encode
+     * @param out stream to write the document to; documents written one after the other can be read back one by one
+     *            with {@link BinaryJsonReader#read(java.io.InputStream)}
+     * @throws IOException if the stream can't be written
+     */
+    public void write(@Nonnull JsonElement element, @Nonnull OutputStream out) throws IOException {
+        encode(element);
+        byte[] head = new byte[headSize()];
+        writeHeaderAndTable(head);
+        out.write(head);
+        out.write(body, 0, size);
+    }
+
+    /**
+     * @param element element to encode
+     * @param buffer buffer to put the document in at its position, which is moved past the document
+     * @throws BufferOverflowException if the document doesn't fit
+     */
+    public void write(@Nonnull JsonElement element, @Nonnull ByteBuffer buffer) {
+        encode(element);
+        byte[] head = new byte[headSize()];
+        writeHeaderAndTable(head);
+        if(buffer.remaining() < head.length + size) {
+            throw new BufferOverflowException();
+        }
+        buffer.put(head);
+        buffer.put(body, 0, size);
+    }
+
+    private void encode(JsonElement element) {
+        strings.clear();
+        table.clear();
+        tableSize = 0;
+        size = 0;
+        writeValue(element);
+    }
+
+    private int headSize() {
+        return HEADER_SIZE + varintLength(table.size()) + tableSize;
+    }
+
+    private int writeHeaderAndTable(byte[] target) {
+        int length = headSize() - HEADER_SIZE + size;
+        target[0] = MAGIC_1;
+        target[1] = MAGIC_2;
+        target[2] = VERSION;
+        target[3] = (byte) (length >>> 24);
+        target[4] = (byte) (length >>> 16);
+        target[5] = (byte) (length >>> 8);
+        target[6] = (byte) length;
+        int pos = putVarint(target, HEADER_SIZE, table.size());
+        for(byte[] entry : table) {
+            pos = putVarint(target, pos, entry.length);
+            System.arraycopy(entry, 0, target, pos, entry.length);
+            pos += entry.length;
+        }
+        return pos;
+    }
+
+    private void writeValue(JsonElement element) {
+        if(element.isObject()) {
+            JsonObject object = element.asObject();
+            int start = startContainer(OBJECT, object.size());
+            for(Entry<String, JsonElement> entry : object.entrySet()) {
+                writeVarint(stringNumber(entry.getKey()));
+                writeValue(entry.getValue());
+            }
+            endContainer(start);
+        } else if(element.isArray()) {
+            JsonArray array = element.asArray();
+            int start = startContainer(ARRAY, array.size());
+            for(JsonElement value : array) {
+                writeValue(value);
+            }
+            endContainer(start);
+        } else {
+            writePrimitive(element.asPrimitive());
+        }
+    }
+
+    private void writePrimitive(JsonPrimitive primitive) {
+        switch (primitive.type()) {
+        case nullValue:
+            writeByte(NULL);
+            break;
+        case bool:
+            writeByte(primitive.asBoolean() ? TRUE : FALSE);
+            break;
+        case string:
+            int length = primitive.utf8Length();
+            if(length <= MAX_TABLE_VALUE_SIZE) {
+                writeByte(STRING_REF);
+                writeVarint(stringNumber(primitive.asString()));
+            } else {
+                writeByte(STRING);
+                writeVarint(length);
+                try {
+                    primitive.writeUtf8To(bodySink);
+                } catch (IOException e) {
+                    // the sink doesn't throw
+                    throw new IllegalStateException(e);
+                }
+            }
+            break;
+        default:
+            writeNumber((Number) primitive.value());
+        }
+    }
+
+    private void writeNumber(Number number) {
+        if(number instanceof Double) {
+            writeByte(DOUBLE);
+            writeLong(Double.doubleToRawLongBits(number.doubleValue()));
+        } else if(number instanceof Float) {
+            writeByte(FLOAT);
+            writeInt(Float.floatToRawIntBits(number.floatValue()));
+        } else if(number instanceof BigInteger) {
+            writeByte(BIG_INTEGER);
+            writeBytes(((BigInteger) number).toByteArray());
+        } else if(number instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) number;
+            writeByte(BIG_DECIMAL);
+            writeVarint(zigzag(decimal.scale()));
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else {
+            writeByte(INT);
+            writeVarint(zigzag(number.longValue()));
+        }
+    }
+
+    private int stringNumber(String string) {
+        Integer number = strings.get(string);
+        if(number == null) {
+            number = addToTable(string.getBytes(StandardCharsets.UTF_8));
+            strings.put(string, number);
+        }
+        return number;
+    }
+
+    private int addToTable(byte[] utf8) {
+        table.add(utf8);
+        tableSize += varintLength(utf8.length) + utf8.length;
+        return table.size() - 1;
+    }
+
+    /**
+     * @return position of the length field, to be filled in by endContainer
+     */
+    private int startContainer(byte tag, int count) {
+        writeByte(tag);
+        int start = size;
+        ensureCapacity(4);
+        size += 4;
+        writeVarint(count);
+        return start;
+    }
+
+    private void endContainer(int start) {
+        int length = size - start - 4;
+        body[start] = (byte) (length >>> 24);
+        body[start + 1] = (byte) (length >>> 16);
+        body[start + 2] = (byte) (length >>> 8);
+        body[start + 3] = (byte) length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if(size + extra > body.length) {
+            body = Arrays.copyOf(body, Math.max(body.length * 2, size + extra));
+        }
+    }
+
+    private void writeByte(byte b) {
+        ensureCapacity(1);
+        body[size++] = b;
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        size = putVarint(body, size, value);
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        for(int shift = 24; shift >= 0; shift -= 8) {
+            body[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for(int shift = 56; shift >= 0; shift -= 8) {
+            body[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, body, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private static int putVarint(byte[] target, int pos, long value) {
+        while((value & ~0x7FL) != 0) {
+            target[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[pos++] = (byte) value;
+        return pos;
+    }
+}
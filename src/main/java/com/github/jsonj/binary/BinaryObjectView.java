@@ -0,0 +1,281 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.github.jsonj.binary.BinaryFormat.OBJECT;
+import static com.github.jsonj.binary.BinaryFormat.readVarint;
+import static com.github.jsonj.binary.BinaryFormat.skip;
+import static com.github.jsonj.binary.BinaryFormat.varintLength;
+
+/**
+ * Read only object that answers lookups from the encoded bytes of a binary document, see
+ * {@link BinaryJsonReader#view(ByteBuffer)}. Nested objects are returned as views as well, so nothing is decoded until
+ * it is asked for; lookups scan the keys of the object and skip over the values.
+ *
+ * Views can be used wherever a JsonObject is accepted, but all modifications throw an {@link IllegalStateException}.
+ * Use {@link #materialize()} or {@link #deepClone()} for a mutable copy. Views may be read from multiple threads.
+ */
+public final class BinaryObjectView extends JsonObject {
+    private static final long serialVersionUID = 1L;
+
+    private final BinaryJsonReader reader;
+    private final int start;
+    private final int count;
+    private final int entries;
+
+    BinaryObjectView(BinaryJsonReader reader, int start) {
+        this.reader = reader;
+        this.start = start;
+        ByteBuffer buffer = reader.buffer();
+        // skip the tag and the byte length
+        int pos = start + 5;
+        count = readVarint(buffer, pos);
+        entries = pos + varintLength(buffer, pos);
+    }
+
+    /**
+     * @return a mutable copy of the object
+     */
+    public @Nonnull JsonObject materialize() {
+        return reader.readValue(start).asObject();
+    }
+
+    /**
+     * @param object position of an object
+     * @return position of the value for the key or -1
+     */
+    private int find(int object, Object key) {
+        ByteBuffer buffer = reader.buffer();
+        StringTable table = reader.table();
+        int pos = object + 5;
+        int size = readVarint(buffer, pos);
+        pos += varintLength(buffer, pos);
+        for(int i = 0; i < size; i++) {
+            int number = readVarint(buffer, pos);
+            pos += varintLength(buffer, pos);
+            if(table.key(number).equals(key)) {
+                return pos;
+            }
+            pos = skip(buffer, pos);
+        }
+        return -1;
+    }
+
+    /**
+     * @return position of the value at the path or -1, without creating views for the objects along the way
+     */
+    private int find(String... labels) {
+        if(labels.length == 0) {
+            return -1;
+        }
+        int pos = start;
+        for(String label : labels) {
+            if(reader.buffer().get(pos) != OBJECT) {
+                return -1;
+            }
+            pos = find(pos, label);
+            if(pos < 0) {
+                return -1;
+            }
+        }
+        return pos;
+    }
+
+    @Override
+    public JsonElement get(Object key) {
+        if(!(key instanceof String)) {
+            throw new IllegalArgumentException();
+        }
+        int pos = find(start, key);
+        return pos < 0 ? null : reader.view(pos);
+    }
+
+    @Override
+    public JsonElement get(String... labels) {
+        int pos = find(labels);
+        return pos < 0 ? null : reader.view(pos);
+    }
+
+    @Override
+    public String getString(String... labels) {
+        int pos = find(labels);
+        return pos < 0 ? null : reader.readString(pos);
+    }
+
+    @Override
+    public Long getLong(String... labels) {
+        int pos = find(labels);
+        return pos < 0 ? null : reader.readLong(pos);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && find(start, key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public Set<Entry<String, JsonElement>> entrySet() {
+        return new AbstractSet<Entry<String, JsonElement>>() {
+            @Override
+            public Iterator<Entry<String, JsonElement>> iterator() {
+                return new EntryIterator<Entry<String, JsonElement>>() {
+                    @Override
+                    Entry<String, JsonElement> entry(String key, int value) {
+                        return new SimpleImmutableEntry<>(key, reader.view(value));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new EntryIterator<String>() {
+                    @Override
+                    String entry(String key, int value) {
+                        return key;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public @Nonnull Collection<JsonElement> values() {
+        return new AbstractCollection<JsonElement>() {
+            @Override
+            public Iterator<JsonElement> iterator() {
+                return new EntryIterator<JsonElement>() {
+                    @Override
+                    JsonElement entry(String key, int value) {
+                        return reader.view(value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return values().contains(value);
+    }
+
+    @Override
+    public void serialize(Writer w) throws IOException {
+        reader.serialize(start, w);
+    }
+
+    @Override
+    public JsonElement put(String key, JsonElement value) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public JsonElement remove(Object key) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void clear() {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends JsonElement> m) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public JsonObject immutableClone() {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public JsonObject deepClone() {
+        return materialize();
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    // used by java serialization; views depend on a buffer, so they are serialized as normal objects
+    private Object writeReplace() {
+        return materialize();
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private int index = 0;
+        private int pos = entries;
+
+        abstract T entry(String key, int value);
+
+        @Override
+        public boolean hasNext() {
+            return index < count;
+        }
+
+        @Override
+        public T next() {
+            if(index >= count) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer buffer = reader.buffer();
+            String key = reader.table().key(readVarint(buffer, pos));
+            int value = pos + varintLength(buffer, pos);
+            pos = skip(buffer, value);
+            index++;
+            return entry(key, value);
+        }
+    }
+}
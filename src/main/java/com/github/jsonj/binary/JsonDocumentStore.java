@@ -0,0 +1,547 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.JsonElement;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps large numbers of json documents outside the java heap, in the binary format of {@link BinaryJsonWriter}.
+ * Documents are appended to direct or memory mapped buffers (segments) and found by id through a hash index that is
+ * also kept in a direct buffer, so heap usage does not grow with the number of documents.
+ *
+ * {@link #get(String)} returns a read only view that decodes values when they are accessed (see
+ * {@link BinaryObjectView}); {@link #getMaterialized(String)} returns a mutable copy. Stored bytes are never
+ * overwritten: replacing or removing a document leaves its old bytes behind as garbage until {@link #compact(double)}
+ * copies the live documents of fragmented segments to a new segment. Views that were handed out keep the memory of
+ * their segment alive and stay valid.
+ *
+ * The store can be used from multiple threads; writes are serialized.
+ */
+public final class JsonDocumentStore implements Closeable {
+    /** default segment size: 64MB */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    // record: length (int), live flag (byte), key length (int), key, document
+    private static final int RECORD_HEADER = 9;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 0;
+
+    // index slot: hash (int), segment number + 1 (int, 0 for empty slots and -1 for removed ones), offset (int)
+    private static final int SLOT_SIZE = 12;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+    private static final int MAX_INDEX_CAPACITY = 1 << 27;
+
+    private final int segmentSize;
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BinaryJsonWriter writer = new BinaryJsonWriter();
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active = null;
+
+    private ByteBuffer index;
+    private int indexCapacity;
+    private int size = 0;
+    private int removedSlots = 0;
+
+    private long liveBytes = 0;
+    private long garbageBytes = 0;
+    private boolean closed = false;
+
+    /**
+     * Store with direct buffers of {@link #DEFAULT_SEGMENT_SIZE}.
+     */
+    public JsonDocumentStore() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Store with direct buffers.
+     *
+     * @param segmentSize size of the buffers; larger documents get a buffer of their own
+     */
+    public JsonDocumentStore(int segmentSize) {
+        this(segmentSize, null);
+    }
+
+    private JsonDocumentStore(int segmentSize, Path directory) {
+        if(segmentSize <= RECORD_HEADER) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.directory = directory;
+        allocateIndex(1024);
+    }
+
+    /**
+     * Store with segments that are memory mapped files in a directory, so the operating system can page them out. The
+     * files are temporary: they are deleted when segments are compacted away or the store is closed.
+     *
+     * @param directory existing directory for the segment files
+     * @param segmentSize size of the files; larger documents get a file of their own
+     * @return the store
+     */
+    public static @Nonnull JsonDocumentStore mapped(@Nonnull Path directory, int segmentSize) {
+        if(!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("not a directory: " + directory);
+        }
+        return new JsonDocumentStore(segmentSize, directory);
+    }
+
+    /**
+     * Adds or replaces a document.
+     *
+     * @param id id of the document
+     * @param document the document
+     */
+    public void put(@Nonnull String id, @Nonnull JsonElement document) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            byte[] encoded = writer.toBytes(document);
+            int hash = hash(id);
+            int slot = findSlot(hash, key);
+            if(slot < 0 && size + removedSlots + 1 > indexCapacity / 4 * 3) {
+                rehash();
+            }
+            // append first: it may fail, and the store must be unchanged if it does
+            long location = append(key, encoded, 0, encoded.length);
+            if(slot >= 0) {
+                delete(slot);
+            } else {
+                slot = freeSlot(hash);
+                if(slotSegment(slot) == REMOVED) {
+                    removedSlots--;
+                }
+                size++;
+            }
+            setSlot(slot, hash, (int) (location >>> 32) + 1, (int) location);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id id of a document
+     * @return a read only view of the document or null if there is no such document
+     */
+    public JsonElement get(@Nonnull String id) {
+        ByteBuffer document = document(id);
+        return document == null ? null : BinaryJsonReader.view(document);
+    }
+
+    /**
+     * @param id id of a document
+     * @return a mutable copy of the document or null if there is no such document
+     */
+    public JsonElement getMaterialized(@Nonnull String id) {
+        ByteBuffer document = document(id);
+        return document == null ? null : BinaryJsonReader.read(document);
+    }
+
+    /**
+     * @param id id of a document
+     * @return true if the store has the document
+     */
+    public boolean contains(@Nonnull String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return findSlot(hash(id), key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id id of a document
+     * @return true if the document was removed, false if there was no such document
+     */
+    public boolean remove(@Nonnull String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int slot = findSlot(hash(id), key);
+            if(slot < 0) {
+                return false;
+            }
+            delete(slot);
+            setSlot(slot, 0, REMOVED, 0);
+            size--;
+            removedSlots++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes taken by the documents that are in the store, including their ids
+     */
+    public long bytesUsed() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes taken by replaced and removed documents that are not compacted away yet
+     */
+    public long garbageBytes() {
+        lock.readLock().lock();
+        try {
+            return garbageBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes allocated off heap for segments and the index
+     */
+    public long bytesAllocated() {
+        lock.readLock().lock();
+        try {
+            long allocated = (long) indexCapacity * SLOT_SIZE;
+            for(Segment segment : segments) {
+                if(segment != null) {
+                    allocated += segment.buffer.capacity();
+                }
+            }
+            return allocated;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return fraction of the written bytes that is garbage, between 0 and 1
+     */
+    public double fragmentation() {
+        lock.readLock().lock();
+        try {
+            long written = liveBytes + garbageBytes;
+            return written == 0 ? 0 : (double) garbageBytes / written;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the documents of segments with more than the given fraction of garbage to the end of the store and
+     * releases those segments. The segment that is currently appended to is left alone.
+     *
+     * @param maxFragmentation segments with a larger fraction of garbage are compacted; 0 compacts every segment with
+     *            garbage
+     * @return number of segments that were released
+     */
+    public int compact(double maxFragmentation) {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int released = 0;
+            for(int number = 0; number < segments.size(); number++) {
+                Segment segment = segments.get(number);
+                if(segment == null || segment == active || segment.garbage == 0
+                        || (double) segment.garbage / segment.written <= maxFragmentation) {
+                    continue;
+                }
+                moveLiveRecords(number, segment);
+                garbageBytes -= segment.garbage;
+                segments.set(number, null);
+                segment.release();
+                released++;
+            }
+            return released;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases all segments. Views that were handed out remain usable until they are garbage collected.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            for(Segment segment : segments) {
+                if(segment != null) {
+                    segment.release();
+                }
+            }
+            segments.clear();
+            active = null;
+            index = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ByteBuffer document(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int slot = findSlot(hash(id), key);
+            if(slot < 0) {
+                return null;
+            }
+            ByteBuffer buffer = segments.get(slotSegment(slot) - 1).buffer.duplicate();
+            int offset = slotOffset(slot);
+            int end = offset + buffer.getInt(offset);
+            buffer.limit(end);
+            buffer.position(offset + RECORD_HEADER + buffer.getInt(offset + 5));
+            return buffer;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if(closed) {
+            throw new IllegalStateException("store is closed");
+        }
+    }
+
+    private void moveLiveRecords(int number, Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while(offset < segment.written) {
+            int length = buffer.getInt(offset);
+            if(buffer.get(offset + 4) == LIVE) {
+                byte[] key = new byte[buffer.getInt(offset + 5)];
+                ByteBuffer source = buffer.duplicate();
+                source.position(offset + RECORD_HEADER);
+                source.get(key);
+                int documentLength = length - RECORD_HEADER - key.length;
+                byte[] document = new byte[documentLength];
+                source.get(document);
+                int slot = findSlot(hash(new String(key, StandardCharsets.UTF_8)), key);
+                // the bytes are live, so the index points at them
+                liveBytes -= length;
+                long location = append(key, document, 0, documentLength);
+                setSlot(slot, slotHash(slot), (int) (location >>> 32) + 1, (int) location);
+            }
+            offset += length;
+        }
+    }
+
+    /**
+     * Marks the record of a slot as garbage.
+     */
+    private void delete(int slot) {
+        Segment segment = segments.get(slotSegment(slot) - 1);
+        int offset = slotOffset(slot);
+        int length = segment.buffer.getInt(offset);
+        segment.buffer.put(offset + 4, DELETED);
+        segment.garbage += length;
+        liveBytes -= length;
+        garbageBytes += length;
+    }
+
+    /**
+     * @return segment number in the high and offset in the low 32 bits
+     */
+    private long append(byte[] key, byte[] document, int documentOffset, int documentLength) {
+        long recordLength = (long) RECORD_HEADER + key.length + documentLength;
+        if(recordLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("document too large: " + documentLength + " bytes");
+        }
+        Segment segment = active;
+        if(recordLength > segmentSize) {
+            segment = newSegment((int) recordLength);
+        } else if(segment == null || segment.buffer.capacity() - segment.written < recordLength) {
+            segment = newSegment(segmentSize);
+            active = segment;
+        }
+        int offset = segment.written;
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(offset);
+        target.putInt((int) recordLength);
+        target.put(LIVE);
+        target.putInt(key.length);
+        target.put(key);
+        target.put(document, documentOffset, documentLength);
+        segment.written += recordLength;
+        liveBytes += recordLength;
+        return ((long) segment.number << 32) | offset;
+    }
+
+    private Segment newSegment(int capacity) {
+        int number = segments.indexOf(null);
+        if(number < 0) {
+            number = segments.size();
+            segments.add(null);
+        }
+        Segment segment;
+        if(directory == null) {
+            segment = new Segment(number, ByteBuffer.allocateDirect(capacity), null);
+        } else {
+            try {
+                Path file = Files.createTempFile(directory, "segment", ".jsonj");
+                try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    segment = new Segment(number, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot create segment in " + directory, e);
+            }
+        }
+        segments.set(number, segment);
+        return segment;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot of the key or -1
+     */
+    private int findSlot(int hash, byte[] key) {
+        int mask = indexCapacity - 1;
+        for(int slot = hash & mask;; slot = (slot + 1) & mask) {
+            int segment = slotSegment(slot);
+            if(segment == EMPTY) {
+                return -1;
+            }
+            if(segment != REMOVED && slotHash(slot) == hash && keyEquals(segment - 1, slotOffset(slot), key)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * @return the first empty or removed slot for the hash
+     */
+    private int freeSlot(int hash) {
+        int mask = indexCapacity - 1;
+        int slot = hash & mask;
+        while(slotSegment(slot) > 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int segment, int offset, byte[] key) {
+        ByteBuffer buffer = segments.get(segment).buffer;
+        if(buffer.getInt(offset + 5) != key.length) {
+            return false;
+        }
+        int start = offset + RECORD_HEADER;
+        for(int i = 0; i < key.length; i++) {
+            if(buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        ByteBuffer old = index;
+        int oldCapacity = indexCapacity;
+        // grow unless most of the used slots were removed ones
+        int capacity = size + 1 > oldCapacity / 2 ? oldCapacity * 2 : oldCapacity;
+        if(capacity > MAX_INDEX_CAPACITY) {
+            throw new IllegalStateException("too many documents: " + size);
+        }
+        allocateIndex(capacity);
+        removedSlots = 0;
+        for(int slot = 0; slot < oldCapacity; slot++) {
+            int base = slot * SLOT_SIZE;
+            int segment = old.getInt(base + 4);
+            if(segment > 0) {
+                int hash = old.getInt(base);
+                setSlot(freeSlot(hash), hash, segment, old.getInt(base + 8));
+            }
+        }
+    }
+
+    private void allocateIndex(int capacity) {
+        index = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+        indexCapacity = capacity;
+    }
+
+    private int slotHash(int slot) {
+        return index.getInt(slot * SLOT_SIZE);
+    }
+
+    private int slotSegment(int slot) {
+        return index.getInt(slot * SLOT_SIZE + 4);
+    }
+
+    private int slotOffset(int slot) {
+        return index.getInt(slot * SLOT_SIZE + 8);
+    }
+
+    private void setSlot(int slot, int hash, int segment, int offset) {
+        int base = slot * SLOT_SIZE;
+        index.putInt(base, hash);
+        index.putInt(base + 4, segment);
+        index.putInt(base + 8, offset);
+    }
+
+    private static final class Segment {
+        final int number;
+        final ByteBuffer buffer;
+        final Path file;
+        int written = 0;
+        long garbage = 0;
+
+        Segment(int number, ByteBuffer buffer, Path file) {
+            this.number = number;
+            this.buffer = buffer;
+            this.file = file;
+        }
+
+        /**
+         * Deletes the file of a mapped segment; the memory itself is freed when the buffer and any views on it are
+         * garbage collected.
+         */
+        void release() {
+            if(file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // e.g. on windows, mapped files can't be deleted; leave it for the temp directory cleanup
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.jsonj.binary;
+
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.github.jsonj.binary.BinaryFormat.copy;
+import static com.github.jsonj.binary.BinaryFormat.readVarint;
+import static com.github.jsonj.binary.BinaryFormat.varintLength;
+
+/**
+ * The string table of a binary document. Entries are decoded when first used; each entry becomes one String when used
+ * as a key and one shared primitive when used as a value.
+ */
+final class StringTable {
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int end;
+    private final String[] keys;
+    private final JsonPrimitive[] strings;
+
+    /**
+     * @param buffer big endian buffer
+     * @param pos start of the table
+     */
+    StringTable(ByteBuffer buffer, int pos) {
+        this.buffer = buffer;
+        int count = readVarint(buffer, pos);
+        pos += varintLength(buffer, pos);
+        // every entry takes at least one byte for its length, so a bigger count can only come from corrupt input
+        if(count > buffer.limit() - pos) {
+            throw new JsonParseException("string table with " + count + " entries does not fit in the document");
+        }
+        offsets = new int[count];
+        lengths = new int[count];
+        for(int i = 0; i < count; i++) {
+            if(pos >= buffer.limit()) {
+                throw new JsonParseException("truncated string table");
+            }
+            int length = readVarint(buffer, pos);
+            pos += varintLength(buffer, pos);
+            if(length > buffer.limit() - pos) {
+                throw new JsonParseException("truncated string table");
+            }
+            offsets[i] = pos;
+            lengths[i] = length;
+            pos += length;
+        }
+        end = pos;
+        keys = new String[count];
+        strings = new JsonPrimitive[count];
+    }
+
+    /**
+     * @return the position after the table
+     */
+    int end() {
+        return end;
+    }
+
+    int size() {
+        return offsets.length;
+    }
+
+    String key(int number) {
+        String key = keys[check(number)];
+        if(key == null) {
+            key = new String(copy(buffer, offsets[number], lengths[number]), StandardCharsets.UTF_8);
+            keys[number] = key;
+        }
+        return key;
+    }
+
+    JsonPrimitive string(int number) {
+        JsonPrimitive string = strings[check(number)];
+        if(string == null) {
+            string = JsonPrimitive.fromUtf8(copy(buffer, offsets[number], lengths[number]));
+            strings[number] = string;
+        }
+        return string;
+    }
+
+    /**
+     * @return true if the entry has exactly these bytes, without decoding it
+     */
+    boolean matches(int number, byte[] utf8) {
+        check(number);
+        if(lengths[number] != utf8.length) {
+            return false;
+        }
+        int offset = offsets[number];
+        for(int i = 0; i < utf8.length; i++) {
+            if(buffer.get(offset + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int check(int number) {
+        if(number < 0 || number >= offsets.length) {
+            throw new JsonParseException("unknown string " + number);
+        }
+        return number;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Compact binary encoding of json documents, for caches and queues where text json is too big or too slow to decode.
+ */
+package com.github.jsonj.binary;
@@ -1,40 +1,195 @@
 package com.github.jsonj.bson;
 
 import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
 import com.github.jsonj.exceptions.JsonParseException;
 import com.github.jsonj.tools.JacksonHandler;
 import com.github.jsonj.tools.JsonParser;
 import de.undercouch.bson4jackson.BsonFactory;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parse mongodb style bson.Note, bson is typically slightly bigger than normal json but parser performance tends to be
  * better.
  * So make sure you use it for the right reasons.
+ *
+ * Numbers keep their bson type. Json has no binary, date or object id types, so binary values become base64 strings,
+ * dates their epoch milliseconds and object ids their 24 character hex form; see {@link BsonValues} for the others.
  */
 public class BsonParser {
-    BsonFactory factory = new BsonFactory();
+    private static final BsonFactory FACTORY = new BsonFactory();
+    // a document starts with its length as a little endian int32, which includes the length itself and the
+    // terminating zero byte
+    private static final int MIN_DOCUMENT_LENGTH = 5;
+    // mongodb does not store bigger documents; a bigger length means corrupt input
+    private static final int MAX_DOCUMENT_LENGTH = 16 * 1024 * 1024;
 
     public BsonParser() {
     }
 
     public JsonElement parse(InputStream is) {
         try {
-            de.undercouch.bson4jackson.BsonParser parser = factory.createParser(is);
-            return JacksonHandler.parseContent(parser, JsonParser.DEFAULT_SETTINGS);
-        } catch (com.fasterxml.jackson.core.JsonParseException e) {
+            return parse(FACTORY.createParser(is));
+        } catch (IOException e) {
             throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * @param bytes a bson document
+     * @return the parsed document
+     */
+    public JsonElement parse(byte[] bytes) {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param bytes array with a bson document at the offset
+     * @param offset offset
+     * @param length length
+     * @return the parsed document
+     */
+    public JsonElement parse(byte[] bytes, int offset, int length) {
+        try {
+            return parse(FACTORY.createParser(bytes, offset, length));
         } catch (IOException e) {
             throw new JsonParseException(e);
         }
     }
 
+    /**
+     * @param s bson as a string
+     * @return the parsed document
+     * @deprecated bson is binary and the utf-8 bytes of a string are rarely valid bson; use {@link #parse(byte[])}
+     */
+    @Deprecated
     public JsonElement parse(String s) {
-        ByteArrayInputStream is = new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
-        return parse(is);
+        return parse(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses concatenated documents, like the .bson files of mongodump. Documents are read one at a time when the stream
+     * gets to them, so the input can be much bigger than the heap.
+     *
+     * @param is input; not closed
+     * @return a lazy stream of the documents
+     */
+    public Stream<JsonObject> parseDocuments(InputStream is) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Documents(is), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @param path file with concatenated documents, like the .bson files of mongodump
+     * @return a lazy stream of the documents; close it to close the file
+     * @throws IOException if the file can't be opened
+     */
+    public Stream<JsonObject> parseDocuments(Path path) throws IOException {
+        InputStream is = new BufferedInputStream(Files.newInputStream(path), 65536);
+        return parseDocuments(is).onClose(() -> {
+            try {
+                is.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static JsonElement parse(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+        // closing the parser should not close the caller's stream
+        parser.disable(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try(com.fasterxml.jackson.core.JsonParser p = new BsonValues(parser)) {
+            JsonElement element = JacksonHandler.parseValue(p, JsonParser.DEFAULT_SETTINGS, true);
+            if(element == null) {
+                throw new JsonParseException("no bson document");
+            }
+            return element;
+        } catch (com.fasterxml.jackson.core.JsonParseException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Reads the documents by their length prefix, so that every document gets a parser of its own over the bytes of
+     * just that document. The array for the bytes is reused.
+     */
+    private class Documents implements Iterator<JsonObject> {
+        private final InputStream is;
+        private byte[] buffer = new byte[8192];
+        private JsonObject next;
+        private boolean done;
+
+        Documents(InputStream is) {
+            this.is = is;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(next == null && !done) {
+                try {
+                    next = readDocument();
+                } catch (IOException e) {
+                    throw new JsonParseException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public JsonObject next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonObject result = next;
+            next = null;
+            return result;
+        }
+
+        private JsonObject readDocument() throws IOException {
+            int read = readFully(0, 4);
+            if(read == 0) {
+                return null;
+            } else if(read < 4) {
+                throw new JsonParseException("truncated bson document length");
+            }
+            int length = (buffer[0] & 0xff) | (buffer[1] & 0xff) << 8 | (buffer[2] & 0xff) << 16 | (buffer[3] & 0xff) << 24;
+            if(length < MIN_DOCUMENT_LENGTH || length > MAX_DOCUMENT_LENGTH) {
+                throw new JsonParseException("invalid bson document length " + length);
+            }
+            if(length > buffer.length) {
+                byte[] bigger = new byte[Math.max(length, buffer.length * 2)];
+                System.arraycopy(buffer, 0, bigger, 0, 4);
+                buffer = bigger;
+            }
+            if(readFully(4, length - 4) < length - 4) {
+                throw new JsonParseException("truncated bson document, expected " + length + " bytes");
+            }
+            return parse(buffer, 0, length).asObject();
+        }
+
+        private int readFully(int offset, int length) throws IOException {
+            int total = 0;
+            while(total < length) {
+                int read = is.read(buffer, offset + total, length - total);
+                if(read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
     }
 }
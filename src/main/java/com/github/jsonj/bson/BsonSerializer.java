@@ -1,16 +1,15 @@
 package com.github.jsonj.bson;
 
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.github.jsonj.JsonArray;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
 import com.github.jsonj.JsonElement;
-import com.github.jsonj.JsonObject;
-import com.github.jsonj.JsonPrimitive;
 import de.undercouch.bson4jackson.BsonFactory;
 import de.undercouch.bson4jackson.BsonGenerator;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Map.Entry;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
 /**
  * Serialize JsonElements to mongodb style bson. Note, bson is typically slightly bigger than normal json but parser
@@ -18,68 +17,35 @@ import java.util.Map.Entry;
  * So make sure you use it for the right reasons.
  */
 public class BsonSerializer {
-    public static void serialize(JsonElement element, OutputStream out) throws IOException {
-        BsonFactory bsonFactory = new BsonFactory();
-
-        BsonGenerator generator = bsonFactory.createGenerator(out);
-        if(element.isObject()) {
-            serialize(generator, element.asObject());
-        } else if(element.isArray()) {
-            serialize(generator, element.asArray());
+    static final BsonFactory FACTORY = new BsonFactory();
 
-        } else {
-            serialize(generator, element.asPrimitive());
-        }
+    public static void serialize(JsonElement element, OutputStream out) throws IOException {
+        BsonGenerator generator = FACTORY.createGenerator(out);
+        element.writeTo(new BigNumbersAsDoubles(generator));
         generator.close();
     }
 
-    private static void serialize(BsonGenerator generator, JsonObject object) throws JsonGenerationException, IOException {
-        generator.writeStartObject();
-        for(Entry<String, JsonElement> entry: object.entrySet()) {
-            generator.writeFieldName(entry.getKey());
-            JsonElement element = entry.getValue();
-
-            if(element.isObject()) {
-                serialize(generator, element.asObject());
-            } else if(element.isArray()) {
-                serialize(generator, element.asArray());
-
-            } else {
-                serialize(generator, element.asPrimitive());
-            }
+    /**
+     * Bson has no arbitrary precision numbers, so big decimals are written as doubles like they always were, and the
+     * same goes for big integers that don't fit in a long.
+     */
+    static final class BigNumbersAsDoubles extends JsonGeneratorDelegate {
+        BigNumbersAsDoubles(JsonGenerator generator) {
+            super(generator, false);
         }
-        generator.writeEndObject();
-    }
 
-    private static void serialize(BsonGenerator generator, JsonArray array) throws JsonGenerationException, IOException {
-        generator.writeStartArray();
-        for(JsonElement element: array) {
-            if(element.isObject()) {
-                serialize(generator, element.asObject());
-            } else if(element.isArray()) {
-                serialize(generator, element.asArray());
-            } else {
-                serialize(generator, element.asPrimitive());
-            }
+        @Override
+        public void writeNumber(BigDecimal v) throws IOException {
+            delegate.writeNumber(v.doubleValue());
         }
 
-        generator.writeEndArray();
-    }
-
-    private static void serialize(BsonGenerator generator, JsonPrimitive p) throws JsonGenerationException, IOException {
-        if(p.isBoolean()) {
-            generator.writeBoolean(p.asBoolean());
-        } else if(p.isNumber()) {
-            if(p.asString().contains(".")) {
-                generator.writeNumber(p.asDouble());
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if(v.bitLength() < 64) {
+                delegate.writeNumber(v.longValue());
             } else {
-                generator.writeNumber(p.asLong());
+                delegate.writeNumber(v.doubleValue());
             }
-        } else if(p.isString()) {
-            generator.writeString(p.asString());
-        } else {
-            generator.writeNull();
         }
-
     }
 }
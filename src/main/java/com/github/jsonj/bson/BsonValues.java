@@ -0,0 +1,36 @@
+package com.github.jsonj.bson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import de.undercouch.bson4jackson.types.ObjectId;
+import de.undercouch.bson4jackson.types.Symbol;
+import de.undercouch.bson4jackson.types.Timestamp;
+
+import java.io.IOException;
+
+/**
+ * Maps the bson specific embedded values of bson4jackson to values that json has, keeping the exact bson value: object
+ * ids become their usual 24 character hex form, symbols their string and timestamps their 64 bit value. Binary data
+ * and dates are handled by {@link com.github.jsonj.tools.JacksonHandler}.
+ */
+class BsonValues extends JsonParserDelegate {
+
+    BsonValues(JsonParser parser) {
+        super(parser);
+    }
+
+    @Override
+    public Object getEmbeddedObject() throws IOException {
+        Object value = delegate.getEmbeddedObject();
+        if(value instanceof ObjectId) {
+            ObjectId id = (ObjectId) value;
+            return String.format("%08x%08x%08x", id.getTime(), id.getMachine(), id.getInc());
+        } else if(value instanceof Symbol) {
+            return ((Symbol) value).getSymbol();
+        } else if(value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return (long) timestamp.getTime() << 32 | timestamp.getInc() & 0xffffffffL;
+        }
+        return value;
+    }
+}
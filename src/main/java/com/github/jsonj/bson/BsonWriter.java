@@ -0,0 +1,61 @@
+package com.github.jsonj.bson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.bson.BsonSerializer.BigNumbersAsDoubles;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Appends bson documents to a stream, producing the concatenated format of mongodump that
+ * {@link BsonParser#parseDocuments(java.io.InputStream)} reads. Output is buffered; the stream only gets flushed when
+ * the writer is flushed or closed. Not thread safe.
+ */
+public class BsonWriter implements Closeable, Flushable {
+    private final OutputStream out;
+
+    /**
+     * @param out stream to write to; closed when the writer is closed
+     */
+    public BsonWriter(OutputStream out) {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 65536);
+    }
+
+    /**
+     * @param document document to append
+     * @throws IOException if the stream can't be written
+     */
+    public void write(JsonObject document) throws IOException {
+        // a generator writes one root document; it is cheap to create and writes to the shared buffered stream
+        JsonGenerator generator = BsonSerializer.FACTORY.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        try(JsonGenerator g = new BigNumbersAsDoubles(generator)) {
+            document.writeTo(g);
+        }
+    }
+
+    /**
+     * @param documents documents to append
+     * @throws IOException if the stream can't be written
+     */
+    public void write(Iterable<? extends JsonObject> documents) throws IOException {
+        for(JsonObject document : documents) {
+            write(document);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.jsonj.cbor;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.github.jsonj.tools.BinaryJsonFactoryParser;
+
+import java.io.InputStream;
+
+/**
+ * Parses cbor (rfc 7049). Cbor is binary, so use the methods that take bytes or streams. A stream of concatenated cbor
+ * documents can be parsed with {@link #parseDocuments(InputStream)}. Numbers keep the type they were written with.
+ */
+public class CborParser extends BinaryJsonFactoryParser<CBORFactory> {
+
+    public CborParser() {
+        super(new CBORFactory());
+    }
+}
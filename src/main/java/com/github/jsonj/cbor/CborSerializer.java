@@ -0,0 +1,22 @@
+package com.github.jsonj.cbor;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.github.jsonj.tools.JsonFactoryBasedSerializer;
+
+/**
+ * Serializes to cbor (rfc 7049). Use {@link #serializeDocuments(Iterable, java.io.OutputStream)} to write a stream of
+ * documents that {@link CborParser#parseDocuments(java.io.InputStream)} reads back one at a time.
+ *
+ * Cbor is binary, so serialize to a stream or to bytes rather than to a writer.
+ */
+public class CborSerializer implements JsonFactoryBasedSerializer {
+    private final CBORFactory factory = new CBORFactory();
+
+    public CborSerializer() {
+    }
+
+    @Override
+    public CBORFactory factory() {
+        return factory;
+    }
+}
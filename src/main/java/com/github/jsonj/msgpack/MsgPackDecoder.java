@@ -0,0 +1,451 @@
+package com.github.jsonj.msgpack;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static com.github.jsonj.msgpack.MsgPackFormat.ARRAY16;
+import static com.github.jsonj.msgpack.MsgPackFormat.ARRAY32;
+import static com.github.jsonj.msgpack.MsgPackFormat.BIN16;
+import static com.github.jsonj.msgpack.MsgPackFormat.BIN32;
+import static com.github.jsonj.msgpack.MsgPackFormat.BIN8;
+import static com.github.jsonj.msgpack.MsgPackFormat.EXT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.EXT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.EXT8;
+import static com.github.jsonj.msgpack.MsgPackFormat.FALSE;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXARRAY;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXEXT1;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXEXT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXMAP;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXSTR;
+import static com.github.jsonj.msgpack.MsgPackFormat.FLOAT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.FLOAT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT8;
+import static com.github.jsonj.msgpack.MsgPackFormat.MAP16;
+import static com.github.jsonj.msgpack.MsgPackFormat.MAP32;
+import static com.github.jsonj.msgpack.MsgPackFormat.NEGATIVE_FIXINT;
+import static com.github.jsonj.msgpack.MsgPackFormat.NIL;
+import static com.github.jsonj.msgpack.MsgPackFormat.POSITIVE_FIXINT_MAX;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR16;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR32;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR8;
+import static com.github.jsonj.msgpack.MsgPackFormat.TIMESTAMP_TYPE;
+import static com.github.jsonj.msgpack.MsgPackFormat.TRUE;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT8;
+
+/**
+ * Decodes messages from a window on a byte array. The window is either all of the input or is refilled from a stream
+ * or a direct buffer. String values are copied from the window into a new array that becomes the storage of the
+ * {@link JsonPrimitive}, so they are never decoded to a String. Not thread safe.
+ */
+class MsgPackDecoder {
+    private static final int MAX_DEPTH = 1000;
+    // objects bigger than this are backed by a map, like the json parser does
+    private static final int MAX_SMALL_OBJECT_SIZE = 100;
+    // don't trust declared sizes for preallocating
+    private static final int MAX_PREALLOCATED = 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int KEY_CACHE_SIZE = 512;
+    private static final int MAX_CACHED_KEY_LENGTH = 64;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    // number of bytes moved into the window from the stream or buffer
+    private long fetched;
+
+    private final byte[][] keyBytes = new byte[KEY_CACHE_SIZE][];
+    private final String[] keyStrings = new String[KEY_CACHE_SIZE];
+
+    /**
+     * Decodes from an array, which is not copied.
+     */
+    MsgPackDecoder(byte[] bytes, int offset, int length) {
+        in = null;
+        source = null;
+        buf = bytes;
+        pos = offset;
+        limit = offset + length;
+    }
+
+    MsgPackDecoder(InputStream in) {
+        this.in = in;
+        source = null;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Decodes from a direct buffer by copying from it in chunks; use the array constructor for heap buffers.
+     */
+    MsgPackDecoder(ByteBuffer source) {
+        in = null;
+        this.source = source;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * @return number of bytes decoded so far
+     */
+    long consumed() {
+        return fetched - (limit - pos);
+    }
+
+    /**
+     * @return position in the array when decoding from an array
+     */
+    int position() {
+        return pos;
+    }
+
+    /**
+     * @return the next message or null if the input ends before it starts
+     */
+    JsonElement next() {
+        try {
+            if(pos == limit && !fill(1)) {
+                return null;
+            }
+            return decode(0);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    private JsonElement decode(int depth) throws IOException {
+        int type = readByte();
+        if(type <= POSITIVE_FIXINT_MAX) {
+            return new JsonPrimitive((long) type);
+        } else if(type >= NEGATIVE_FIXINT) {
+            return new JsonPrimitive((long) (byte) type);
+        } else if(type < FIXARRAY) {
+            return decodeObject(type & 0x0f, depth);
+        } else if(type < FIXSTR) {
+            return decodeArray(type & 0x0f, depth);
+        } else if(type < NIL) {
+            return readString(type & 0x1f);
+        }
+        switch (type) {
+        case NIL:
+            return JsonPrimitive.JSON_NULL;
+        case FALSE:
+            return new JsonPrimitive(false);
+        case TRUE:
+            return new JsonPrimitive(true);
+        case BIN8:
+            return binary(readByte());
+        case BIN16:
+            return binary(readShort());
+        case BIN32:
+            return binary(readLength());
+        case EXT8:
+            return extension(readByte());
+        case EXT16:
+            return extension(readShort());
+        case EXT32:
+            return extension(readLength());
+        case FLOAT32:
+            return new JsonPrimitive(Float.intBitsToFloat(readInt()));
+        case FLOAT64:
+            return new JsonPrimitive(Double.longBitsToDouble(readLong()));
+        case UINT8:
+            return new JsonPrimitive((long) readByte());
+        case UINT16:
+            return new JsonPrimitive((long) readShort());
+        case UINT32:
+            return new JsonPrimitive(readInt() & 0xffffffffL);
+        case UINT64:
+            long value = readLong();
+            if(value < 0) {
+                return new JsonPrimitive(new BigInteger(Long.toUnsignedString(value)));
+            }
+            return new JsonPrimitive(value);
+        case INT8:
+            return new JsonPrimitive((long) (byte) readByte());
+        case INT16:
+            return new JsonPrimitive((long) (short) readShort());
+        case INT32:
+            return new JsonPrimitive((long) readInt());
+        case INT64:
+            return new JsonPrimitive(readLong());
+        case STR8:
+            return readString(readByte());
+        case STR16:
+            return readString(readShort());
+        case STR32:
+            return readString(readLength());
+        case ARRAY16:
+            return decodeArray(readShort(), depth);
+        case ARRAY32:
+            return decodeArray(readLength(), depth);
+        case MAP16:
+            return decodeObject(readShort(), depth);
+        case MAP32:
+            return decodeObject(readLength(), depth);
+        default:
+            if(type >= FIXEXT1 && type <= FIXEXT16) {
+                return extension(1 << (type - FIXEXT1));
+            }
+            throw new JsonParseException("unsupported messagepack type 0x" + Integer.toHexString(type));
+        }
+    }
+
+    private JsonElement decodeObject(int size, int depth) throws IOException {
+        checkDepth(depth);
+        JsonObject object = size > MAX_SMALL_OBJECT_SIZE ? new MapBasedJsonObject() : new JsonObject();
+        for(int i = 0; i < size; i++) {
+            String key = readKey(depth);
+            object.put(key, decode(depth + 1));
+        }
+        return object;
+    }
+
+    private JsonElement decodeArray(int size, int depth) throws IOException {
+        checkDepth(depth);
+        JsonArray array = new JsonArray();
+        array.ensureCapacity(Math.min(size, MAX_PREALLOCATED));
+        for(int i = 0; i < size; i++) {
+            array.add(decode(depth + 1));
+        }
+        return array;
+    }
+
+    private void checkDepth(int depth) {
+        if(depth >= MAX_DEPTH) {
+            throw new JsonParseException("messagepack nested deeper than " + MAX_DEPTH);
+        }
+    }
+
+    private String readKey(int depth) throws IOException {
+        int type = peekByte();
+        int length;
+        if(type >= FIXSTR && type < NIL) {
+            pos++;
+            length = type & 0x1f;
+        } else if(type == STR8) {
+            pos++;
+            length = readByte();
+        } else if(type == STR16) {
+            pos++;
+            length = readShort();
+        } else if(type == STR32) {
+            pos++;
+            length = readLength();
+        } else {
+            // json only has string keys
+            JsonElement key = decode(depth + 1);
+            return key.isPrimitive() ? key.asString() : key.toString();
+        }
+        if(length > MAX_CACHED_KEY_LENGTH) {
+            return new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+        require(length);
+        int hash = 0;
+        for(int i = pos; i < pos + length; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        int slot = (hash ^ hash >>> 16) & (KEY_CACHE_SIZE - 1);
+        byte[] cached = keyBytes[slot];
+        String key;
+        if(cached != null && equals(cached, buf, pos, length)) {
+            key = keyStrings[slot];
+        } else {
+            key = new String(buf, pos, length, StandardCharsets.UTF_8);
+            keyBytes[slot] = Arrays.copyOfRange(buf, pos, pos + length);
+            keyStrings[slot] = key;
+        }
+        pos += length;
+        return key;
+    }
+
+    private static boolean equals(byte[] cached, byte[] bytes, int offset, int length) {
+        if(cached.length != length) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(cached[i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JsonElement binary(int length) throws IOException {
+        // json has no binary type
+        return JsonPrimitive.fromUtf8(Base64.getEncoder().encode(readBytes(length)));
+    }
+
+    private JsonElement extension(int length) throws IOException {
+        byte extensionType = (byte) readByte();
+        if(extensionType != TIMESTAMP_TYPE) {
+            throw new JsonParseException("unsupported messagepack extension type " + extensionType);
+        }
+        long seconds;
+        long nanos;
+        switch (length) {
+        case 4:
+            seconds = readInt() & 0xffffffffL;
+            nanos = 0;
+            break;
+        case 8:
+            long value = readLong();
+            nanos = value >>> 34;
+            seconds = value & 0x3ffffffffL;
+            break;
+        case 12:
+            nanos = readInt() & 0xffffffffL;
+            seconds = readLong();
+            break;
+        default:
+            throw new JsonParseException("invalid messagepack timestamp length " + length);
+        }
+        return new JsonPrimitive(Instant.ofEpochSecond(seconds, nanos).toString());
+    }
+
+    private int readByte() throws IOException {
+        require(1);
+        return buf[pos++] & 0xff;
+    }
+
+    private int peekByte() throws IOException {
+        require(1);
+        return buf[pos] & 0xff;
+    }
+
+    private int readShort() throws IOException {
+        require(2);
+        int value = (buf[pos] & 0xff) << 8 | buf[pos + 1] & 0xff;
+        pos += 2;
+        return value;
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        int value = (buf[pos] & 0xff) << 24 | (buf[pos + 1] & 0xff) << 16 | (buf[pos + 2] & 0xff) << 8 | buf[pos + 3] & 0xff;
+        pos += 4;
+        return value;
+    }
+
+    private long readLong() throws IOException {
+        long high = readInt() & 0xffffffffL;
+        return high << 32 | readInt() & 0xffffffffL;
+    }
+
+    /**
+     * Reads a 32 bit length, which is unsigned in messagepack; java arrays can't be that big.
+     */
+    private int readLength() throws IOException {
+        int length = readInt();
+        if(length < 0) {
+            throw new JsonParseException("messagepack length too large: " + (length & 0xffffffffL));
+        }
+        return length;
+    }
+
+    private JsonPrimitive readString(int length) throws IOException {
+        if(length > limit - pos && length <= buf.length) {
+            require(length);
+        }
+        if(length <= limit - pos) {
+            // straight from the window
+            JsonPrimitive string = JsonPrimitive.fromUtf8(buf, pos, length);
+            pos += length;
+            return string;
+        }
+        return JsonPrimitive.fromUtf8(readBytes(length));
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        if(length <= limit - pos) {
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+        if(length <= buf.length) {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+        // bigger than the window; grow the result as the bytes arrive rather than trusting the declared length
+        byte[] bytes = new byte[Math.min(length, Math.max(BUFFER_SIZE, limit - pos) * 2)];
+        int read = 0;
+        while(read < length) {
+            if(pos == limit && !fill(1)) {
+                throw new JsonParseException("unexpected end of messagepack input");
+            }
+            int n = Math.min(length - read, limit - pos);
+            if(read + n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, Math.max(read + n, 2L * bytes.length)));
+            }
+            System.arraycopy(buf, pos, bytes, read, n);
+            pos += n;
+            read += n;
+        }
+        return bytes;
+    }
+
+    private void require(int n) throws IOException {
+        if(limit - pos < n && !fill(n)) {
+            throw new JsonParseException("unexpected end of messagepack input");
+        }
+    }
+
+    /**
+     * Moves the remaining bytes to the start of the window and reads more until at least n bytes are available.
+     *
+     * @return false if the input ends before that
+     */
+    private boolean fill(int n) throws IOException {
+        if(in == null && source == null) {
+            return false;
+        }
+        int remaining = limit - pos;
+        if(n > buf.length) {
+            buf = Arrays.copyOf(buf, n);
+        }
+        System.arraycopy(buf, pos, buf, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        while(limit < n) {
+            int read = read(buf, limit, buf.length - limit);
+            if(read < 0) {
+                return false;
+            }
+            limit += read;
+            fetched += read;
+        }
+        return true;
+    }
+
+    private int read(byte[] bytes, int offset, int length) throws IOException {
+        if(in != null) {
+            return in.read(bytes, offset, length);
+        }
+        if(!source.hasRemaining()) {
+            return -1;
+        }
+        int n = Math.min(length, source.remaining());
+        source.get(bytes, offset, n);
+        return n;
+    }
+}
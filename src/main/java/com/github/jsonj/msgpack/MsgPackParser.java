@@ -0,0 +1,137 @@
+package com.github.jsonj.msgpack;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import javax.annotation.Nonnull;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decodes messagepack straight into jsonj elements without any dependencies. String values are copied as utf-8 into the
+ * primitives, numbers keep their native type (long, BigInteger for uint64 values beyond Long.MAX_VALUE, float or
+ * double), binary values become base64 strings and timestamps ISO-8601 strings. Other extension types are rejected.
+ *
+ * This class is thread safe; every call uses its own decoder.
+ */
+public class MsgPackParser {
+
+    public MsgPackParser() {
+    }
+
+    /**
+     * @param bytes a single message
+     * @return the decoded element
+     * @throws JsonParseException if the bytes are not exactly one message
+     */
+    public @Nonnull JsonElement parse(@Nonnull byte[] bytes) {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param bytes array with a single message at the offset
+     * @param offset offset
+     * @param length length of the message
+     * @return the decoded element
+     * @throws JsonParseException if the range is not exactly one message
+     */
+    public @Nonnull JsonElement parse(@Nonnull byte[] bytes, int offset, int length) {
+        MsgPackDecoder decoder = new MsgPackDecoder(bytes, offset, length);
+        JsonElement element = required(decoder.next());
+        if(decoder.position() != offset + length) {
+            throw new JsonParseException("trailing bytes after messagepack message");
+        }
+        return element;
+    }
+
+    /**
+     * Decodes the message at the position of the buffer and moves the position past it, so this can be called until
+     * the buffer has no remaining bytes.
+     *
+     * @param buffer buffer
+     * @return the decoded element
+     */
+    public @Nonnull JsonElement parse(@Nonnull ByteBuffer buffer) {
+        if(buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + buffer.position();
+            MsgPackDecoder decoder = new MsgPackDecoder(buffer.array(), offset, buffer.remaining());
+            JsonElement element = required(decoder.next());
+            buffer.position(buffer.position() + decoder.position() - offset);
+            return element;
+        }
+        int start = buffer.position();
+        MsgPackDecoder decoder = new MsgPackDecoder(buffer);
+        JsonElement element = required(decoder.next());
+        // the decoder reads ahead in chunks
+        buffer.position(start + (int) decoder.consumed());
+        return element;
+    }
+
+    /**
+     * Decodes one message from the stream. The stream is read ahead, so use {@link #parseDocuments(InputStream)} for a
+     * stream with more than one message.
+     *
+     * @param is stream; not closed
+     * @return the decoded element
+     */
+    public @Nonnull JsonElement parse(@Nonnull InputStream is) {
+        return required(new MsgPackDecoder(is).next());
+    }
+
+    /**
+     * @param is stream with messages written one after the other; not closed
+     * @return a lazy stream of the decoded messages that ends with the input
+     */
+    public @Nonnull Stream<JsonElement> parseDocuments(@Nonnull InputStream is) {
+        return documents(new MsgPackDecoder(is));
+    }
+
+    /**
+     * @param buffer buffer with messages written one after the other from its position
+     * @return a lazy stream of the decoded messages; the position of the buffer is not updated
+     */
+    public @Nonnull Stream<JsonElement> parseDocuments(@Nonnull ByteBuffer buffer) {
+        if(buffer.hasArray()) {
+            return documents(new MsgPackDecoder(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+        }
+        return documents(new MsgPackDecoder(buffer.duplicate()));
+    }
+
+    private static Stream<JsonElement> documents(MsgPackDecoder decoder) {
+        Iterator<JsonElement> iterator = new Iterator<JsonElement>() {
+            private JsonElement next;
+
+            @Override
+            public boolean hasNext() {
+                if(next == null) {
+                    next = decoder.next();
+                }
+                return next != null;
+            }
+
+            @Override
+            public JsonElement next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                JsonElement result = next;
+                next = null;
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static JsonElement required(JsonElement element) {
+        if(element == null) {
+            throw new JsonParseException("empty messagepack input");
+        }
+        return element;
+    }
+}
@@ -0,0 +1,284 @@
+package com.github.jsonj.msgpack;
+
+import com.github.jsonj.ByteArraySink;
+import com.github.jsonj.ByteSink;
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.KeyCache;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map.Entry;
+
+import static com.github.jsonj.msgpack.MsgPackFormat.ARRAY16;
+import static com.github.jsonj.msgpack.MsgPackFormat.ARRAY32;
+import static com.github.jsonj.msgpack.MsgPackFormat.FALSE;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXARRAY;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXMAP;
+import static com.github.jsonj.msgpack.MsgPackFormat.FIXSTR;
+import static com.github.jsonj.msgpack.MsgPackFormat.FLOAT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.FLOAT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.INT8;
+import static com.github.jsonj.msgpack.MsgPackFormat.MAP16;
+import static com.github.jsonj.msgpack.MsgPackFormat.MAP32;
+import static com.github.jsonj.msgpack.MsgPackFormat.NIL;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR16;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR32;
+import static com.github.jsonj.msgpack.MsgPackFormat.STR8;
+import static com.github.jsonj.msgpack.MsgPackFormat.TRUE;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT16;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT32;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT64;
+import static com.github.jsonj.msgpack.MsgPackFormat.UINT8;
+
+/**
+ * Encodes json as messagepack without any dependencies. Strings are written from the utf-8 bytes stored in the
+ * primitives and integers use the smallest encoding that fits. Doubles are written as float64 and floats as float32;
+ * big decimals and big integers that don't fit in 64 bits have no messagepack equivalent and are written as float64.
+ *
+ * Messages can simply be written one after the other, see {@link MsgPackParser#parseDocuments(java.io.InputStream)}.
+ * This class is thread safe.
+ */
+public class MsgPackSerializer {
+    private static final BigInteger MAX_UINT64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    // encoded keys
+    private static final KeyCache<byte[]> KEYS = new KeyCache<>(4096);
+
+    public MsgPackSerializer() {
+    }
+
+    /**
+     * @param e element
+     * @return the encoded message
+     */
+    public @Nonnull byte[] serialize(@Nonnull JsonElement e) {
+        ByteArraySink sink = new ByteArraySink();
+        try {
+            serialize(e, sink);
+        } catch (IOException e1) {
+            // the sink doesn't throw
+            throw new IllegalStateException(e1);
+        }
+        return sink.toByteArray();
+    }
+
+    /**
+     * @param e element
+     * @param out stream to write to; flushed but not closed
+     * @throws IOException if the stream can't be written
+     */
+    public void serialize(@Nonnull JsonElement e, @Nonnull OutputStream out) throws IOException {
+        ByteSink sink = ByteSink.of(out);
+        serialize(e, sink);
+        sink.flush();
+    }
+
+    /**
+     * @param e element
+     * @param buffer buffer to put the message in at its position
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if the message doesn't fit
+     */
+    public int serialize(@Nonnull JsonElement e, @Nonnull ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            serialize(e, ByteSink.of(buffer));
+        } catch (IOException e1) {
+            throw new IllegalStateException(e1);
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * Writes the messages one after the other.
+     *
+     * @param documents elements
+     * @param out stream to write to; flushed but not closed
+     * @throws IOException if the stream can't be written
+     */
+    public void serializeDocuments(@Nonnull Iterable<? extends JsonElement> documents, @Nonnull OutputStream out) throws IOException {
+        ByteSink sink = ByteSink.of(out);
+        for(JsonElement e : documents) {
+            serialize(e, sink);
+        }
+        sink.flush();
+    }
+
+    /**
+     * @param e element
+     * @param sink sink to write to
+     * @throws IOException if the sink can't be written
+     */
+    public void serialize(@Nonnull JsonElement e, @Nonnull ByteSink sink) throws IOException {
+        switch (e.type()) {
+        case object:
+            int size = e.asObject().size();
+            writeHeader(sink, size, FIXMAP, 16, MAP16, MAP32);
+            for(Entry<String, JsonElement> entry : e.asObject().entrySet()) {
+                byte[] key = key(entry.getKey());
+                sink.write(key, 0, key.length);
+                serialize(entry.getValue(), sink);
+            }
+            break;
+        case array:
+            JsonArray array = e.asArray();
+            writeHeader(sink, array.size(), FIXARRAY, 16, ARRAY16, ARRAY32);
+            for(JsonElement element : array) {
+                serialize(element, sink);
+            }
+            break;
+        case string:
+            JsonPrimitive string = e.asPrimitive();
+            writeStringHeader(sink, string.utf8Length());
+            string.writeUtf8To(sink);
+            break;
+        case bool:
+            sink.write(e.asBoolean() ? TRUE : FALSE);
+            break;
+        case number:
+            writeNumber(sink, ((JsonPrimitive) e).value());
+            break;
+        case nullValue:
+            sink.write(NIL);
+            break;
+        default:
+            throw new IllegalArgumentException("unhandled type " + e.type());
+        }
+    }
+
+    private static byte[] key(String key) {
+        return KEYS.get(key, k -> {
+            ByteArraySink sink = new ByteArraySink(k.length() + 5);
+            try {
+                writeString(sink, k.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // the sink doesn't throw
+                throw new IllegalStateException(e);
+            }
+            return sink.toByteArray();
+        });
+    }
+
+    private static void writeHeader(ByteSink sink, int size, int fixType, int fixLimit, int type16, int type32) throws IOException {
+        if(size < fixLimit) {
+            sink.write(fixType | size);
+        } else if(size <= 0xffff) {
+            sink.write(type16);
+            writeShort(sink, size);
+        } else {
+            sink.write(type32);
+            writeInt(sink, size);
+        }
+    }
+
+    private static void writeString(ByteSink sink, byte[] utf8) throws IOException {
+        writeStringHeader(sink, utf8.length);
+        sink.write(utf8, 0, utf8.length);
+    }
+
+    private static void writeStringHeader(ByteSink sink, int length) throws IOException {
+        if(length < 32) {
+            sink.write(FIXSTR | length);
+        } else if(length <= 0xff) {
+            sink.write(STR8);
+            sink.write(length);
+        } else if(length <= 0xffff) {
+            sink.write(STR16);
+            writeShort(sink, length);
+        } else {
+            sink.write(STR32);
+            writeInt(sink, length);
+        }
+    }
+
+    private static void writeNumber(ByteSink sink, Object number) throws IOException {
+        if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            writeLong(sink, ((Number) number).longValue());
+        } else if(number instanceof Float) {
+            sink.write(FLOAT32);
+            writeInt(sink, Float.floatToIntBits((Float) number));
+        } else if(number instanceof BigInteger) {
+            BigInteger bigInteger = (BigInteger) number;
+            if(bigInteger.bitLength() < 64) {
+                writeLong(sink, bigInteger.longValue());
+            } else if(bigInteger.signum() > 0 && bigInteger.compareTo(MAX_UINT64) <= 0) {
+                sink.write(UINT64);
+                writeLong64(sink, bigInteger.longValue());
+            } else {
+                writeDouble(sink, bigInteger.doubleValue());
+            }
+        } else if(number instanceof BigDecimal || number instanceof Double) {
+            writeDouble(sink, ((Number) number).doubleValue());
+        } else {
+            // atomic numbers and other integral types
+            writeLong(sink, ((Number) number).longValue());
+        }
+    }
+
+    private static void writeLong(ByteSink sink, long value) throws IOException {
+        if(value >= 0) {
+            if(value <= MsgPackFormat.POSITIVE_FIXINT_MAX) {
+                sink.write((int) value);
+            } else if(value <= 0xff) {
+                sink.write(UINT8);
+                sink.write((int) value);
+            } else if(value <= 0xffff) {
+                sink.write(UINT16);
+                writeShort(sink, (int) value);
+            } else if(value <= 0xffffffffL) {
+                sink.write(UINT32);
+                writeInt(sink, (int) value);
+            } else {
+                sink.write(UINT64);
+                writeLong64(sink, value);
+            }
+        } else {
+            if(value >= -32) {
+                sink.write((int) value & 0xff);
+            } else if(value >= Byte.MIN_VALUE) {
+                sink.write(INT8);
+                sink.write((int) value);
+            } else if(value >= Short.MIN_VALUE) {
+                sink.write(INT16);
+                writeShort(sink, (int) value);
+            } else if(value >= Integer.MIN_VALUE) {
+                sink.write(INT32);
+                writeInt(sink, (int) value);
+            } else {
+                sink.write(INT64);
+                writeLong64(sink, value);
+            }
+        }
+    }
+
+    private static void writeDouble(ByteSink sink, double value) throws IOException {
+        sink.write(FLOAT64);
+        writeLong64(sink, Double.doubleToLongBits(value));
+    }
+
+    private static void writeShort(ByteSink sink, int value) throws IOException {
+        sink.write(value >>> 8);
+        sink.write(value);
+    }
+
+    private static void writeInt(ByteSink sink, int value) throws IOException {
+        sink.write(value >>> 24);
+        sink.write(value >>> 16);
+        sink.write(value >>> 8);
+        sink.write(value);
+    }
+
+    private static void writeLong64(ByteSink sink, long value) throws IOException {
+        writeInt(sink, (int) (value >>> 32));
+        writeInt(sink, (int) value);
+    }
+}
@@ -13,6 +13,7 @@ import com.github.jsonj.JsonPrimitive;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
 
 public class JsonJPlistSerializer {
 
@@ -69,7 +70,8 @@ public class JsonJPlistSerializer {
         if(p.isBoolean()) {
             o = new NSNumber(p.asBoolean());
         } else if(p.isNumber()) {
-            if(p.asString().contains(".")) {
+            Object value = p.value();
+            if(value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
                 o = new NSNumber(p.asDouble());
             } else {
                 o = new NSNumber(p.asLong());
@@ -0,0 +1,315 @@
+package com.github.jsonj.query;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonArrayIndex;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonPath;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Filter expression, the part between <code>[?(</code> and <code>)]</code>.
+ */
+interface Condition {
+    boolean test(JsonElement element, JsonElement root);
+
+    /**
+     * @param array the array that is filtered
+     * @return a stream with at least all the elements of the array that match the condition, looked up in an index of
+     *         the array, or null if no index can be used. The caller still applies the condition to the candidates.
+     */
+    default Stream<JsonElement> candidates(JsonArray array) {
+        return null;
+    }
+
+    enum Operator {
+        EQ("=="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        Operator flip() {
+            switch (this) {
+            case LT:
+                return GT;
+            case LE:
+                return GE;
+            case GT:
+                return LT;
+            case GE:
+                return LE;
+            default:
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Value in a filter expression: a path relative to the current element (<code>@.price</code>), a path from the root
+     * (<code>$.limits.price</code>) or a literal.
+     */
+    final class Operand {
+        private final JsonPath path;
+        private final boolean relative;
+        // field names of a relative path without array indices; used to find an index
+        private final String[] labels;
+        private final JsonElement literal;
+
+        private Operand(JsonPath path, boolean relative, String[] labels, JsonElement literal) {
+            this.path = path;
+            this.relative = relative;
+            this.labels = labels;
+            this.literal = literal;
+        }
+
+        static Operand relative(JsonPath path, String[] labels) {
+            return new Operand(path, true, labels, null);
+        }
+
+        static Operand absolute(JsonPath path) {
+            return new Operand(path, false, null, null);
+        }
+
+        static Operand literal(JsonElement value) {
+            return new Operand(null, false, null, value);
+        }
+
+        boolean isLiteral() {
+            return literal != null;
+        }
+
+        JsonElement value(JsonElement element, JsonElement root) {
+            if(literal != null) {
+                return literal;
+            } else if(relative) {
+                return path.get(element);
+            } else {
+                return path.get(root);
+            }
+        }
+
+        @Override
+        public String toString() {
+            if(literal != null) {
+                return literal.toString();
+            } else {
+                return (relative ? "@" : "$") + path;
+            }
+        }
+    }
+
+    /**
+     * Bare path: true if the value exists and is not null or false.
+     */
+    final class Exists implements Condition {
+        private final Operand operand;
+
+        Exists(Operand operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean test(JsonElement element, JsonElement root) {
+            JsonElement value = operand.value(element, root);
+            return value != null && !value.isNull() && !(value.isBoolean() && !value.asBoolean());
+        }
+
+        @Override
+        public String toString() {
+            return operand.toString();
+        }
+    }
+
+    /**
+     * Numbers are compared numerically and strings lexicographically. Other combinations are only equal or not equal.
+     * A missing value matches nothing except <code>!=</code>.
+     */
+    final class Comparison implements Condition {
+        private final Operand left;
+        private final Operator operator;
+        private final Operand right;
+
+        Comparison(Operand left, Operator operator, Operand right) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonElement element, JsonElement root) {
+            JsonElement l = left.value(element, root);
+            JsonElement r = right.value(element, root);
+            if(l == null || r == null) {
+                return operator == Operator.NE;
+            }
+            switch (operator) {
+            case EQ:
+                return isEqual(l, r);
+            case NE:
+                return !isEqual(l, r);
+            default:
+                Integer order = order(l, r);
+                if(order == null) {
+                    return false;
+                }
+                switch (operator) {
+                case LT:
+                    return order < 0;
+                case LE:
+                    return order <= 0;
+                case GT:
+                    return order > 0;
+                default:
+                    return order >= 0;
+                }
+            }
+        }
+
+        /**
+         * Uses an index on the field of a comparison with a literal. Hash indexes are used for equality on strings,
+         * booleans and null; equal numbers may be stored differently (1 vs 1.0), so those don't use a hash index.
+         * Sorted indexes are also used for &lt;, &gt;, and &gt;= on numbers.
+         */
+        @Override
+        public Stream<JsonElement> candidates(JsonArray array) {
+            if(left.labels != null && right.isLiteral()) {
+                return candidates(array, left.labels, operator, right.literal);
+            } else if(right.labels != null && left.isLiteral()) {
+                return candidates(array, right.labels, operator.flip(), left.literal);
+            } else {
+                return null;
+            }
+        }
+
+        private static Stream<JsonElement> candidates(JsonArray array, String[] labels, Operator operator, JsonElement literal) {
+            Optional<JsonArrayIndex> maybeIndex = array.getIndex(labels);
+            if(!maybeIndex.isPresent()) {
+                return null;
+            }
+            JsonArrayIndex index = maybeIndex.get();
+            if(operator == Operator.EQ && !literal.isNumber()) {
+                return index.getAll(literal).stream().map(o -> o);
+            }
+            if(index.isSorted() && literal.isNumber()) {
+                switch (operator) {
+                case GT:
+                case GE:
+                    return index.range(literal, null).map(o -> o);
+                case LT:
+                    return index.range(null, literal).map(o -> o);
+                default:
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return left + " " + operator.symbol + " " + right;
+        }
+    }
+
+    final class And implements Condition {
+        private final Condition left;
+        private final Condition right;
+
+        And(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonElement element, JsonElement root) {
+            return left.test(element, root) && right.test(element, root);
+        }
+
+        @Override
+        public Stream<JsonElement> candidates(JsonArray array) {
+            // anything that matches both sides is in the candidates of either side
+            Stream<JsonElement> candidates = left.candidates(array);
+            return candidates != null ? candidates : right.candidates(array);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " && " + right + ")";
+        }
+    }
+
+    final class Or implements Condition {
+        private final Condition left;
+        private final Condition right;
+
+        Or(Condition left, Condition right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonElement element, JsonElement root) {
+            return left.test(element, root) || right.test(element, root);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " || " + right + ")";
+        }
+    }
+
+    final class Not implements Condition {
+        private final Condition condition;
+
+        Not(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public boolean test(JsonElement element, JsonElement root) {
+            return !condition.test(element, root);
+        }
+
+        @Override
+        public String toString() {
+            return "!" + condition;
+        }
+    }
+
+    static boolean isEqual(JsonElement l, JsonElement r) {
+        if(l.isNumber() && r.isNumber()) {
+            return compareNumbers(l.asNumber(), r.asNumber()) == 0;
+        } else {
+            return l.equals(r);
+        }
+    }
+
+    static Integer order(JsonElement l, JsonElement r) {
+        if(l.isNumber() && r.isNumber()) {
+            return compareNumbers(l.asNumber(), r.asNumber());
+        } else if(l.isString() && r.isString()) {
+            return l.asString().compareTo(r.asString());
+        } else {
+            return null;
+        }
+    }
+
+    static int compareNumbers(Number l, Number r) {
+        if(l instanceof BigDecimal || r instanceof BigDecimal || l instanceof BigInteger || r instanceof BigInteger) {
+            return new BigDecimal(l.toString()).compareTo(new BigDecimal(r.toString()));
+        } else if(isIntegral(l) && isIntegral(r)) {
+            return Long.compare(l.longValue(), r.longValue());
+        } else {
+            return Double.compare(l.doubleValue(), r.doubleValue());
+        }
+    }
+
+    static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte;
+    }
+}
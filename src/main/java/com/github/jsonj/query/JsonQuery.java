@@ -0,0 +1,130 @@
+package com.github.jsonj.query;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Query over json elements with a subset of JSONPath plus JMESPath style projections. For example:
+ *
+ * <pre>
+ * $.store.book[?(@.price &gt; 10 &amp;&amp; @.category == 'fiction')].title
+ * $..author
+ * $.store.book[-2:]
+ * $.store.book[*].{title: title, price: @.price}
+ * </pre>
+ *
+ * Supported steps:
+ * <ul>
+ * <li><code>.name</code>, <code>['name']</code>, and unions like <code>['a','b']</code></li>
+ * <li><code>[2]</code>, <code>[-1]</code>, unions like <code>[0,2]</code>, and slices like
+ * <code>[start:end:step]</code></li>
+ * <li>wildcards <code>.*</code> and <code>[*]</code>, and recursive descent <code>..name</code>, <code>..*</code>,
+ * or <code>..[...]</code></li>
+ * <li>filters <code>[?(...)]</code> with <code>@</code> and <code>$</code> paths, string, number, boolean, and null
+ * literals, the comparisons <code>== != &lt; &lt;= &gt; &gt;=</code>, <code>&amp;&amp;</code>, <code>||</code>,
+ * <code>!</code>, and parentheses. A bare path tests that the value exists and is not null or false.</li>
+ * <li>projections <code>.{alias: path, ...}</code> that build a new object from each result</li>
+ * </ul>
+ *
+ * Expressions are parsed once into a plan that is cached, so calling {@link #compile(String)} with the same expression
+ * is cheap. Results are streamed lazily and are the elements in the queried tree, not copies.
+ *
+ * When a filter compares a field with a literal and the filtered array has an index on that field (see
+ * {@link JsonArray#indexBy(String...)}), the candidates are looked up in the index instead of scanning the array. The
+ * matches then come in the order of the index rather than the order of the array.
+ */
+public final class JsonQuery {
+    private static final int MAX_CACHED_PLANS = 1000;
+    // least recently used plans are evicted so generated expressions don't leak memory; access order means get
+    // modifies the map, so all access goes through synchronized blocks
+    private static final Map<String, JsonQuery> PLANS = new LinkedHashMap<String, JsonQuery>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, JsonQuery> eldest) {
+            return size() > MAX_CACHED_PLANS;
+        }
+    };
+
+    private final String expression;
+    private final List<Step> steps;
+
+    private JsonQuery(String expression, List<Step> steps) {
+        this.expression = expression;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * @param expression query expression
+     * @return the compiled query, from the cache if the expression was compiled before
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public static @Nonnull JsonQuery compile(@Nonnull String expression) {
+        JsonQuery query;
+        synchronized (PLANS) {
+            query = PLANS.get(expression);
+        }
+        if(query == null) {
+            // parse outside the lock; if another thread compiled the same expression meanwhile, either plan will do
+            query = new JsonQuery(expression, new QueryParser(expression).parse());
+            synchronized (PLANS) {
+                PLANS.put(expression, query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * @param root element to query
+     * @param expression query expression
+     * @return lazy stream of the results
+     */
+    public static @Nonnull Stream<JsonElement> stream(@Nonnull JsonElement root, @Nonnull String expression) {
+        return compile(expression).stream(root);
+    }
+
+    /**
+     * @param root element to query
+     * @return lazy stream of the results
+     */
+    public @Nonnull Stream<JsonElement> stream(@Nonnull JsonElement root) {
+        Stream<JsonElement> results = Stream.of(root);
+        for(Step step : steps) {
+            results = results.flatMap(e -> step.apply(e, root));
+        }
+        return results;
+    }
+
+    /**
+     * @param root element to query
+     * @return array with the results
+     */
+    public @Nonnull JsonArray select(@Nonnull JsonElement root) {
+        // not JsonjCollectors.array(), which copies objects and arrays
+        JsonArray results = new JsonArray();
+        stream(root).forEachOrdered(results::add);
+        return results;
+    }
+
+    /**
+     * @param root element to query
+     * @return the first result, if any
+     */
+    public @Nonnull Optional<JsonElement> first(@Nonnull JsonElement root) {
+        return stream(root).findFirst();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,383 @@
+package com.github.jsonj.query;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonPath;
+import com.github.jsonj.query.Condition.Operand;
+import com.github.jsonj.query.Condition.Operator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+
+/**
+ * Recursive descent parser that turns a query expression into a list of steps. See {@link JsonQuery} for the syntax.
+ */
+final class QueryParser {
+    private final String expression;
+    private int pos = 0;
+
+    QueryParser(String expression) {
+        this.expression = expression;
+    }
+
+    List<Step> parse() {
+        List<Step> steps = new ArrayList<>();
+        if(expression.startsWith("$") && (expression.length() == 1 || expression.charAt(1) == '.' || expression.charAt(1) == '[')) {
+            pos++;
+        } else if(pos < expression.length() && isNameChar(expression.charAt(pos))) {
+            // no root and no leading dot: store.book is the same as $.store.book
+            steps.add(new Step.Field(name()));
+        }
+        while(pos < expression.length()) {
+            char c = expression.charAt(pos);
+            if(expression.startsWith("..", pos)) {
+                pos += 2;
+                steps.add(new Step.Descendants());
+                if(peek('[')) {
+                    steps.add(bracket());
+                } else if(match("*")) {
+                    steps.add(new Step.Wildcard());
+                } else {
+                    steps.add(new Step.Field(name()));
+                }
+            } else if(c == '.') {
+                pos++;
+                if(match("*")) {
+                    steps.add(new Step.Wildcard());
+                } else if(peek('{')) {
+                    steps.add(projection());
+                } else {
+                    steps.add(new Step.Field(name()));
+                }
+            } else if(c == '[') {
+                steps.add(bracket());
+            } else {
+                throw error("unexpected '" + c + "'");
+            }
+        }
+        return steps;
+    }
+
+    private Step bracket() {
+        expect("[");
+        skipWhitespace();
+        Step step;
+        if(match("*")) {
+            step = new Step.Wildcard();
+        } else if(match("?")) {
+            skipWhitespace();
+            expect("(");
+            step = new Step.Filter(or());
+            skipWhitespace();
+            expect(")");
+        } else if(peek('\'') || peek('"')) {
+            List<Step> fields = new ArrayList<>();
+            do {
+                skipWhitespace();
+                fields.add(new Step.Field(quoted()));
+                skipWhitespace();
+            } while(match(","));
+            step = fields.size() == 1 ? fields.get(0) : new Step.Union(fields);
+        } else {
+            Integer first = optionalInt();
+            skipWhitespace();
+            if(match(":")) {
+                Integer end = optionalInt();
+                Integer stride = null;
+                skipWhitespace();
+                if(match(":")) {
+                    stride = optionalInt();
+                }
+                step = new Step.Slice(first, end, stride == null ? 1 : stride);
+            } else {
+                if(first == null) {
+                    throw error("expected an index");
+                }
+                List<Step> indices = new ArrayList<>();
+                indices.add(new Step.Index(first));
+                while(match(",")) {
+                    Integer index = optionalInt();
+                    if(index == null) {
+                        throw error("expected an index");
+                    }
+                    indices.add(new Step.Index(index));
+                    skipWhitespace();
+                }
+                step = indices.size() == 1 ? indices.get(0) : new Step.Union(indices);
+            }
+        }
+        skipWhitespace();
+        expect("]");
+        return step;
+    }
+
+    private Step projection() {
+        expect("{");
+        List<String> names = new ArrayList<>();
+        List<JsonPath> paths = new ArrayList<>();
+        do {
+            skipWhitespace();
+            names.add(peek('\'') || peek('"') ? quoted() : name());
+            skipWhitespace();
+            expect(":");
+            skipWhitespace();
+            // @.a.b or just a.b
+            paths.add(relativePath(!match("@")).path);
+            skipWhitespace();
+        } while(match(","));
+        expect("}");
+        return new Step.Projection(names, paths);
+    }
+
+    private Condition or() {
+        Condition condition = and();
+        while(true) {
+            skipWhitespace();
+            if(match("||")) {
+                condition = new Condition.Or(condition, and());
+            } else {
+                return condition;
+            }
+        }
+    }
+
+    private Condition and() {
+        Condition condition = unary();
+        while(true) {
+            skipWhitespace();
+            if(match("&&")) {
+                condition = new Condition.And(condition, unary());
+            } else {
+                return condition;
+            }
+        }
+    }
+
+    private Condition unary() {
+        skipWhitespace();
+        if(match("!")) {
+            return new Condition.Not(unary());
+        } else if(match("(")) {
+            Condition condition = or();
+            skipWhitespace();
+            expect(")");
+            return condition;
+        }
+        Operand left = operand();
+        skipWhitespace();
+        Operator operator = operator();
+        if(operator == null) {
+            if(left.isLiteral()) {
+                throw error("expected a comparison");
+            }
+            return new Condition.Exists(left);
+        }
+        Operand right = operand();
+        return new Condition.Comparison(left, operator, right);
+    }
+
+    private Operator operator() {
+        // two character operators first
+        for(Operator operator : new Operator[] {Operator.EQ, Operator.NE, Operator.LE, Operator.GE, Operator.LT, Operator.GT}) {
+            if(match(operator.symbol)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    private Operand operand() {
+        skipWhitespace();
+        if(match("@")) {
+            PathWithLabels path = relativePath();
+            return Operand.relative(path.path, path.labels);
+        } else if(match("$")) {
+            return Operand.absolute(relativePath().path);
+        } else if(peek('\'') || peek('"')) {
+            return Operand.literal(primitive(quoted()));
+        } else if(match("true")) {
+            return Operand.literal(primitive(true));
+        } else if(match("false")) {
+            return Operand.literal(primitive(false));
+        } else if(match("null")) {
+            return Operand.literal(nullValue());
+        } else {
+            return Operand.literal(number());
+        }
+    }
+
+    private PathWithLabels relativePath() {
+        return relativePath(false);
+    }
+
+    /**
+     * Parses the simple path after @ or $ in a filter: .name, ['name'] and [index] steps.
+     *
+     * @param bare true if the path starts with a name without a dot, as in projections
+     */
+    private PathWithLabels relativePath(boolean bare) {
+        List<String> labels = new ArrayList<>();
+        StringBuilder jsonPath = new StringBuilder();
+        boolean onlyLabels = true;
+        if(bare) {
+            String name = name();
+            labels.add(name);
+            appendKey(jsonPath, name);
+        }
+        while(true) {
+            if(match(".")) {
+                String name = name();
+                labels.add(name);
+                appendKey(jsonPath, name);
+            } else if(match("[")) {
+                skipWhitespace();
+                if(peek('\'') || peek('"')) {
+                    String name = quoted();
+                    labels.add(name);
+                    appendKey(jsonPath, name);
+                } else {
+                    Integer index = optionalInt();
+                    if(index == null) {
+                        throw error("expected an index or quoted key");
+                    }
+                    onlyLabels = false;
+                    jsonPath.append('[').append(index).append(']');
+                }
+                skipWhitespace();
+                expect("]");
+            } else {
+                break;
+            }
+        }
+        String[] labelArray = labels.toArray(new String[labels.size()]);
+        if(onlyLabels) {
+            return new PathWithLabels(JsonPath.of(labelArray), labelArray.length > 0 ? labelArray : null);
+        } else {
+            return new PathWithLabels(JsonPath.compile(jsonPath.toString()), null);
+        }
+    }
+
+    private static void appendKey(StringBuilder jsonPath, String key) {
+        jsonPath.append("['").append(key.replace("\\", "\\\\").replace("'", "\\'")).append("']");
+    }
+
+    private JsonElement number() {
+        int start = pos;
+        if(peek('-')) {
+            pos++;
+        }
+        boolean decimal = false;
+        while(pos < expression.length()) {
+            char c = expression.charAt(pos);
+            if(c >= '0' && c <= '9') {
+                pos++;
+            } else if(c == '.' || c == 'e' || c == 'E' || ((c == '+' || c == '-') && decimal)) {
+                decimal = true;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String text = expression.substring(start, pos);
+        try {
+            if(decimal) {
+                return primitive(Double.parseDouble(text));
+            } else {
+                return primitive(Long.parseLong(text));
+            }
+        } catch (NumberFormatException e) {
+            throw error("expected a value");
+        }
+    }
+
+    private Integer optionalInt() {
+        skipWhitespace();
+        int start = pos;
+        if(peek('-')) {
+            pos++;
+        }
+        while(pos < expression.length() && Character.isDigit(expression.charAt(pos))) {
+            pos++;
+        }
+        if(pos == start) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(expression.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("expected a number");
+        }
+    }
+
+    private String name() {
+        int start = pos;
+        while(pos < expression.length() && isNameChar(expression.charAt(pos))) {
+            pos++;
+        }
+        if(start == pos) {
+            throw error("expected a name");
+        }
+        return expression.substring(start, pos);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '$';
+    }
+
+    private String quoted() {
+        char quote = expression.charAt(pos++);
+        StringBuilder buf = new StringBuilder();
+        while(pos < expression.length() && expression.charAt(pos) != quote) {
+            char c = expression.charAt(pos++);
+            if(c == '\\' && pos < expression.length()) {
+                c = expression.charAt(pos++);
+            }
+            buf.append(c);
+        }
+        if(pos == expression.length()) {
+            throw error("unterminated string");
+        }
+        pos++;
+        return buf.toString();
+    }
+
+    private void skipWhitespace() {
+        while(pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean peek(char c) {
+        return pos < expression.length() && expression.charAt(pos) == c;
+    }
+
+    private boolean match(String token) {
+        if(expression.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if(!match(token)) {
+            throw error("expected '" + token + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + pos + " in " + expression);
+    }
+
+    private static final class PathWithLabels {
+        final JsonPath path;
+        final String[] labels;
+
+        PathWithLabels(JsonPath path, String[] labels) {
+            this.path = path;
+            this.labels = labels;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.github.jsonj.query;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPath;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * One step of a compiled query. Maps each element that reaches the step to a lazy stream of results.
+ */
+interface Step {
+    Stream<JsonElement> apply(JsonElement element, JsonElement root);
+
+    /**
+     * Object field, e.g. <code>.name</code> or <code>['name']</code>.
+     */
+    final class Field implements Step {
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            if(element.isObject()) {
+                JsonElement value = element.asObject().get(name);
+                if(value != null) {
+                    return Stream.of(value);
+                }
+            }
+            return Stream.empty();
+        }
+
+        @Override
+        public String toString() {
+            return "['" + name + "']";
+        }
+    }
+
+    /**
+     * Array element, e.g. <code>[2]</code> or <code>[-1]</code> for the last one.
+     */
+    final class Index implements Step {
+        private final int index;
+
+        Index(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            if(element.isArray()) {
+                JsonArray array = element.asArray();
+                int i = index < 0 ? array.size() + index : index;
+                if(i >= 0 && i < array.size()) {
+                    return Stream.of(array.get(i));
+                }
+            }
+            return Stream.empty();
+        }
+
+        @Override
+        public String toString() {
+            return "[" + index + "]";
+        }
+    }
+
+    /**
+     * Several fields or indices, e.g. <code>['a','b']</code> or <code>[0,2]</code>.
+     */
+    final class Union implements Step {
+        private final List<Step> steps;
+
+        Union(List<Step> steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            return steps.stream().flatMap(step -> step.apply(element, root));
+        }
+
+        @Override
+        public String toString() {
+            return "union" + steps;
+        }
+    }
+
+    /**
+     * All the values of an object or all the elements of an array: <code>.*</code> or <code>[*]</code>.
+     */
+    final class Wildcard implements Step {
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            return children(element);
+        }
+
+        @Override
+        public String toString() {
+            return "[*]";
+        }
+    }
+
+    /**
+     * Python style slice of an array: <code>[start:end:step]</code> where all three parts are optional.
+     */
+    final class Slice implements Step {
+        private final Integer start;
+        private final Integer end;
+        private final int step;
+
+        Slice(Integer start, Integer end, int step) {
+            if(step == 0) {
+                throw new IllegalArgumentException("slice step cannot be 0");
+            }
+            this.start = start;
+            this.end = end;
+            this.step = step;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            if(!element.isArray()) {
+                return Stream.empty();
+            }
+            JsonArray array = element.asArray();
+            int size = array.size();
+            if(step > 0) {
+                int from = bound(start, 0, size, 0);
+                int to = bound(end, size, size, 0);
+                if(from >= to) {
+                    return Stream.empty();
+                }
+                return IntStream.range(0, (to - from + step - 1) / step).mapToObj(i -> array.get(from + i * step));
+            } else {
+                int from = bound(start, size - 1, size - 1, -1);
+                int to = bound(end, -1, size - 1, -1);
+                if(from <= to) {
+                    return Stream.empty();
+                }
+                return IntStream.range(0, (from - to - step - 1) / -step).mapToObj(i -> array.get(from + i * step));
+            }
+        }
+
+        private static int bound(Integer value, int defaultValue, int max, int min) {
+            if(value == null) {
+                return defaultValue;
+            }
+            int v = value < 0 ? value + max + (min < 0 ? 1 : 0) : value;
+            return Math.max(min, Math.min(max, v));
+        }
+
+        @Override
+        public String toString() {
+            return "[" + (start == null ? "" : start) + ":" + (end == null ? "" : end) + ":" + step + "]";
+        }
+    }
+
+    /**
+     * Recursive descent, <code>..</code>: the element itself and all of its descendants, in document order.
+     */
+    final class Descendants implements Step {
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            Iterator<JsonElement> it = new Iterator<JsonElement>() {
+                // iterators of the containers we are in; avoids recursion and materializing the descendants
+                private final Deque<Iterator<JsonElement>> stack = new ArrayDeque<>();
+                private JsonElement next = element;
+
+                @Override
+                public boolean hasNext() {
+                    while(next == null && !stack.isEmpty()) {
+                        Iterator<JsonElement> top = stack.peek();
+                        if(top.hasNext()) {
+                            next = top.next();
+                        } else {
+                            stack.pop();
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public JsonElement next() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    JsonElement current = next;
+                    next = null;
+                    if(current.isObject()) {
+                        stack.push(current.asObject().values().iterator());
+                    } else if(current.isArray()) {
+                        stack.push(current.asArray().iterator());
+                    }
+                    return current;
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+
+        @Override
+        public String toString() {
+            return "..";
+        }
+    }
+
+    /**
+     * Filter on the children of an array or object: <code>[?(@.price &gt; 10)]</code>. Uses an index of the array
+     * when the condition allows it, see {@link Condition#candidates(JsonArray)}.
+     */
+    final class Filter implements Step {
+        private final Condition condition;
+
+        Filter(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            Stream<JsonElement> candidates = null;
+            if(element.isArray()) {
+                candidates = condition.candidates(element.asArray());
+            }
+            if(candidates == null) {
+                candidates = children(element);
+            }
+            return candidates.filter(e -> condition.test(e, root));
+        }
+
+        @Override
+        public String toString() {
+            return "[?(" + condition + ")]";
+        }
+    }
+
+    /**
+     * Builds a new object from each element, e.g. <code>.{name: @.name, total: @.price.total}</code>.
+     */
+    final class Projection implements Step {
+        private final List<String> names;
+        private final List<JsonPath> paths;
+
+        Projection(List<String> names, List<JsonPath> paths) {
+            this.names = names;
+            this.paths = paths;
+        }
+
+        @Override
+        public Stream<JsonElement> apply(JsonElement element, JsonElement root) {
+            JsonObject object = new JsonObject();
+            for(int i = 0; i < names.size(); i++) {
+                JsonElement value = paths.get(i).get(element);
+                if(value != null) {
+                    object.put(names.get(i), value);
+                }
+            }
+            return Stream.of(object);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder("{");
+            for(int i = 0; i < names.size(); i++) {
+                if(i > 0) {
+                    buf.append(", ");
+                }
+                buf.append(names.get(i)).append(": @").append(paths.get(i));
+            }
+            return buf.append('}').toString();
+        }
+    }
+
+    static Stream<JsonElement> children(JsonElement element) {
+        if(element.isObject()) {
+            return element.asObject().values().stream();
+        } else if(element.isArray()) {
+            return element.asArray().stream();
+        } else {
+            return Stream.empty();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.jsonj.smile;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.jsonj.tools.BinaryJsonFactoryParser;
+
+/**
+ * Parses jackson's binary smile format, see {@link SmileSerializer}. Smile is binary, so use the methods that take
+ * bytes or streams. Numbers keep the type they were written with.
+ */
+public class SmileParser extends BinaryJsonFactoryParser<SmileFactory> {
+
+    public SmileParser() {
+        super(new SmileFactory());
+    }
+}
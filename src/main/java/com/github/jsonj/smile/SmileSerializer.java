@@ -0,0 +1,26 @@
+package com.github.jsonj.smile;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.github.jsonj.tools.JsonFactoryBasedSerializer;
+
+/**
+ * Serializes to jackson's binary smile format, which is smaller and faster to parse and write than json. Repeated keys
+ * and short repeated string values are written as back references to their first occurrence, which pays off for
+ * arrays of similar objects.
+ *
+ * Smile is binary, so serialize to a stream or to bytes rather than to a writer.
+ */
+public class SmileSerializer implements JsonFactoryBasedSerializer {
+    private final SmileFactory factory = new SmileFactory()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+
+    public SmileSerializer() {
+    }
+
+    @Override
+    public SmileFactory factory() {
+        return factory;
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jsonj.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class for parsers of binary jackson dataformats like smile and cbor. These are read from bytes or streams; the
+ * reader and string methods of {@link JsonFactoryBasedParser} don't apply. Numbers keep the type they were written
+ * with.
+ *
+ * @param <F> type of the factory
+ */
+public abstract class BinaryJsonFactoryParser<F extends JsonFactory> implements JsonFactoryBasedParser {
+    private final F factory;
+
+    /**
+     * @param factory factory for the format; used for every call, so it must be thread safe
+     */
+    protected BinaryJsonFactoryParser(F factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public F factory() {
+        return factory;
+    }
+
+    @Override
+    public boolean nativeNumbers() {
+        return true;
+    }
+
+    @Override
+    public JsonElement parse(InputStream is) {
+        try(com.fasterxml.jackson.core.JsonParser parser = factory.createParser(is)) {
+            return document(parseNext(parser));
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * @param bytes a single document
+     * @return the parsed document
+     */
+    public JsonElement parse(byte[] bytes) {
+        try(com.fasterxml.jackson.core.JsonParser parser = factory.createParser(bytes)) {
+            return document(parseNext(parser));
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    private JsonElement document(JsonElement e) {
+        if(e == null) {
+            throw new JsonParseException("no " + factory.getFormatName() + " document in the input");
+        }
+        return e;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.JsonElement;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Iterates over documents that are parsed one at a time; the supplier returns null when there are no more.
+ */
+class DocumentIterator implements Iterator<JsonElement> {
+    private final Supplier<JsonElement> parseNext;
+    private JsonElement next;
+    private boolean done;
+
+    DocumentIterator(Supplier<JsonElement> parseNext) {
+        this.parseNext = parseNext;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next == null && !done) {
+            next = parseNext.get();
+            done = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public JsonElement next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JsonElement result = next;
+        next = null;
+        return result;
+    }
+}
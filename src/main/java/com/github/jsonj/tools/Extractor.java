@@ -0,0 +1,326 @@
+package com.github.jsonj.tools;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPath;
+import com.github.jsonj.JsonPrimitive;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+
+/**
+ * Extracts the values at a fixed list of paths in a single pass. The paths are compiled into a prefix trie so shared
+ * prefixes are only walked once, instead of once per getString/getLong call from the root.
+ *
+ * An extractor can run against a parsed {@link JsonElement} or directly against a jackson token stream, in which
+ * case only the extracted values are turned into json elements and the parsing stops as soon as all the paths have a
+ * value. See {@link com.github.jsonj.tools.JsonParser#extract(String, Extractor)}. If a key occurs more than once in
+ * the same object, only the first occurrence is extracted from a token stream.
+ *
+ * Paths use the {@link JsonPath} syntax; negative array indices are not supported. Extractors are immutable and thread
+ * safe.
+ */
+public final class Extractor {
+    private final String[] paths;
+    private final Node root = new Node();
+
+    private Extractor(String[] paths) {
+        this.paths = paths;
+        for(int slot = 0; slot < paths.length; slot++) {
+            JsonPath path = JsonPath.compile(paths[slot]);
+            Node node = root;
+            for(int i = 0; i < path.length(); i++) {
+                node = node.child(path.key(i), path.index(i), paths[slot]);
+            }
+            if(node.slot >= 0) {
+                throw new IllegalArgumentException("duplicate path " + paths[slot]);
+            }
+            node.slot = slot;
+        }
+    }
+
+    /**
+     * @param paths the paths to extract; the result has the values in the same order
+     * @return the extractor
+     * @throws IllegalArgumentException if a path can't be parsed or is listed twice
+     */
+    public static @Nonnull Extractor of(@Nonnull String... paths) {
+        return new Extractor(paths.clone());
+    }
+
+    /**
+     * Receives the extracted values.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * Called at most once per slot for each extraction. Slots without a value are not called.
+         *
+         * @param slot the position of the path in the list the extractor was created with
+         * @param value the value at the path; json null is passed as a null primitive
+         */
+        void accept(int slot, @Nonnull JsonElement value);
+    }
+
+    /**
+     * @return number of paths
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * @param slot position of the path
+     * @return the path expression
+     */
+    public @Nonnull String path(int slot) {
+        return paths[slot];
+    }
+
+    /**
+     * @param element element to extract from
+     * @return array with a value for each path: the raw value for primitives (see {@link JsonPrimitive#value()}), the
+     *         object or array for containers, or null if there is no value or it is json null
+     */
+    public @Nonnull Object[] extract(JsonElement element) {
+        Object[] values = new Object[paths.length];
+        extract(element, (slot, value) -> values[slot] = toValue(value));
+        return values;
+    }
+
+    /**
+     * @param element element to extract from
+     * @param sink receives the values
+     */
+    public void extract(JsonElement element, @Nonnull Sink sink) {
+        if(element != null) {
+            walk(root, element, sink);
+        }
+    }
+
+    /**
+     * Extracts from the next value in the token stream without building the rest of the document.
+     *
+     * @param parser jackson parser; it is left after the last value that was needed, so don't use it for anything else
+     * @return array with a value for each path, see {@link #extract(JsonElement)}
+     * @throws IOException if the input can't be read or parsed
+     */
+    public @Nonnull Object[] extract(@Nonnull JsonParser parser) throws IOException {
+        Object[] values = new Object[paths.length];
+        extract(parser, (slot, value) -> values[slot] = toValue(value));
+        return values;
+    }
+
+    /**
+     * Extracts from the next value in the token stream without building the rest of the document.
+     *
+     * @param parser jackson parser; it is left after the last value that was needed, so don't use it for anything else
+     * @param sink receives the values
+     * @throws IOException if the input can't be read or parsed
+     */
+    public void extract(@Nonnull JsonParser parser, @Nonnull Sink sink) throws IOException {
+        if(parser.nextToken() != null) {
+            // duplicate keys may reach the same slot more than once, so count each slot only the first time
+            boolean[] found = new boolean[paths.length];
+            int[] remaining = {paths.length};
+            stream(root, parser, (slot, value) -> {
+                if(!found[slot]) {
+                    found[slot] = true;
+                    remaining[0]--;
+                    sink.accept(slot, value);
+                }
+            }, remaining);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Extractor" + Arrays.toString(paths);
+    }
+
+    private static Object toValue(JsonElement value) {
+        if(value.isPrimitive()) {
+            return value.asPrimitive().value();
+        } else {
+            return value;
+        }
+    }
+
+    private static void walk(Node node, JsonElement element, Sink sink) {
+        if(node.slot >= 0) {
+            sink.accept(node.slot, element);
+        }
+        walkChildren(node, element, sink);
+    }
+
+    private static void walkChildren(Node node, JsonElement element, Sink sink) {
+        if(node.keys != null && element.isObject()) {
+            JsonObject object = element.asObject();
+            for(int i = 0; i < node.keys.length; i++) {
+                JsonElement value = node.keyPaths[i].get(object);
+                if(value != null) {
+                    walk(node.keys[i], value, sink);
+                }
+            }
+        }
+        if(node.indices != null && element.isArray()) {
+            JsonArray array = element.asArray();
+            for(int i = 0; i < node.indices.length; i++) {
+                if(node.indexNumbers[i] < array.size()) {
+                    walk(node.indices[i], array.get(node.indexNumbers[i]), sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the value at the current token. Returns false when all the slots have a value and the caller should
+     * stop reading.
+     */
+    private static boolean stream(Node node, JsonParser parser, Sink sink, int[] remaining) throws IOException {
+        if(node.slot >= 0) {
+            JsonElement value = readValue(parser);
+            sink.accept(node.slot, value);
+            // the value is already built, so paths below this one are taken from the tree
+            walkChildren(node, value, sink);
+            return remaining[0] > 0;
+        }
+        JsonToken token = parser.currentToken();
+        if(token == JsonToken.START_OBJECT && node.keyMap != null) {
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                Node child = node.keyMap.get(parser.getCurrentName());
+                parser.nextToken();
+                if(child == null) {
+                    parser.skipChildren();
+                } else if(!stream(child, parser, sink, remaining)) {
+                    return false;
+                }
+            }
+        } else if(token == JsonToken.START_ARRAY && node.indexMap != null) {
+            int index = 0;
+            while(parser.nextToken() != JsonToken.END_ARRAY) {
+                Node child = node.indexMap.get(index++);
+                if(child == null) {
+                    parser.skipChildren();
+                } else if(!stream(child, parser, sink, remaining)) {
+                    return false;
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return true;
+    }
+
+    /**
+     * Builds the element at the current token, converting numbers the same way as the parser.
+     */
+    private static JsonElement readValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+        case START_OBJECT:
+            JsonObject object = new JsonObject();
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                parser.nextToken();
+                object.put(key, readValue(parser));
+            }
+            return object;
+        case START_ARRAY:
+            JsonArray array = new JsonArray();
+            while(parser.nextToken() != JsonToken.END_ARRAY) {
+                array.add(readValue(parser));
+            }
+            return array;
+        case VALUE_NUMBER_INT:
+            if(parser.getTextLength() < 19) {
+                return primitive(parser.getNumberValue());
+            } else {
+                return primitive(parser.getBigIntegerValue());
+            }
+        case VALUE_NUMBER_FLOAT:
+            if(parser.getTextLength() < 8) {
+                return primitive(parser.getNumberValue());
+            } else {
+                return primitive(parser.getDecimalValue());
+            }
+        case VALUE_STRING:
+            return primitive(parser.getText());
+        case VALUE_TRUE:
+            return primitive(true);
+        case VALUE_FALSE:
+            return primitive(false);
+        case VALUE_NULL:
+            return nullValue();
+        default:
+            throw new IllegalStateException("unexpected token " + token);
+        }
+    }
+
+    private static final class Node {
+        int slot = -1;
+
+        Map<String, Node> keyMap;
+        Map<Integer, Node> indexMap;
+        // the same children as arrays, for walking trees without iterators; the single key paths remember the slot
+        // of their key in the last object
+        JsonPath[] keyPaths;
+        Node[] keys;
+        int[] indexNumbers;
+        Node[] indices;
+
+        Node child(String key, int index, String path) {
+            if(index != JsonPath.NO_INDEX && index < 0) {
+                throw new IllegalArgumentException("negative array indices are not supported: " + path);
+            }
+            Node child = null;
+            if(key != null) {
+                if(keyMap == null) {
+                    keyMap = new LinkedHashMap<>();
+                }
+                child = keyMap.computeIfAbsent(key, k -> new Node());
+            }
+            if(index != JsonPath.NO_INDEX) {
+                // json pointer tokens like 0 may be either a key or an index, so both map to the same node
+                if(indexMap == null) {
+                    indexMap = new LinkedHashMap<>();
+                }
+                Node existing = indexMap.get(index);
+                if(child == null) {
+                    child = existing != null ? existing : new Node();
+                } else if(existing != null && existing != child) {
+                    throw new IllegalArgumentException("path " + path + " overlaps with a path that uses a different syntax");
+                }
+                indexMap.put(index, child);
+            }
+            updateArrays();
+            return child;
+        }
+
+        private void updateArrays() {
+            if(keyMap != null) {
+                keyPaths = keyMap.keySet().stream().map(JsonPath::of).toArray(JsonPath[]::new);
+                keys = keyMap.values().toArray(new Node[keyMap.size()]);
+            }
+            if(indexMap != null) {
+                indexNumbers = new int[indexMap.size()];
+                indices = new Node[indexMap.size()];
+                int i = 0;
+                for(Entry<Integer, Node> entry : indexMap.entrySet()) {
+                    indexNumbers[i] = entry.getKey();
+                    indices[i++] = entry.getValue();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.SimpleIntMapJsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parser that scans utf-8 bytes itself instead of going through jackson. Strings are copied into the primitives as
+ * utf-8 without decoding them to chars and back, and containers are filled as they are completed. The trees are the
+ * same as those of {@link JsonParser} with the same settings, including the object implementation.
+ *
+ * Input from strings and readers is encoded to utf-8 first, so the biggest gains are for byte input: use
+ * {@link #parse(byte[])} or {@link #parse(InputStream)}. Jackson parser features such as comments are not supported.
+ * The extract methods still use jackson.
+ *
+ * This class is thread safe. The same parser is used by {@link JsonParser} for settings that enable
+ * {@link JsonjSettings#useFastParser()}.
+ */
+public class FastJsonParser extends JsonParser {
+
+    public FastJsonParser() {
+        this(DEFAULT_SETTINGS);
+    }
+
+    /**
+     * @param settings settings object; the parser is used regardless of {@link JsonjSettings#useFastParser()}
+     */
+    public FastJsonParser(JsonjSettings settings) {
+        super(fast(settings));
+    }
+
+    private static JsonjSettings fast(JsonjSettings settings) {
+        if(settings.useFastParser()) {
+            return settings;
+        }
+        return new JsonjSettings() {
+            @Override
+            public boolean useEfficientStringBasedJsonObject() {
+                return settings.useEfficientStringBasedJsonObject();
+            }
+
+            @Override
+            public int upgradeThresholdToMapBasedJsonObject() {
+                return settings.upgradeThresholdToMapBasedJsonObject();
+            }
+
+            @Override
+            public boolean useFastParser() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param utf8 json encoded as utf-8
+     * @return JsonElement
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public @Nonnull JsonElement parse(@Nonnull byte[] utf8) {
+        return parse(utf8, 0, utf8.length, settings());
+    }
+
+    /**
+     * @param utf8 buffer with json encoded as utf-8
+     * @param offset start of the json
+     * @param length length of the json
+     * @return JsonElement
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public @Nonnull JsonElement parse(@Nonnull byte[] utf8, int offset, int length) {
+        return parse(utf8, offset, length, settings());
+    }
+
+    static @Nonnull JsonElement parse(byte[] utf8, int offset, int length, JsonjSettings settings) {
+        TreeBuilder builder = new TreeBuilder(settings);
+        new Utf8JsonScanner(utf8, offset, length).parse(builder);
+        return builder.root;
+    }
+
+    static @Nonnull JsonElement parse(InputStream is, JsonjSettings settings) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int read;
+        while((read = is.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if(length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return parse(buffer, 0, length, settings);
+    }
+
+    static @Nonnull JsonElement parse(Reader r, JsonjSettings settings) throws IOException {
+        StringBuilder buffer = new StringBuilder();
+        char[] chars = new char[8192];
+        int read;
+        while((read = r.read(chars)) >= 0) {
+            buffer.append(chars, 0, read);
+        }
+        byte[] utf8 = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        return parse(utf8, 0, utf8.length, settings);
+    }
+
+    /**
+     * Builds the same tree as {@link JsonHandler}: containers are added to their parent when they are complete, and
+     * objects are upgraded to a {@link MapBasedJsonObject} once they exceed the threshold in the settings.
+     */
+    private static final class TreeBuilder implements Utf8JsonScanner.Handler {
+        private final boolean efficient;
+        private final int threshold;
+
+        private JsonElement[] open = new JsonElement[16];
+        private String[] keys = new String[16];
+        private int depth;
+        private JsonElement root;
+
+        TreeBuilder(JsonjSettings settings) {
+            efficient = settings.useEfficientStringBasedJsonObject();
+            threshold = settings.upgradeThresholdToMapBasedJsonObject();
+        }
+
+        private void start(JsonElement container) {
+            if(depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+                keys = Arrays.copyOf(keys, depth * 2);
+            }
+            open[depth++] = container;
+        }
+
+        private void end() {
+            JsonElement container = open[--depth];
+            open[depth] = null;
+            value(container);
+        }
+
+        private void value(JsonElement value) {
+            if(depth == 0) {
+                root = value;
+                return;
+            }
+            JsonElement parent = open[depth - 1];
+            if(parent.isArray()) {
+                parent.asArray().add(value);
+            } else {
+                JsonObject object = parent.asObject();
+                object.put(keys[depth - 1], value);
+                if(object.size() > threshold && object.getClass() != MapBasedJsonObject.class) {
+                    open[depth - 1] = new MapBasedJsonObject(object);
+                }
+            }
+        }
+
+        @Override
+        public void startObject() {
+            start(efficient ? new SimpleIntMapJsonObject() : new JsonObject());
+        }
+
+        @Override
+        public void endObject() {
+            end();
+        }
+
+        @Override
+        public void startArray() {
+            start(new JsonArray());
+        }
+
+        @Override
+        public void endArray() {
+            end();
+        }
+
+        @Override
+        public void key(byte[] utf8, int offset, int length) {
+            keys[depth - 1] = new String(utf8, offset, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void string(byte[] utf8, int offset, int length) {
+            value(JsonPrimitive.fromUtf8(utf8, offset, length));
+        }
+
+        @Override
+        public void longValue(long value) {
+            value(new JsonPrimitive(value));
+        }
+
+        @Override
+        public void doubleValue(double value) {
+            value(new JsonPrimitive(value));
+        }
+
+        @Override
+        public void bigInteger(byte[] text, int offset, int length) {
+            value(new JsonPrimitive(new BigInteger(new String(text, offset, length, StandardCharsets.ISO_8859_1))));
+        }
+
+        @Override
+        public void bigDecimal(byte[] text, int offset, int length) {
+            value(new JsonPrimitive(new BigDecimal(new String(text, offset, length, StandardCharsets.ISO_8859_1))));
+        }
+
+        @Override
+        public void booleanValue(boolean value) {
+            value(new JsonPrimitive(value));
+        }
+
+        @Override
+        public void nullValue() {
+            value(JsonPrimitive.JSON_NULL);
+        }
+    }
+}
@@ -1,46 +1,78 @@
 package com.github.jsonj.tools;
 
+import com.fasterxml.jackson.core.JsonParser.NumberType;
 import com.fasterxml.jackson.core.JsonToken;
 import com.github.jsonj.JsonElement;
+import com.github.jsonj.exceptions.JsonParseException;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
 import java.util.LinkedList;
+import java.util.UUID;
 
 /**
- * Internal handler class used for the JsonParser and YamlParser
+ * Internal handler class used for the JsonParser and the parsers for other jackson data formats
  */
 public class JacksonHandler {
     public static @Nonnull JsonElement parseContent(com.fasterxml.jackson.core.JsonParser parser, JsonjSettings settings) throws IOException, com.fasterxml.jackson.core.JsonParseException {
+        return parse(parser, settings, false, false);
+    }
+
+    /**
+     * Parses the next value and leaves the parser after it, so that a stream with multiple documents can be parsed one
+     * document at a time.
+     *
+     * @param parser parser
+     * @param settings settings
+     * @param nativeNumbers if true, numbers keep the type the parser reports; binary formats know the types they wrote.
+     *            Otherwise the length of the text decides, like for json.
+     * @return the next value or null if there is no more input
+     * @throws IOException if the input can't be read or parsed
+     */
+    public static JsonElement parseValue(com.fasterxml.jackson.core.JsonParser parser, JsonjSettings settings, boolean nativeNumbers) throws IOException {
+        return parse(parser, settings, true, nativeNumbers);
+    }
+
+    private static JsonElement parse(com.fasterxml.jackson.core.JsonParser parser, JsonjSettings settings, boolean single, boolean nativeNumbers) throws IOException {
         JsonHandler handler = new JsonHandler(settings);
 
         LinkedList<Boolean> stack = new LinkedList<>();
-        JsonToken nextToken;
+        JsonToken nextToken = parser.nextToken();
+        if(single && nextToken == null) {
+            return null;
+        }
+        int depth = 0;
         handler.startJSON();
-        while((nextToken = parser.nextToken()) != null) {
+        while(nextToken != null) {
             switch (nextToken) {
             case START_OBJECT:
                 handler.startObject();
+                depth++;
                 break;
             case END_OBJECT:
                 handler.endObject();
                 endObjEntryIfNeeded(handler, stack);
+                depth--;
                 break;
             case START_ARRAY:
                 handler.startArray();
                 stack.push(false);
+                depth++;
                 break;
             case END_ARRAY:
                 handler.endArray();
                 stack.pop();
                 endObjEntryIfNeeded(handler, stack);
+                depth--;
                 break;
             case FIELD_NAME:
                 handler.startObjectEntry(parser.getText());
                 stack.push(true);
                 break;
             case VALUE_NUMBER_INT:
-                if(parser.getTextLength() < 19) { // Long.MAX_VALUE == 20 characters long, so should be fine up until there
+                if(nativeNumbers ? parser.getNumberType() != NumberType.BIG_INTEGER : parser.getTextLength() < 19) { // Long.MAX_VALUE == 20 characters long, so should be fine up until there
                     handler.primitive(parser.getNumberValue());
                 } else {
                     handler.primitive(parser.getBigIntegerValue());
@@ -48,7 +80,7 @@ public class JacksonHandler {
                 endObjEntryIfNeeded(handler, stack);
                 break;
             case VALUE_NUMBER_FLOAT:
-                if(parser.getTextLength() < 8) { // beyond this size you may trigger E notation pretty easily e.g. 12345678 becomes 1.2345678E7.
+                if(nativeNumbers || parser.getTextLength() < 8) { // beyond this size you may trigger E notation pretty easily e.g. 12345678 becomes 1.2345678E7.
                     handler.primitive(parser.getNumberValue());
                 } else {
                     handler.primitive(parser.getDecimalValue());
@@ -75,15 +107,40 @@ public class JacksonHandler {
                 // non blocking parser may sometimes fail to produce token: ignore
                 break;
             case VALUE_EMBEDDED_OBJECT:
-                throw new IllegalStateException("unexpected VALUE_EMBEDDED_OBJECT (should not happen) " + nextToken);
+                handler.primitive(embeddedValue(parser.getEmbeddedObject()));
+                endObjEntryIfNeeded(handler, stack);
+                break;
             default:
                 throw new IllegalStateException("unexpected token " + nextToken);
             }
+            if(single && depth == 0 && nextToken != JsonToken.FIELD_NAME && nextToken != JsonToken.NOT_AVAILABLE) {
+                break;
+            }
+            nextToken = parser.nextToken();
         }
         handler.endJSON();
         return handler.get();
     }
 
+    /**
+     * Binary formats have value types that json lacks. Binary data becomes a base64 string, dates their epoch
+     * milliseconds and uuids their canonical string form. Parsers for formats with other types should map them to one
+     * of these, see BsonParser; anything else is rejected rather than turned into an arbitrary string.
+     */
+    private static Object embeddedValue(Object value) {
+        if(value == null || value instanceof Number || value instanceof Boolean) {
+            return value;
+        } else if(value instanceof CharSequence || value instanceof UUID) {
+            return value.toString();
+        } else if(value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        } else if(value instanceof Date) {
+            return ((Date) value).getTime();
+        } else {
+            throw new JsonParseException("unsupported embedded value of type " + value.getClass().getName());
+        }
+    }
+
     private static void endObjEntryIfNeeded(JsonHandler handler, LinkedList<Boolean> stack) {
         if(stack.size() > 0 && stack.peek()) {
             handler.endObjectEntry();
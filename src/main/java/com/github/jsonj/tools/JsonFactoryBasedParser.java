@@ -11,6 +11,10 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Extend this to quickly parse something using the jsonj handler for the jackson streaming parser with any jackson dataformat implementation.
@@ -47,4 +51,73 @@ public interface JsonFactoryBasedParser {
         return parse(s).asObject();
     }
 
+    /**
+     * @return true if numbers should keep the type reported by the jackson parser, which is what binary formats need.
+     *         By default the length of the number text decides, like for json.
+     */
+    default boolean nativeNumbers() {
+        return false;
+    }
+
+    /**
+     * Parses the next document from a jackson parser, leaving the parser after it.
+     *
+     * @param parser a parser created by the {@link #factory()}
+     * @return the next document or null if there is no more input
+     */
+    default JsonElement parseNext(com.fasterxml.jackson.core.JsonParser parser) {
+        try {
+            return JacksonHandler.parseValue(parser, JsonParser.DEFAULT_SETTINGS, nativeNumbers());
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Parses a stream with any number of documents, e.g. concatenated binary documents or a yaml stream. Documents are
+     * parsed when the stream gets to them. Close the stream to release the parser; the input stream is not closed.
+     *
+     * @param is input
+     * @return a lazy stream of documents
+     */
+    default Stream<JsonElement> parseDocuments(InputStream is) {
+        try {
+            return parseDocuments(factory().createParser(is));
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Like {@link #parseDocuments(InputStream)} for text based formats.
+     *
+     * @param r input; not closed
+     * @return a lazy stream of documents
+     */
+    default Stream<JsonElement> parseDocuments(Reader r) {
+        try {
+            return parseDocuments(factory().createParser(r));
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * @param parser a parser created by the {@link #factory()}; closed when the stream is closed, but it won't close its
+     *            source
+     * @return a lazy stream of documents
+     */
+    default Stream<JsonElement> parseDocuments(com.fasterxml.jackson.core.JsonParser parser) {
+        parser.disable(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        DocumentIterator documents = new DocumentIterator(() -> parseNext(parser));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(documents, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+    }
+
 }
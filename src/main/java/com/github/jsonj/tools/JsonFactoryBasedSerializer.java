@@ -0,0 +1,90 @@
+package com.github.jsonj.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.jsonj.JsonElement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Counterpart of {@link JsonFactoryBasedParser}: implement this to serialize jsonj elements with any jackson dataformat
+ * implementation. The elements are written with {@link JsonElement#writeTo(JsonGenerator)}.
+ *
+ * The factory is asked for a generator for every call, so return the same thread safe factory each time rather than
+ * creating a new one. YamlSerializer for example implementation.
+ */
+public interface JsonFactoryBasedSerializer {
+
+    JsonFactory factory();
+
+    /**
+     * @param e element
+     * @param out stream to write to; flushed but not closed
+     */
+    default void serialize(JsonElement e, OutputStream out) {
+        try {
+            write(e, factory().createGenerator(out));
+        } catch (IOException e1) {
+            throw new IllegalStateException("cannot serialize json to output stream", e1);
+        }
+    }
+
+    /**
+     * @param e element
+     * @param w writer to write to; flushed but not closed
+     */
+    default void serialize(JsonElement e, Writer w) {
+        try {
+            write(e, factory().createGenerator(w));
+        } catch (IOException e1) {
+            throw new IllegalStateException("cannot serialize json to writer", e1);
+        }
+    }
+
+    /**
+     * @param e element
+     * @return the serialized bytes
+     */
+    default byte[] serialize(JsonElement e) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serialize(e, bos);
+        return bos.toByteArray();
+    }
+
+    /**
+     * Writes the documents one after the other with a single generator, for formats that support multiple documents
+     * in a stream.
+     *
+     * @param documents documents
+     * @param out stream to write to; flushed but not closed
+     */
+    default void serializeDocuments(Iterable<? extends JsonElement> documents, OutputStream out) {
+        try {
+            JsonGenerator generator = factory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try(JsonGenerator g = generator) {
+                for(JsonElement e : documents) {
+                    e.writeTo(g);
+                }
+            }
+        } catch (IOException e1) {
+            throw new IllegalStateException("cannot serialize json to output stream", e1);
+        }
+    }
+
+    /**
+     * Writes the element and closes the generator, which flushes it but leaves the target open.
+     * @param e element
+     * @param generator a new generator
+     * @throws IOException if there is a problem writing
+     */
+    default void write(JsonElement e, JsonGenerator generator) throws IOException {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try(JsonGenerator g = generator) {
+            e.writeTo(g);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
@@ -61,17 +62,30 @@ public class JsonParser {
         }
     };
 
+    /**
+     * Parse with {@link FastJsonParser} instead of jackson.
+     */
+    public static final JsonjSettings FAST_SETTINGS = new JsonjSettings() {
+        @Override
+        public boolean useFastParser() {
+            return true;
+        }
+    };
+
     private final JsonFactory jsonFactory;
     private final JsonjSettings settings;
+    private final boolean fast;
 
     public JsonParser() {
         jsonFactory = new JsonFactory();
         settings=DEFAULT_SETTINGS;
+        fast = false;
     }
 
     public JsonParser(JsonjSettings settings) {
         this.settings=settings;
         jsonFactory = new JsonFactory();
+        fast = settings.useFastParser();
     }
 
     /**
@@ -86,6 +100,12 @@ public class JsonParser {
         for(Feature f : features) {
             jsonFactory.enable(f);
         }
+        // the fast parser doesn't support jackson features
+        fast = settings.useFastParser() && features.length == 0;
+    }
+
+    JsonjSettings settings() {
+        return settings;
     }
 
     /**
@@ -96,6 +116,10 @@ public class JsonParser {
      *             if the json cannot be parsed
      */
     public @Nonnull JsonElement parse(final String s) {
+        if(fast) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            return FastJsonParser.parse(utf8, 0, utf8.length, settings);
+        }
         try {
             com.fasterxml.jackson.core.JsonParser parser = jsonFactory.createParser(s);
             try {
@@ -118,7 +142,19 @@ public class JsonParser {
         return parse(is);
     }
 
-    private JsonElement parse(InputStream is) throws IOException {
+    /**
+     * @param is
+     *            stream with json encoded as utf-8; it is read to the end but not closed
+     * @return JsonElement
+     * @throws IOException
+     *             if there is some problem reading the input
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public JsonElement parse(InputStream is) throws IOException {
+        if(fast) {
+            return FastJsonParser.parse(is, settings);
+        }
         return parse(new BufferedReader(new InputStreamReader(is, Charset.forName("UTF-8"))));
     }
 
@@ -132,6 +168,9 @@ public class JsonParser {
      *             if the json cannot be parsed
      */
     public JsonElement parse(final Reader r) throws IOException {
+        if(fast) {
+            return FastJsonParser.parse(r, settings);
+        }
         com.fasterxml.jackson.core.JsonParser parser = jsonFactory.createParser(r);
         try {
             return JacksonHandler.parseContent(parser, settings);
@@ -142,6 +181,76 @@ public class JsonParser {
         }
     }
 
+    /**
+     * Extracts values straight from the json text without building the document.
+     *
+     * @param s input string with some json
+     * @param extractor the paths to extract
+     * @return array with a value for each path, see {@link Extractor#extract(JsonElement)}
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public @Nonnull Object[] extract(final String s, @Nonnull Extractor extractor) {
+        try {
+            com.fasterxml.jackson.core.JsonParser parser = jsonFactory.createParser(s);
+            try {
+                return extractor.extract(parser);
+            } finally {
+                parser.close();
+            }
+        } catch (com.fasterxml.jackson.core.JsonParseException e) {
+            throw new JsonParseException(e);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Extracts values straight from the json text without building the document.
+     *
+     * @param s input string with some json
+     * @param extractor the paths to extract
+     * @param sink receives the values
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public void extract(final String s, @Nonnull Extractor extractor, @Nonnull Extractor.Sink sink) {
+        try {
+            com.fasterxml.jackson.core.JsonParser parser = jsonFactory.createParser(s);
+            try {
+                extractor.extract(parser, sink);
+            } finally {
+                parser.close();
+            }
+        } catch (com.fasterxml.jackson.core.JsonParseException e) {
+            throw new JsonParseException(e);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    /**
+     * Extracts values straight from the json input without building the document.
+     *
+     * @param r reader with some json input
+     * @param extractor the paths to extract
+     * @param sink receives the values
+     * @throws IOException
+     *             if there is some problem reading the input
+     * @throws JsonParseException
+     *             if the json cannot be parsed
+     */
+    public void extract(final Reader r, @Nonnull Extractor extractor, @Nonnull Extractor.Sink sink) throws IOException {
+        com.fasterxml.jackson.core.JsonParser parser = jsonFactory.createParser(r);
+        try {
+            extractor.extract(parser, sink);
+        } catch (com.fasterxml.jackson.core.JsonParseException e) {
+            throw new JsonParseException(e);
+        } finally {
+            parser.close();
+        }
+    }
+
     public JsonObject parseObject(String json) {
         return parse(json).asObject();
     }
@@ -0,0 +1,251 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.ByteArraySink;
+import com.github.jsonj.ByteSink;
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonType;
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Pretty prints json as utf-8 to a {@link ByteSink} in a single pass. Primitives and keys are written the same way as
+ * for {@link JsonElement#serialize(ByteSink)} and indentation is copied from a precomputed run of bytes, so nothing is
+ * turned into a String along the way.
+ *
+ * The {@link #DEFAULT} printer produces the format of {@link JsonSerializer#serialize(JsonElement, boolean)}: objects
+ * have one field per line and are indented with tabs; arrays start and end on a line of their own but keep their
+ * elements on one line, except that a line break follows each nested object. Arrays nested directly in arrays are
+ * written on one line. The output ends with a newline.
+ *
+ * Printers are immutable and thread safe; the with methods return a configured copy.
+ */
+public final class JsonPrettyPrinter {
+    /** Prints the same format as {@link JsonSerializer#serialize(JsonElement, boolean)} always did. */
+    public static final JsonPrettyPrinter DEFAULT = new JsonPrettyPrinter('\t', 1, 0, false);
+
+    private final char indentChar;
+    private final int indentWidth;
+    private final int compactArrayLength;
+    private final boolean sortKeys;
+    // a newline followed by indentation for a few levels; deeper levels repeat the indentation after it
+    private final byte[] newline;
+
+    private JsonPrettyPrinter(char indentChar, int indentWidth, int compactArrayLength, boolean sortKeys) {
+        Validate.isTrue(indentChar == ' ' || indentChar == '\t', "indent with spaces or tabs");
+        Validate.isTrue(indentWidth >= 0, "indent width must not be negative");
+        this.indentChar = indentChar;
+        this.indentWidth = indentWidth;
+        this.compactArrayLength = compactArrayLength;
+        this.sortKeys = sortKeys;
+        newline = new byte[1 + 16 * indentWidth];
+        newline[0] = '\n';
+        for(int i = 1; i < newline.length; i++) {
+            newline[i] = (byte) indentChar;
+        }
+    }
+
+    /**
+     * @param c
+     *            a space or a tab
+     * @param width
+     *            number of characters per level
+     * @return a printer that indents with the given characters
+     */
+    public @Nonnull JsonPrettyPrinter withIndent(char c, int width) {
+        return new JsonPrettyPrinter(c, width, compactArrayLength, sortKeys);
+    }
+
+    /**
+     * @param maxLength
+     *            maximum length in bytes of an array of primitives that is written on a single line; 0 to disable
+     * @return a printer that writes short arrays of primitives as [1,2,3] without line breaks
+     */
+    public @Nonnull JsonPrettyPrinter withCompactArrays(int maxLength) {
+        return new JsonPrettyPrinter(indentChar, indentWidth, maxLength, sortKeys);
+    }
+
+    /**
+     * @param sort
+     *            true to write object fields sorted by key instead of in the order of the object
+     * @return a printer that sorts keys or not
+     */
+    public @Nonnull JsonPrettyPrinter withSortedKeys(boolean sort) {
+        return new JsonPrettyPrinter(indentChar, indentWidth, compactArrayLength, sort);
+    }
+
+    /**
+     * @param json
+     *            a {@link JsonElement}
+     * @return the pretty printed json
+     */
+    public @Nonnull String print(@Nonnull JsonElement json) {
+        ByteArraySink sink = ByteArraySink.recycled();
+        try {
+            print(json, sink);
+            return sink.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot serialize json to a string", e);
+        } finally {
+            sink.release();
+        }
+    }
+
+    /**
+     * @param json
+     *            a {@link JsonElement}
+     * @param out
+     *            stream to write utf-8 to; it is flushed but not closed
+     * @throws IOException
+     *             if there is a problem writing to the stream
+     */
+    public void print(@Nonnull JsonElement json, @Nonnull OutputStream out) throws IOException {
+        ByteSink sink = ByteSink.of(out);
+        print(json, sink);
+        sink.flush();
+    }
+
+    /**
+     * @param json
+     *            a {@link JsonElement}
+     * @param out
+     *            writer to write to; it is flushed but not closed
+     * @throws IOException
+     *             if there is a problem writing to the writer
+     */
+    public void print(@Nonnull JsonElement json, @Nonnull Writer out) throws IOException {
+        ByteArraySink sink = ByteArraySink.recycled();
+        try {
+            print(json, sink);
+            out.write(sink.toString());
+            out.flush();
+        } finally {
+            sink.release();
+        }
+    }
+
+    /**
+     * @param json
+     *            a {@link JsonElement}
+     * @param sink
+     *            sink to write to
+     * @throws IOException
+     *             if there is a problem writing to the sink
+     */
+    public void print(@Nonnull JsonElement json, @Nonnull ByteSink sink) throws IOException {
+        print(sink, json, true, 0);
+        sink.write('\n');
+    }
+
+    private void print(ByteSink sink, JsonElement json, boolean pretty, int depth) throws IOException {
+        if(json == null) {
+            return;
+        }
+        JsonType type = json.type();
+        switch(type) {
+        case object:
+            sink.write('{');
+            newline(sink, depth + 1, pretty);
+            Iterator<Entry<String, JsonElement>> iterator = entries(json);
+            while(iterator.hasNext()) {
+                Entry<String, JsonElement> entry = iterator.next();
+                JsonElement value = entry.getValue();
+                if(value != null) {
+                    JsonSerializer.writeKey(sink, entry.getKey());
+                    print(sink, value, pretty, depth + 1);
+                    if(iterator.hasNext()) {
+                        sink.write(',');
+                        newline(sink, depth + 1, pretty);
+                    }
+                }
+            }
+            newline(sink, depth, pretty);
+            sink.write('}');
+            break;
+        case array:
+            JsonArray array = json.asArray();
+            if(compactArrayLength > 0 && printCompact(sink, array)) {
+                break;
+            }
+            sink.write('[');
+            newline(sink, depth + 1, pretty);
+            Iterator<JsonElement> elements = array.iterator();
+            while(elements.hasNext()) {
+                JsonElement value = elements.next();
+                // only objects are laid out over multiple lines
+                boolean nestedPretty = value.isObject();
+                print(sink, value, nestedPretty, depth + 1);
+                if(elements.hasNext()) {
+                    sink.write(',');
+                    newline(sink, depth + 1, nestedPretty);
+                }
+            }
+            newline(sink, depth, pretty);
+            sink.write(']');
+            break;
+        case string:
+        case bool:
+        case number:
+        case nullValue:
+            json.serialize(sink);
+            break;
+        default:
+            throw new IllegalArgumentException("unhandled type " + type);
+        }
+    }
+
+    private Iterator<Entry<String, JsonElement>> entries(JsonElement json) {
+        if(!sortKeys) {
+            return json.asObject().entrySet().iterator();
+        }
+        List<Entry<String, JsonElement>> entries = new ArrayList<>(json.asObject().entrySet());
+        entries.sort(Entry.comparingByKey());
+        return entries.iterator();
+    }
+
+    /**
+     * Writes an array of primitives on one line if it is short enough.
+     *
+     * @return true if the array was written
+     */
+    private boolean printCompact(ByteSink sink, JsonArray array) throws IOException {
+        for(JsonElement element : array) {
+            if(!element.isPrimitive()) {
+                return false;
+            }
+        }
+        ByteArraySink compact = ByteArraySink.recycled();
+        try {
+            array.serialize(compact);
+            if(compact.size() > compactArrayLength) {
+                return false;
+            }
+            compact.writeTo(sink);
+            return true;
+        } finally {
+            compact.release();
+        }
+    }
+
+    private void newline(ByteSink sink, int depth, boolean pretty) throws IOException {
+        if(pretty) {
+            int indent = depth * indentWidth;
+            int length = Math.min(indent, newline.length - 1);
+            sink.write(newline, 0, 1 + length);
+            indent -= length;
+            while(indent > 0) {
+                length = Math.min(indent, newline.length - 1);
+                sink.write(newline, 1, length);
+                indent -= length;
+            }
+        }
+    }
+}
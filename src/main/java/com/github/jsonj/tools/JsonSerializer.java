@@ -21,23 +21,22 @@
  */
 package com.github.jsonj.tools;
 
+import com.github.jsonj.ByteArraySink;
+import com.github.jsonj.ByteSink;
 import com.github.jsonj.JsonElement;
-import com.github.jsonj.JsonType;
+import com.github.jsonj.KeyCache;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.Validate;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedOutputStream;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
-import java.util.Map.Entry;
 
 /**
  * Utility class to serialize Json.
@@ -57,6 +56,28 @@ public class JsonSerializer {
     public static final String QUOTE = "\"";
     public static final String COMMA = ",";
 
+    // what follows the backslash when escaping an ascii character, 'u' for a unicode escape, or 0 if it needs no escaping
+    private static final byte[] ESCAPES = new byte[128];
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // escaped keys; a key maps to itself if it needs no escaping
+    private static final KeyCache<String> ESCAPED_KEYS = new KeyCache<>(4096);
+    // the same for the utf-8 "key": fragments written to byte sinks
+    private static final KeyCache<byte[]> KEY_FRAGMENTS = new KeyCache<>(4096);
+
+    static {
+        for(int c = 0; c < 32; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
     private JsonSerializer() {
         // utility class, don't instantiate
     }
@@ -101,30 +122,59 @@ public class JsonSerializer {
      */
     @SuppressWarnings("null")
     public static @Nonnull String serialize(@Nonnull JsonElement json, boolean pretty) {
-        StringWriter sw = new StringWriter();
         if(pretty) {
-            try {
-                serialize(sw, json, pretty);
-            } catch (IOException e) {
-                throw new IllegalStateException("cannot serialize json to a string", e);
-            } finally {
-                try {
-                    sw.close();
-                } catch (IOException e) {
-                    throw new IllegalStateException("cannot serialize json to a string", e);
-                }
-            }
-            return sw.getBuffer().toString();
+            return JsonPrettyPrinter.DEFAULT.print(json);
         } else {
+            ByteArraySink sink = ByteArraySink.recycled();
             try {
-                json.serialize(sw);
-                return sw.getBuffer().toString();
+                json.serialize(sink);
+                return sink.toString();
             } catch (IOException e) {
                 throw new IllegalStateException("cannot serialize json to a string", e);
+            } finally {
+                sink.release();
             }
         }
     }
 
+    /**
+     * Serializes the json as utf-8 into an array.
+     *
+     * @param json
+     *            a {@link JsonElement}
+     * @param buffer
+     *            array to write to
+     * @param offset
+     *            where to start writing
+     * @return the number of bytes written
+     * @throws BufferOverflowException
+     *             if the json doesn't fit; the part that fits is written
+     */
+    public static int serializeTo(@Nonnull JsonElement json, @Nonnull byte[] buffer, int offset) {
+        return serializeTo(json, ByteBuffer.wrap(buffer, offset, buffer.length - offset));
+    }
+
+    /**
+     * Serializes the json as utf-8 into a buffer, starting at its position. The position is moved past the json.
+     *
+     * @param json
+     *            a {@link JsonElement}
+     * @param buffer
+     *            buffer to write to
+     * @return the number of bytes written
+     * @throws BufferOverflowException
+     *             if the json doesn't fit in the remaining part of the buffer; the part that fits is written
+     */
+    public static int serializeTo(@Nonnull JsonElement json, @Nonnull ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            json.serialize(ByteSink.of(buffer));
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot serialize json to a buffer", e);
+        }
+        return buffer.position() - start;
+    }
+
     /**
      * Writes the object out as json.
      *
@@ -138,12 +188,12 @@ public class JsonSerializer {
      *             if there is a problem writing to the writer
      */
     public static void serialize(@Nonnull  Writer out, @Nonnull  JsonElement json, boolean pretty) throws IOException {
-        BufferedWriter bw = new BufferedWriter(out);
-        serialize(bw, json, pretty, 0);
         if(pretty) {
-            bw.write('\n');
+            JsonPrettyPrinter.DEFAULT.print(json, out);
+        } else {
+            json.serialize(out);
+            out.flush();
         }
-        bw.flush();
     }
 
     /**
@@ -160,80 +210,12 @@ public class JsonSerializer {
      */
     public static void serialize(OutputStream out, @Nonnull  JsonElement json, boolean pretty) throws IOException {
         Validate.notNull(out);
-        BufferedOutputStream bufferedOut = new BufferedOutputStream(out);
-        OutputStreamWriter w = new OutputStreamWriter(bufferedOut, UTF8);
         if(pretty) {
-            serialize(w, json, pretty);
+            JsonPrettyPrinter.DEFAULT.print(json, out);
         } else {
-            json.serialize(w);
-            // subtle bug where not flushing this results in empty string when serializing to a ByteArrayOutputStream
-            w.flush();
-            bufferedOut.flush();
-        }
-    }
-
-    private static void serialize(@Nonnull  BufferedWriter bw,  JsonElement json, boolean pretty, int indent) throws IOException {
-        if(json==null) {
-            return;
-        }
-        JsonType type = json.type();
-        switch (type) {
-        case object:
-            bw.write('{');
-            newline(bw, indent+1, pretty);
-            Iterator<Entry<String, JsonElement>> iterator = json.asObject().entrySet().iterator();
-            while (iterator.hasNext()) {
-                Entry<String, JsonElement> entry = iterator.next();
-                String key = entry.getKey();
-                JsonElement value = entry.getValue();
-                if(value != null) {
-                    bw.write('"');
-                    bw.write(jsonEscape(key));
-                    bw.write("\":");
-                    serialize(bw,value,pretty,indent+1);
-                    if(iterator.hasNext()) {
-                        bw.write(',');
-                        newline(bw, indent+1, pretty);
-                    }
-                }
-            }
-            newline(bw, indent, pretty);
-            bw.write('}');
-            break;
-        case array:
-            bw.write('[');
-            newline(bw, indent+1, pretty);
-            Iterator<JsonElement> arrayIterator = json.asArray().iterator();
-            while (arrayIterator.hasNext()) {
-                JsonElement value = arrayIterator.next();
-                boolean nestedPretty=false;
-                if(value.isObject()) {
-                    nestedPretty=true;
-                }
-                serialize(bw,value,nestedPretty,indent+1);
-                if(arrayIterator.hasNext()) {
-                    bw.write(',');
-                    newline(bw, indent+1, nestedPretty);
-                }
-            }
-            newline(bw, indent, pretty);
-            bw.write(']');
-            break;
-        case string:
-            bw.write(json.toString());
-            break;
-        case bool:
-            bw.write(json.toString());
-            break;
-        case number:
-            bw.write(json.toString());
-            break;
-        case nullValue:
-            bw.write(json.toString());
-            break;
-
-        default:
-            throw new IllegalArgumentException("unhandled type " + type);
+            ByteSink sink = ByteSink.of(out);
+            json.serialize(sink);
+            sink.flush();
         }
     }
 
@@ -333,10 +315,248 @@ public class JsonSerializer {
         return buf.toString();
     }
 
+    /**
+     * Same as {@link #jsonEscape(String)} but for object keys: the result is cached, so escaping the same keys over and
+     * over again costs a lookup. Keys that need no escaping are returned as is.
+     *
+     * @param key
+     *            an object key
+     * @return the json escaped key
+     */
+    public static String escapeKey(String key) {
+        return ESCAPED_KEYS.get(key, k -> needsEscaping(k) ? jsonEscape(k) : k);
+    }
+
+    /**
+     * Writes an object key as a quoted, escaped utf-8 key followed by a colon. The bytes for each key are cached, so
+     * this is a single copy for keys that were written before.
+     *
+     * @param sink
+     *            sink to write to
+     * @param key
+     *            an object key
+     * @throws IOException
+     *             if there is a problem writing to the sink
+     */
+    public static void writeKey(@Nonnull ByteSink sink, @Nonnull String key) throws IOException {
+        byte[] fragment = keyFragment(key);
+        sink.write(fragment, 0, fragment.length);
+    }
+
+    /**
+     * @return the utf-8 bytes that {@link #writeKey(ByteSink, String)} writes; shared, so don't modify them
+     */
+    private static byte[] keyFragment(String key) {
+        return KEY_FRAGMENTS.get(key, k -> {
+            ByteArraySink sink = new ByteArraySink(k.length() + 3);
+            sink.write('"');
+            try {
+                writeEscaped(sink, k);
+            } catch (IOException e) {
+                // the sink doesn't throw
+                throw new IllegalStateException(e);
+            }
+            sink.write('"');
+            sink.write(':');
+            return sink.toByteArray();
+        });
+    }
+
+    /**
+     * @param raw
+     *            any string
+     * @return true if {@link #jsonEscape(String)} would change the string
+     */
+    public static boolean needsEscaping(String raw) {
+        for(int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if(c < 0x80 ? ESCAPES[c] != 0 : Character.isSurrogate(c) || c >= 0xFFFE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param utf8
+     *            utf-8 text
+     * @return true if {@link #writeEscaped(ByteSink, byte[])} would write anything other than the bytes themselves
+     */
+    public static boolean needsEscaping(@Nonnull byte[] utf8) {
+        int i = 0;
+        while(i < utf8.length) {
+            byte b = utf8[i];
+            if(b >= 0) {
+                if(ESCAPES[b] != 0) {
+                    return true;
+                }
+                i++;
+            } else {
+                int n = utf8SequenceLength(utf8, i);
+                if(n != 2 && (n != 3 || isNonCharacter(utf8, i))) {
+                    return true;
+                }
+                i += n;
+            }
+        }
+        return false;
+    }
+
     private static String hex(char ch) {
         return Integer.toHexString(ch).toUpperCase(Locale.ENGLISH);
     }
 
+    /**
+     * Writes utf-8 text with the same escaping as {@link #jsonEscape(String)}, without decoding it. Runs of bytes that
+     * need no escaping are copied to the sink in one go.
+     *
+     * @param sink
+     *            sink to write to
+     * @param utf8
+     *            utf-8 text, e.g. the bytes of a string primitive
+     * @throws IOException
+     *             if there is a problem writing to the sink
+     */
+    public static void writeEscaped(@Nonnull ByteSink sink, @Nonnull byte[] utf8) throws IOException {
+        int length = utf8.length;
+        int run = 0;
+        int i = 0;
+        while(i < length) {
+            byte b = utf8[i];
+            if(b >= 0) {
+                if(ESCAPES[b] == 0) {
+                    i++;
+                    continue;
+                }
+                sink.write(utf8, run, i - run);
+                writeEscape(sink, b);
+            } else {
+                int n = utf8SequenceLength(utf8, i);
+                if(n == 2 || n == 3 && !isNonCharacter(utf8, i)) {
+                    i += n;
+                    continue;
+                }
+                sink.write(utf8, run, i - run);
+                if(n == 3) {
+                    writeUnicodeEscape(sink, (char) (0xFFFE | utf8[i + 2] & 1));
+                } else if(n == 4) {
+                    int codePoint = (utf8[i] & 0x07) << 18 | (utf8[i + 1] & 0x3F) << 12 | (utf8[i + 2] & 0x3F) << 6
+                            | utf8[i + 3] & 0x3F;
+                    writeUnicodeEscape(sink, Character.highSurrogate(codePoint));
+                    writeUnicodeEscape(sink, Character.lowSurrogate(codePoint));
+                } else {
+                    // not valid utf-8, so do whatever decoding the rest to a string does
+                    sink.write(jsonEscape(new String(utf8, i, length - i, UTF8)).getBytes(UTF8));
+                    return;
+                }
+                i += n - 1;
+            }
+            run = ++i;
+        }
+        sink.write(utf8, run, length - run);
+    }
+
+    /**
+     * Writes a string as utf-8 with the same escaping as {@link #jsonEscape(String)}.
+     *
+     * @param sink
+     *            sink to write to
+     * @param raw
+     *            any string
+     * @throws IOException
+     *             if there is a problem writing to the sink
+     */
+    public static void writeEscaped(@Nonnull ByteSink sink, @Nonnull String raw) throws IOException {
+        for(int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if(c < 0x80) {
+                if(ESCAPES[c] == 0) {
+                    sink.write(c);
+                } else {
+                    writeEscape(sink, c);
+                }
+            } else if(c < 0x800) {
+                sink.write(0xC0 | c >> 6);
+                sink.write(0x80 | c & 0x3F);
+            } else if(Character.isSurrogate(c) || c >= 0xFFFE) {
+                // not allowed in xml, see jsonEscape
+                writeUnicodeEscape(sink, c);
+            } else {
+                sink.write(0xE0 | c >> 12);
+                sink.write(0x80 | c >> 6 & 0x3F);
+                sink.write(0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private static void writeEscape(ByteSink sink, int c) throws IOException {
+        byte escape = ESCAPES[c];
+        if(escape == 'u') {
+            writeUnicodeEscape(sink, (char) c);
+        } else {
+            sink.write('\\');
+            sink.write(escape);
+        }
+    }
+
+    private static void writeUnicodeEscape(ByteSink sink, char c) throws IOException {
+        sink.write('\\');
+        sink.write('u');
+        sink.write(HEX_DIGITS[c >> 12]);
+        sink.write(HEX_DIGITS[c >> 8 & 0xF]);
+        sink.write(HEX_DIGITS[c >> 4 & 0xF]);
+        sink.write(HEX_DIGITS[c & 0xF]);
+    }
+
+    /**
+     * @return the length of the valid multi byte utf-8 sequence at i, or -1
+     */
+    private static int utf8SequenceLength(byte[] utf8, int i) {
+        int b = utf8[i] & 0xFF;
+        int n;
+        int min = 0x80;
+        int max = 0xBF;
+        if(b >= 0xC2 && b <= 0xDF) {
+            n = 2;
+        } else if(b >= 0xE0 && b <= 0xEF) {
+            n = 3;
+            if(b == 0xE0) {
+                min = 0xA0;
+            } else if(b == 0xED) {
+                max = 0x9F;
+            }
+        } else if(b >= 0xF0 && b <= 0xF4) {
+            n = 4;
+            if(b == 0xF0) {
+                min = 0x90;
+            } else if(b == 0xF4) {
+                max = 0x8F;
+            }
+        } else {
+            return -1;
+        }
+        if(i + n > utf8.length) {
+            return -1;
+        }
+        int second = utf8[i + 1] & 0xFF;
+        if(second < min || second > max) {
+            return -1;
+        }
+        for(int j = i + 2; j < i + n; j++) {
+            if((utf8[j] & 0xC0) != 0x80) {
+                return -1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return true for U+FFFE and U+FFFF, which are not allowed in xml
+     */
+    private static boolean isNonCharacter(byte[] utf8, int i) {
+        return utf8[i] == (byte) 0xEF && utf8[i + 1] == (byte) 0xBF && (utf8[i + 2] & 0xFE) == 0xBE;
+    }
+
     /**
      * @param escaped
      *            a json string that may contain escaped characters
@@ -383,13 +603,4 @@ public class JsonSerializer {
             return escaped;
         }
     }
-
-    private static void newline(final BufferedWriter bw, final int n, final boolean pretty) throws IOException {
-        if(pretty) {
-            bw.write('\n');
-            for(int i = 0; i < n; i++) {
-                bw.write('\t');
-            }
-        }
-    }
 }
@@ -0,0 +1,541 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPrimitive;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.SimpleIntMapJsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A parsed document stored in two arrays instead of a tree of elements, after the tape used by simdjson. Every value
+ * is one or two longs on the tape, with the type in the top byte:
+ * <ul>
+ * <li>objects and arrays have a start entry with the number of children and the index after the matching end entry,
+ * and an end entry pointing back at the start. Object children are a key followed by a value; objects with duplicate
+ * keys are flagged, so the last value wins like it does for the other parsers.</li>
+ * <li>strings and keys point into the payload, where a four byte length precedes the utf-8 bytes.</li>
+ * <li>longs and doubles are followed by an entry with the raw value.</li>
+ * <li>numbers that are too long for a long or a double point to their text in the payload.</li>
+ * <li>true, false and null are just the type.</li>
+ * </ul>
+ *
+ * Parsing allocates little more than the two arrays. Elements are only created when the document is navigated:
+ * {@link #root()} returns a read only {@link TapeObjectView} for objects, a {@link TapeArrayView} for arrays, and
+ * primitives for everything else. Numbers follow the rules of {@link JsonParser}, so {@link #materialize()} produces
+ * the same tree as parsing with the default settings.
+ *
+ * A tape is immutable and may be shared between threads.
+ */
+public final class JsonTape {
+    static final int OBJECT = '{';
+    static final int END_OBJECT = '}';
+    static final int ARRAY = '[';
+    static final int END_ARRAY = ']';
+    static final int STRING = '"';
+    static final int LONG = 'l';
+    static final int DOUBLE = 'd';
+    static final int BIG_INTEGER = 'I';
+    static final int BIG_DECIMAL = 'D';
+    static final int TRUE = 't';
+    static final int FALSE = 'f';
+    static final int NULL = 'n';
+
+    private static final int TYPE_SHIFT = 56;
+    private static final int COUNT_SHIFT = 32;
+    // counts are stored in 23 bits; containers with more children have to be counted
+    private static final int MAX_COUNT = 0x7FFFFF;
+    private static final long DUPLICATE_KEYS = 1L << 55;
+    // objects with up to this many keys are checked for duplicates by comparing all pairs of key hashes
+    private static final int MAX_PAIRWISE_KEYS = 32;
+
+    private final long[] tape;
+    private final byte[] payload;
+
+    private JsonTape(long[] tape, byte[] payload) {
+        this.tape = tape;
+        this.payload = payload;
+    }
+
+    /**
+     * @param json a json document
+     * @return the tape
+     * @throws JsonParseException if the json cannot be parsed
+     */
+    public static @Nonnull JsonTape parse(@Nonnull String json) {
+        byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+        return parse(utf8, 0, utf8.length);
+    }
+
+    /**
+     * @param utf8 a json document encoded as utf-8
+     * @return the tape
+     * @throws JsonParseException if the json cannot be parsed
+     */
+    public static @Nonnull JsonTape parse(@Nonnull byte[] utf8) {
+        return parse(utf8, 0, utf8.length);
+    }
+
+    /**
+     * @param utf8 buffer with a json document encoded as utf-8
+     * @param offset start of the document
+     * @param length length of the document
+     * @return the tape; it does not refer to the buffer
+     * @throws JsonParseException if the json cannot be parsed
+     */
+    public static @Nonnull JsonTape parse(@Nonnull byte[] utf8, int offset, int length) {
+        Builder builder = new Builder(length);
+        new Utf8JsonScanner(utf8, offset, length).parse(builder);
+        return builder.build();
+    }
+
+    /**
+     * @return a view of the document
+     */
+    public @Nonnull JsonElement root() {
+        return view(0);
+    }
+
+    /**
+     * @return a mutable tree with the content of the document, equal to what {@link JsonParser} returns for it
+     */
+    public @Nonnull JsonElement materialize() {
+        return materialize(0);
+    }
+
+    /**
+     * @param settings settings for the object implementation and the threshold for using a {@link MapBasedJsonObject}
+     * @return a mutable tree with the content of the document, equal to what {@link JsonParser} returns for it with
+     *         the same settings
+     */
+    public @Nonnull JsonElement materialize(@Nonnull JsonjSettings settings) {
+        return materialize(0, settings);
+    }
+
+    static int type(long entry) {
+        return (int) (entry >>> TYPE_SHIFT);
+    }
+
+    int type(int index) {
+        return type(tape[index]);
+    }
+
+    /**
+     * @return the index of the value after the one at index
+     */
+    int next(int index) {
+        switch (type(index)) {
+        case OBJECT:
+        case ARRAY:
+            return (int) tape[index];
+        case LONG:
+        case DOUBLE:
+            return index + 2;
+        default:
+            return index + 1;
+        }
+    }
+
+    /**
+     * @return true if the object at index has a key more than once; it has to be materialized to get put semantics
+     */
+    private boolean hasDuplicateKeys(int index) {
+        return (tape[index] & DUPLICATE_KEYS) != 0;
+    }
+
+    /**
+     * @return the number of entries in the object or the number of elements in the array at index, counting
+     *         duplicate keys
+     */
+    int count(int index) {
+        int count = (int) (tape[index] >>> COUNT_SHIFT) & MAX_COUNT;
+        if(count == MAX_COUNT) {
+            boolean object = type(index) == OBJECT;
+            int end = (int) tape[index] - 1;
+            count = 0;
+            for(int i = index + 1; i < end; i = next(object ? i + 1 : i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param object index of an object
+     * @param key utf-8 bytes of the key
+     * @return index of the value or -1
+     */
+    int find(int object, byte[] key) {
+        int end = (int) tape[object] - 1;
+        boolean last = hasDuplicateKeys(object);
+        int found = -1;
+        for(int i = object + 1; i < end; i = next(i + 1)) {
+            if(stringEquals(i, key)) {
+                found = i + 1;
+                if(!last) {
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean stringEquals(int index, byte[] utf8) {
+        int offset = (int) tape[index];
+        if(length(offset) != utf8.length) {
+            return false;
+        }
+        offset += 4;
+        for(int i = 0; i < utf8.length; i++) {
+            if(payload[offset + i] != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the string or key at index
+     */
+    String string(int index) {
+        int offset = (int) tape[index];
+        return new String(payload, offset + 4, length(offset), StandardCharsets.UTF_8);
+    }
+
+    private int length(int offset) {
+        return (payload[offset] & 0xFF) << 24 | (payload[offset + 1] & 0xFF) << 16 | (payload[offset + 2] & 0xFF) << 8
+                | payload[offset + 3] & 0xFF;
+    }
+
+    /**
+     * @return a view if the value at index is an object or an array, or the primitive
+     */
+    JsonElement view(int index) {
+        switch (type(index)) {
+        case OBJECT:
+            if(hasDuplicateKeys(index)) {
+                return materialize(index).immutableClone();
+            }
+            return new TapeObjectView(this, index);
+        case ARRAY:
+            return new TapeArrayView(this, index);
+        default:
+            return primitive(index);
+        }
+    }
+
+    JsonPrimitive primitive(int index) {
+        switch (type(index)) {
+        case STRING:
+            int offset = (int) tape[index];
+            return JsonPrimitive.fromUtf8(payload, offset + 4, length(offset));
+        case LONG:
+            return new JsonPrimitive(tape[index + 1]);
+        case DOUBLE:
+            return new JsonPrimitive(Double.longBitsToDouble(tape[index + 1]));
+        case BIG_INTEGER:
+            return new JsonPrimitive(new BigInteger(string(index)));
+        case BIG_DECIMAL:
+            return new JsonPrimitive(new BigDecimal(string(index)));
+        case TRUE:
+            return new JsonPrimitive(true);
+        case FALSE:
+            return new JsonPrimitive(false);
+        case NULL:
+            return JsonPrimitive.JSON_NULL;
+        default:
+            throw new IllegalStateException("no value at " + index);
+        }
+    }
+
+    JsonElement materialize(int index) {
+        return materialize(index, JsonParser.DEFAULT_SETTINGS);
+    }
+
+    private JsonElement materialize(int index, JsonjSettings settings) {
+        int end = (int) tape[index] - 1;
+        switch (type(index)) {
+        case OBJECT:
+            boolean duplicates = hasDuplicateKeys(index);
+            int threshold = settings.upgradeThresholdToMapBasedJsonObject();
+            JsonObject object;
+            if(!duplicates && count(index) > threshold) {
+                object = new MapBasedJsonObject();
+            } else {
+                object = settings.useEfficientStringBasedJsonObject() ? new SimpleIntMapJsonObject() : new JsonObject();
+            }
+            for(int i = index + 1; i < end; i = next(i + 1)) {
+                object.put(string(i), materialize(i + 1, settings));
+            }
+            if(duplicates && object.size() > threshold) {
+                return new MapBasedJsonObject(object);
+            }
+            return object;
+        case ARRAY:
+            JsonArray array = new JsonArray();
+            array.ensureCapacity(count(index));
+            for(int i = index + 1; i < end; i = next(i)) {
+                array.add(materialize(i, settings));
+            }
+            return array;
+        default:
+            return primitive(index);
+        }
+    }
+
+    /**
+     * Writes the value at index as json without creating elements for objects and arrays.
+     */
+    void serialize(int index, Writer w) throws IOException {
+        int type = type(index);
+        if(type == OBJECT && hasDuplicateKeys(index)) {
+            materialize(index).serialize(w);
+        } else if(type == OBJECT || type == ARRAY) {
+            boolean object = type == OBJECT;
+            int end = (int) tape[index] - 1;
+            w.append(object ? JsonSerializer.OPEN_BRACE : JsonSerializer.OPEN_BRACKET);
+            for(int i = index + 1; i < end; i = next(i)) {
+                if(i > index + 1) {
+                    w.append(JsonSerializer.COMMA);
+                }
+                if(object) {
+                    w.append(JsonSerializer.QUOTE);
+                    w.append(JsonSerializer.escapeKey(string(i)));
+                    w.append(JsonSerializer.QUOTE);
+                    w.append(JsonSerializer.COLON);
+                    i++;
+                }
+                serialize(i, w);
+            }
+            w.append(object ? JsonSerializer.CLOSE_BRACE : JsonSerializer.CLOSE_BRACKET);
+        } else {
+            primitive(index).serialize(w);
+        }
+    }
+
+    private static final class Builder implements Utf8JsonScanner.Handler {
+        private long[] tape;
+        private int size;
+        private byte[] payload;
+        private int payloadSize;
+
+        // indexes of the start entries of the open containers and their child counts
+        private int[] open = new int[16];
+        private int[] counts = new int[16];
+        private int depth;
+
+        // hashes and tape indexes of the keys of the open objects, to find duplicates
+        private int[] keyHashes = new int[16];
+        private int[] keyIndexes = new int[16];
+        private int keys;
+        private long[] sortedKeys = new long[0];
+
+        Builder(int inputLength) {
+            // a rough guess: values take a few bytes of input each, strings need their bytes plus a length
+            tape = new long[Math.max(16, inputLength / 4)];
+            payload = new byte[Math.max(16, inputLength)];
+        }
+
+        JsonTape build() {
+            return new JsonTape(Arrays.copyOf(tape, size), Arrays.copyOf(payload, payloadSize));
+        }
+
+        private void add(long entry) {
+            if(size == tape.length) {
+                tape = Arrays.copyOf(tape, size * 2);
+            }
+            tape[size++] = entry;
+        }
+
+        private void add(int type, long value) {
+            add((long) type << TYPE_SHIFT | value);
+        }
+
+        /**
+         * Counts a value in its array; object entries are counted by their key.
+         */
+        private void value() {
+            if(depth > 0 && type(tape[open[depth - 1]]) == ARRAY) {
+                counts[depth - 1]++;
+            }
+        }
+
+        private void start(int type) {
+            value();
+            if(depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+                counts = Arrays.copyOf(counts, depth * 2);
+            }
+            open[depth] = size;
+            counts[depth++] = 0;
+            // filled in by end
+            add(type, 0);
+        }
+
+        private void end(int type) {
+            int start = open[--depth];
+            add(type, start);
+            long count = Math.min(counts[depth], MAX_COUNT);
+            long entry = (long) type(tape[start]) << TYPE_SHIFT | count << COUNT_SHIFT | size;
+            if(type == END_OBJECT) {
+                // the keys of nested objects were removed when they ended, so the last keys belong to this object
+                int first = keys - counts[depth];
+                if(duplicateKeys(first)) {
+                    entry |= DUPLICATE_KEYS;
+                }
+                keys = first;
+            }
+            tape[start] = entry;
+        }
+
+        private boolean duplicateKeys(int first) {
+            int n = keys - first;
+            if(n <= MAX_PAIRWISE_KEYS) {
+                for(int i = first; i < keys; i++) {
+                    for(int j = i + 1; j < keys; j++) {
+                        if(keyHashes[i] == keyHashes[j] && keysEqual(keyIndexes[i], keyIndexes[j])) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            // sort by hash and compare the keys within runs of equal hashes
+            if(sortedKeys.length < n) {
+                sortedKeys = new long[Math.max(n, sortedKeys.length * 2)];
+            }
+            for(int i = 0; i < n; i++) {
+                sortedKeys[i] = (long) keyHashes[first + i] << 32 | i;
+            }
+            Arrays.sort(sortedKeys, 0, n);
+            for(int i = 0; i < n; i++) {
+                for(int j = i + 1; j < n && sortedKeys[j] >>> 32 == sortedKeys[i] >>> 32; j++) {
+                    if(keysEqual(keyIndexes[first + (int) sortedKeys[i]], keyIndexes[first + (int) sortedKeys[j]])) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean keysEqual(int left, int right) {
+            int leftOffset = (int) tape[left];
+            int rightOffset = (int) tape[right];
+            for(int i = 0; i < 4; i++) {
+                if(payload[leftOffset + i] != payload[rightOffset + i]) {
+                    return false;
+                }
+            }
+            int length = (payload[leftOffset] & 0xFF) << 24 | (payload[leftOffset + 1] & 0xFF) << 16
+                    | (payload[leftOffset + 2] & 0xFF) << 8 | payload[leftOffset + 3] & 0xFF;
+            for(int i = 4; i < length + 4; i++) {
+                if(payload[leftOffset + i] != payload[rightOffset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void addPayload(int type, byte[] bytes, int offset, int length) {
+            if(payloadSize + length + 4 > payload.length) {
+                payload = Arrays.copyOf(payload, Math.max(payload.length * 2, payloadSize + length + 4));
+            }
+            add(type, payloadSize);
+            payload[payloadSize++] = (byte) (length >>> 24);
+            payload[payloadSize++] = (byte) (length >>> 16);
+            payload[payloadSize++] = (byte) (length >>> 8);
+            payload[payloadSize++] = (byte) length;
+            System.arraycopy(bytes, offset, payload, payloadSize, length);
+            payloadSize += length;
+        }
+
+        @Override
+        public void startObject() {
+            start(OBJECT);
+        }
+
+        @Override
+        public void endObject() {
+            end(END_OBJECT);
+        }
+
+        @Override
+        public void startArray() {
+            start(ARRAY);
+        }
+
+        @Override
+        public void endArray() {
+            end(END_ARRAY);
+        }
+
+        @Override
+        public void key(byte[] utf8, int offset, int length) {
+            counts[depth - 1]++;
+            if(keys == keyHashes.length) {
+                keyHashes = Arrays.copyOf(keyHashes, keys * 2);
+                keyIndexes = Arrays.copyOf(keyIndexes, keys * 2);
+            }
+            int hash = 0;
+            for(int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + utf8[i];
+            }
+            keyHashes[keys] = hash;
+            keyIndexes[keys++] = size;
+            addPayload(STRING, utf8, offset, length);
+        }
+
+        @Override
+        public void string(byte[] utf8, int offset, int length) {
+            value();
+            addPayload(STRING, utf8, offset, length);
+        }
+
+        @Override
+        public void longValue(long value) {
+            value();
+            add(LONG, 0);
+            add(value);
+        }
+
+        @Override
+        public void doubleValue(double value) {
+            value();
+            add(DOUBLE, 0);
+            add(Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public void bigInteger(byte[] text, int offset, int length) {
+            value();
+            addPayload(BIG_INTEGER, text, offset, length);
+        }
+
+        @Override
+        public void bigDecimal(byte[] text, int offset, int length) {
+            value();
+            addPayload(BIG_DECIMAL, text, offset, length);
+        }
+
+        @Override
+        public void booleanValue(boolean value) {
+            value();
+            add(value ? TRUE : FALSE, 0);
+        }
+
+        @Override
+        public void nullValue() {
+            value();
+            add(NULL, 0);
+        }
+    }
+}
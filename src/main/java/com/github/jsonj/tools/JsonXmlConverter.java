@@ -27,7 +27,6 @@ import com.github.jsonj.JsonObject;
 import com.github.jsonj.JsonPrimitive;
 import nu.xom.Document;
 import nu.xom.Element;
-import nu.xom.IllegalNameException;
 import nu.xom.converters.DOMConverter;
 import org.w3c.dom.DOMImplementation;
 
@@ -50,7 +49,8 @@ import java.util.Map.Entry;
  * 
  * This class uses an optional maven dependency xom. If you want to use the
  * functionality in this class, you will need to add this dependency to your own
- * project.
+ * project. {@link JsonXmlWriter} streams the same xml without building a tree and
+ * without needing xom.
  * 
  */
 public class JsonXmlConverter {
@@ -61,12 +61,7 @@ public class JsonXmlConverter {
 
     private static void append(Element e, JsonObject o) {
         for(Entry<String, JsonElement> entry:o.entrySet()) {
-            Element child;
-            try {
-                child = new Element(entry.getKey());
-            } catch (IllegalNameException exc1) {
-                child = new Element("_" + entry.getKey());
-            }
+            Element child = new Element(JsonXmlWriter.tagName(entry.getKey()));
             JsonElement value = entry.getValue();
             if(value.isArray()) {
                 append(child, value.asArray());
@@ -0,0 +1,218 @@
+package com.github.jsonj.tools;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.KeyCache;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.BitSet;
+import java.util.Map.Entry;
+
+/**
+ * Streams json as xml to a StAX {@link XMLStreamWriter}, either from a json element or straight from the tokens of a
+ * jackson parser, so no tree is built. The xml is the same as that of {@link JsonXmlConverter}, but unlike that class
+ * this one does not need xom.
+ */
+public class JsonXmlWriter {
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+    // tag names for keys
+    private static final KeyCache<String> TAG_NAMES = new KeyCache<>(4096);
+
+    /**
+     * Writes any JsonElement as xml with a root tag of &lt;root&gt;, see {@link #write(JsonElement, String, OutputStream)}.
+     *
+     * @param value
+     *            a json element
+     * @param out
+     *            stream to write utf-8 xml to; it is flushed but not closed
+     * @throws IOException
+     *             if the xml can't be written
+     */
+    public static void write(JsonElement value, OutputStream out) throws IOException {
+        write(value, "root", out);
+    }
+
+    /**
+     * Writes any JsonElement as an xml document, without building a DOM tree first.
+     *
+     * @param value
+     *            a json element
+     * @param rootName
+     *            the root name of the xml
+     * @param out
+     *            stream to write utf-8 xml to; it is flushed but not closed
+     * @throws IOException
+     *             if the xml can't be written
+     */
+    public static void write(JsonElement value, String rootName, OutputStream out) throws IOException {
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            write(value, rootName, writer);
+            writer.writeEndDocument();
+            // closing the writer does not close the stream
+            writer.close();
+            out.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("cannot write xml", e);
+        }
+    }
+
+    /**
+     * Writes any JsonElement as an element to a StAX writer, which makes it possible to embed it in a bigger document.
+     *
+     * @param value
+     *            a json element
+     * @param rootName
+     *            the name of the element
+     * @param writer
+     *            writer
+     * @throws XMLStreamException
+     *             if the xml can't be written
+     */
+    public static void write(JsonElement value, String rootName, XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(rootName);
+        writeContent(value, writer);
+        writer.writeEndElement();
+    }
+
+    private static void writeContent(JsonElement value, XMLStreamWriter writer) throws XMLStreamException {
+        if(value.isObject()) {
+            for(Entry<String, JsonElement> entry : value.asObject().entrySet()) {
+                writer.writeStartElement(tagName(entry.getKey()));
+                writeContent(entry.getValue(), writer);
+                writer.writeEndElement();
+            }
+        } else if(value.isArray()) {
+            writer.writeStartElement("ol");
+            for(JsonElement element : value.asArray()) {
+                writer.writeStartElement("li");
+                writeContent(element, writer);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        } else {
+            writer.writeCharacters(value.asString());
+        }
+    }
+
+    /**
+     * Converts json to xml token by token, so memory use does not depend on the size of the input. The xml is the same
+     * as for the json element the parser would produce, except that numbers are written as they appear in the input.
+     *
+     * @param parser
+     *            a jackson parser positioned before the value to convert; it reads a single value
+     * @param rootName
+     *            the name of the element
+     * @param writer
+     *            writer
+     * @throws IOException
+     *             if the json can't be read
+     * @throws XMLStreamException
+     *             if the xml can't be written
+     */
+    public static void write(com.fasterxml.jackson.core.JsonParser parser, String rootName, XMLStreamWriter writer) throws IOException, XMLStreamException {
+        // set bits mark the nesting levels that are arrays
+        BitSet arrays = new BitSet();
+        int depth = 0;
+        writer.writeStartElement(rootName);
+        JsonToken token = parser.nextToken();
+        while(token != null) {
+            if(token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.FIELD_NAME && depth > 0 && arrays.get(depth)) {
+                writer.writeStartElement("li");
+            }
+            switch(token) {
+            case START_OBJECT:
+                arrays.clear(++depth);
+                break;
+            case START_ARRAY:
+                writer.writeStartElement("ol");
+                arrays.set(++depth);
+                break;
+            case END_ARRAY:
+                writer.writeEndElement();
+                depth--;
+                break;
+            case END_OBJECT:
+                depth--;
+                break;
+            case FIELD_NAME:
+                writer.writeStartElement(tagName(parser.getCurrentName()));
+                break;
+            case VALUE_NULL:
+                break;
+            default:
+                writer.writeCharacters(parser.getText());
+                break;
+            }
+            if(token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY && token != JsonToken.FIELD_NAME) {
+                if(depth == 0) {
+                    // done with the value
+                    break;
+                }
+                // close the li or the field element around the value
+                writer.writeEndElement();
+            }
+            token = parser.nextToken();
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * @return the key if it is a valid tag name, otherwise the key prepended with an underscore if that is valid or
+     *         else the key with invalid characters replaced by underscores
+     */
+    static String tagName(String key) {
+        return TAG_NAMES.get(key, k -> {
+            if(isName(k)) {
+                return k;
+            } else if(isName("_" + k)) {
+                return "_" + k;
+            } else {
+                StringBuilder buf = new StringBuilder(k.length() + 1).append('_');
+                for(int i = 0; i < k.length();) {
+                    int c = k.codePointAt(i);
+                    if(isNameChar(c)) {
+                        buf.appendCodePoint(c);
+                    } else {
+                        buf.append('_');
+                    }
+                    i += Character.charCount(c);
+                }
+                return buf.toString();
+            }
+        });
+    }
+
+    private static boolean isName(String name) {
+        if(name.isEmpty()) {
+            return false;
+        }
+        for(int i = 0; i < name.length();) {
+            int c = name.codePointAt(i);
+            if(i == 0 ? !isNameStartChar(c) : !isNameChar(c)) {
+                return false;
+            }
+            i += Character.charCount(c);
+        }
+        return true;
+    }
+
+    // xml 1.0 names without colons, which would need a namespace; a surrogate pair is a single code point, so an
+    // unpaired surrogate is never part of a name
+    private static boolean isNameStartChar(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c >= 0xc0 && c <= 0xd6 || c >= 0xd8 && c <= 0xf6
+                || c >= 0xf8 && c <= 0x2ff || c >= 0x370 && c <= 0x37d || c >= 0x37f && c <= 0x1fff || c == 0x200c || c == 0x200d
+                || c >= 0x2070 && c <= 0x218f || c >= 0x2c00 && c <= 0x2fef || c >= 0x3001 && c <= 0xd7ff
+                || c >= 0xf900 && c <= 0xfdcf || c >= 0xfdf0 && c <= 0xfffd || c >= 0x10000 && c <= 0xeffff;
+    }
+
+    private static boolean isNameChar(int c) {
+        return isNameStartChar(c) || c >= '0' && c <= '9' || c == '-' || c == '.' || c == 0xb7 || c >= 0x300 && c <= 0x36f
+                || c == 0x203f || c == 0x2040;
+    }
+}
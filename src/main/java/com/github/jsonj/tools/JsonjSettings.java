@@ -14,4 +14,11 @@ interface JsonjSettings {
     default int upgradeThresholdToMapBasedJsonObject() {
         return 100;
     }
+
+    /**
+     * @return true if the parser should scan utf-8 bytes itself instead of using jackson, see {@link FastJsonParser}
+     */
+    default boolean useFastParser() {
+        return false;
+    }
 }
\ No newline at end of file
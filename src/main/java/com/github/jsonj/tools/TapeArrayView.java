@@ -0,0 +1,285 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read only array on a {@link JsonTape}, see {@link JsonTape#root()}. Like {@link TapeObjectView}, elements are created
+ * when they are asked for: nested objects and arrays as views and primitives from the tape. Iterating walks the tape;
+ * the first lookup by index records where the elements start so that later lookups don't have to.
+ *
+ * Views can be used wherever a JsonArray is accepted, but all modifications throw an {@link IllegalStateException}.
+ * Use {@link #materialize()} or {@link #deepClone()} for a mutable copy. Views may be read from multiple threads.
+ */
+public final class TapeArrayView extends JsonArray {
+    private static final long serialVersionUID = 1L;
+
+    private final JsonTape tape;
+    private final int start;
+    private final int count;
+    // tape index of every element, filled on the first lookup by index
+    private volatile int[] elements;
+
+    TapeArrayView(JsonTape tape, int start) {
+        this.tape = tape;
+        this.start = start;
+        count = tape.count(start);
+    }
+
+    /**
+     * @return a mutable copy of the array
+     */
+    public @Nonnull JsonArray materialize() {
+        return tape.materialize(start).asArray();
+    }
+
+    private int[] elements() {
+        int[] result = elements;
+        if(result == null) {
+            result = new int[count];
+            int index = start + 1;
+            for(int i = 0; i < count; i++) {
+                result[i] = index;
+                index = tape.next(index);
+            }
+            elements = result;
+        }
+        return result;
+    }
+
+    @Override
+    public JsonElement get(int index) {
+        if(index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return tape.view(elements()[index]);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public @Nonnull Iterator<JsonElement> iterator() {
+        return new Iterator<JsonElement>() {
+            private final int end = tape.next(start) - 1;
+            private int index = start + 1;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public JsonElement next() {
+                if(index >= end) {
+                    throw new NoSuchElementException();
+                }
+                int element = index;
+                index = tape.next(element);
+                return tape.view(element);
+            }
+
+            @Override
+            public void remove() {
+                throw new IllegalStateException("object is immutable");
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super JsonElement> action) {
+        for(JsonElement element : this) {
+            action.accept(element);
+        }
+    }
+
+    @Override
+    public Spliterator<JsonElement> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int i = 0;
+        for(JsonElement element : this) {
+            if(element.equals(o)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for(int i = count - 1; i >= 0; i--) {
+            if(get(i).equals(o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[count];
+        int i = 0;
+        for(JsonElement element : this) {
+            result[i++] = element;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T[] toArray(T[] a) {
+        Object[] result = toArray();
+        if(a.length < count) {
+            return (T[]) Arrays.copyOf(result, count, a.getClass());
+        }
+        System.arraycopy(result, 0, a, 0, count);
+        if(a.length > count) {
+            a[count] = null;
+        }
+        return a;
+    }
+
+    @Override
+    public void serialize(Writer w) throws IOException {
+        tape.serialize(start, w);
+    }
+
+    @Override
+    public boolean add(JsonElement e) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void add(int index, JsonElement element) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean addAll(@SuppressWarnings("rawtypes") Collection c) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends JsonElement> c) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public JsonElement set(int index, JsonElement element) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public JsonElement remove(int index) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super JsonElement> filter) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<JsonElement> operator) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void sort(Comparator<? super JsonElement> c) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void clear() {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void removeEmpty() {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public ListIterator<JsonElement> listIterator() {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public ListIterator<JsonElement> listIterator(int index) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public @Nonnull JsonArray immutableClone() {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public @Nonnull JsonArray deepClone() {
+        return materialize();
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    // used by java serialization; views depend on the tape, so they are serialized as normal arrays
+    private Object writeReplace() {
+        return materialize();
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read only object that answers lookups from a {@link JsonTape}, see {@link JsonTape#root()}. Nested objects are
+ * returned as views as well and primitives are created when they are asked for; lookups compare the utf-8 bytes of
+ * the keys on the tape and skip over the values.
+ *
+ * Views can be used wherever a JsonObject is accepted, but all modifications throw an {@link IllegalStateException}.
+ * Use {@link #materialize()} or {@link #deepClone()} for a mutable copy. Views may be read from multiple threads.
+ */
+public final class TapeObjectView extends JsonObject {
+    private static final long serialVersionUID = 1L;
+
+    private final JsonTape tape;
+    private final int start;
+    private final int count;
+
+    TapeObjectView(JsonTape tape, int start) {
+        this.tape = tape;
+        this.start = start;
+        count = tape.count(start);
+    }
+
+    /**
+     * @return a mutable copy of the object
+     */
+    public @Nonnull JsonObject materialize() {
+        return tape.materialize(start).asObject();
+    }
+
+    @Override
+    public JsonElement get(Object key) {
+        if(!(key instanceof String)) {
+            throw new IllegalArgumentException();
+        }
+        int index = tape.find(start, utf8(key));
+        return index < 0 ? null : tape.view(index);
+    }
+
+    @Override
+    public JsonElement get(String... labels) {
+        if(labels.length == 0) {
+            return null;
+        }
+        // follow the path on the tape, so only the value at the end gets a view
+        int index = start;
+        for(String label : labels) {
+            if(tape.type(index) != JsonTape.OBJECT) {
+                return null;
+            }
+            index = tape.find(index, utf8(label));
+            if(index < 0) {
+                return null;
+            }
+        }
+        return tape.view(index);
+    }
+
+    private static byte[] utf8(Object key) {
+        return key.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && tape.find(start, utf8(key)) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public Set<Entry<String, JsonElement>> entrySet() {
+        return new AbstractSet<Entry<String, JsonElement>>() {
+            @Override
+            public Iterator<Entry<String, JsonElement>> iterator() {
+                return new EntryIterator<Entry<String, JsonElement>>() {
+                    @Override
+                    Entry<String, JsonElement> entry(int key) {
+                        return new SimpleImmutableEntry<>(tape.string(key), tape.view(key + 1));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new EntryIterator<String>() {
+                    @Override
+                    String entry(int key) {
+                        return tape.string(key);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public @Nonnull Collection<JsonElement> values() {
+        return new AbstractCollection<JsonElement>() {
+            @Override
+            public Iterator<JsonElement> iterator() {
+                return new EntryIterator<JsonElement>() {
+                    @Override
+                    JsonElement entry(int key) {
+                        return tape.view(key + 1);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return values().contains(value);
+    }
+
+    @Override
+    public void serialize(Writer w) throws IOException {
+        tape.serialize(start, w);
+    }
+
+    @Override
+    public JsonElement put(String key, JsonElement value) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public JsonElement remove(Object key) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void clear() {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends JsonElement> m) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public JsonObject immutableClone() {
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public JsonObject deepClone() {
+        return materialize();
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) {
+        throw new IllegalStateException("object is immutable");
+    }
+
+    // used by java serialization; views depend on the tape, so they are serialized as normal objects
+    private Object writeReplace() {
+        return materialize();
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private final int end = tape.next(start) - 1;
+        private int index = start + 1;
+
+        /**
+         * @param key index of the key; the value follows it
+         */
+        abstract T entry(int key);
+
+        @Override
+        public boolean hasNext() {
+            return index < end;
+        }
+
+        @Override
+        public T next() {
+            if(index >= end) {
+                throw new NoSuchElementException();
+            }
+            int key = index;
+            index = tape.next(key + 1);
+            return entry(key);
+        }
+    }
+}
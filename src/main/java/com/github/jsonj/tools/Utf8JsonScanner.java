@@ -0,0 +1,539 @@
+package com.github.jsonj.tools;
+
+import com.github.jsonj.exceptions.JsonParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Strict json scanner that works on utf-8 bytes and reports what it finds to a {@link Handler}. Strings are handed
+ * over as utf-8 with the escapes resolved, pointing into the input whenever the string has no escapes, so nothing is
+ * decoded to chars. Numbers follow the same rules as the jackson based {@link JsonParser}: integers shorter than 19
+ * characters are longs, floats shorter than 8 characters are doubles, and longer numbers are passed on as text for a
+ * BigInteger or BigDecimal.
+ *
+ * Scanners are not thread safe; create one per document.
+ */
+class Utf8JsonScanner {
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    // powers of ten that are exact as a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Receives the content of a document in order.
+     */
+    interface Handler {
+        void startObject();
+
+        void endObject();
+
+        void startArray();
+
+        void endArray();
+
+        /**
+         * Field name of the next value; the bytes are only valid until the handler returns.
+         */
+        void key(byte[] utf8, int offset, int length);
+
+        /**
+         * The bytes are only valid until the handler returns.
+         */
+        void string(byte[] utf8, int offset, int length);
+
+        void longValue(long value);
+
+        void doubleValue(double value);
+
+        /**
+         * Integer that is too long for a long, as ascii text.
+         */
+        void bigInteger(byte[] text, int offset, int length);
+
+        /**
+         * Float that is too long for a double, as ascii text.
+         */
+        void bigDecimal(byte[] text, int offset, int length);
+
+        void booleanValue(boolean value);
+
+        void nullValue();
+    }
+
+    private final byte[] input;
+    private final int end;
+    private int pos;
+
+    private byte[] scratch = new byte[64];
+    private byte[] stringSource;
+    private int stringOffset;
+    private int stringLength;
+
+    private boolean[] objects = new boolean[16];
+
+    Utf8JsonScanner(byte[] input, int offset, int length) {
+        this.input = input;
+        pos = offset;
+        end = offset + length;
+        // skip the byte order mark
+        if(length >= 3 && input[pos] == (byte) 0xEF && input[pos + 1] == (byte) 0xBB && input[pos + 2] == (byte) 0xBF) {
+            pos += 3;
+        }
+    }
+
+    /**
+     * Scans a single document, which may be surrounded by whitespace.
+     *
+     * @throws JsonParseException if the input is not valid json
+     */
+    void parse(Handler handler) {
+        int depth = 0;
+        int c = skipWhitespace();
+        for(;;) {
+            // c is the first byte of a value
+            switch (c) {
+            case '{':
+                pos++;
+                handler.startObject();
+                c = skipWhitespace();
+                if(c == '}') {
+                    pos++;
+                    handler.endObject();
+                    break;
+                }
+                push(depth++, true);
+                c = key(handler, c);
+                continue;
+            case '[':
+                pos++;
+                handler.startArray();
+                c = skipWhitespace();
+                if(c == ']') {
+                    pos++;
+                    handler.endArray();
+                    break;
+                }
+                push(depth++, false);
+                continue;
+            case '"':
+                scanString();
+                handler.string(stringSource, stringOffset, stringLength);
+                break;
+            case 't':
+                literal(TRUE);
+                handler.booleanValue(true);
+                break;
+            case 'f':
+                literal(FALSE);
+                handler.booleanValue(false);
+                break;
+            case 'n':
+                literal(NULL);
+                handler.nullValue();
+                break;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                scanNumber(handler);
+                break;
+            default:
+                throw unexpected(c);
+            }
+            // a value is complete, move on to the next one or close containers
+            for(;;) {
+                c = skipWhitespace();
+                if(depth == 0) {
+                    if(c != -1) {
+                        throw error("unexpected content after the document");
+                    }
+                    return;
+                }
+                boolean object = objects[depth - 1];
+                if(c == ',') {
+                    pos++;
+                    c = skipWhitespace();
+                    if(object) {
+                        c = key(handler, c);
+                    }
+                    break;
+                } else if(c == (object ? '}' : ']')) {
+                    pos++;
+                    depth--;
+                    if(object) {
+                        handler.endObject();
+                    } else {
+                        handler.endArray();
+                    }
+                } else {
+                    throw c == -1 ? unexpected(c) : error("expected ',' or '" + (object ? '}' : ']') + "'");
+                }
+            }
+        }
+    }
+
+    private void push(int depth, boolean object) {
+        if(depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+        }
+        objects[depth] = object;
+    }
+
+    /**
+     * Scans a field name and the colon after it.
+     *
+     * @return the first byte of the value
+     */
+    private int key(Handler handler, int c) {
+        if(c != '"') {
+            throw c == -1 ? unexpected(c) : error("expected a field name");
+        }
+        scanString();
+        handler.key(stringSource, stringOffset, stringLength);
+        if(skipWhitespace() != ':') {
+            throw error("expected ':'");
+        }
+        pos++;
+        return skipWhitespace();
+    }
+
+    /**
+     * @return the next byte that is not whitespace, without consuming it, or -1 at the end of the input
+     */
+    private int skipWhitespace() {
+        while(pos < end) {
+            byte b = input[pos];
+            if(b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                pos++;
+            } else {
+                return b & 0xFF;
+            }
+        }
+        return -1;
+    }
+
+    private void literal(byte[] literal) {
+        if(end - pos < literal.length) {
+            throw error("unrecognized token");
+        }
+        for(int i = 0; i < literal.length; i++) {
+            if(input[pos + i] != literal[i]) {
+                throw error("unrecognized token");
+            }
+        }
+        pos += literal.length;
+    }
+
+    /**
+     * Scans the string at pos; the result is in stringSource, stringOffset and stringLength.
+     */
+    private void scanString() {
+        int start = ++pos;
+        while(pos < end) {
+            byte b = input[pos];
+            if(b == '"') {
+                stringSource = input;
+                stringOffset = start;
+                stringLength = pos++ - start;
+                return;
+            } else if(b == '\\') {
+                scanEscapedString(start);
+                return;
+            } else if(b >= 0 && b < 0x20) {
+                throw error("unescaped control character in string");
+            } else if(b < 0) {
+                pos += utf8Sequence(pos);
+            } else {
+                pos++;
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    /**
+     * Continues a string with escapes in the scratch buffer; everything from start to pos is plain utf-8.
+     */
+    private void scanEscapedString(int start) {
+        int length = pos - start;
+        ensureScratch(length, length + 16);
+        System.arraycopy(input, start, scratch, 0, length);
+        while(pos < end) {
+            byte b = input[pos];
+            if(b == '"') {
+                pos++;
+                stringSource = scratch;
+                stringOffset = 0;
+                stringLength = length;
+                return;
+            }
+            ensureScratch(length, 4);
+            if(b == '\\') {
+                if(++pos >= end) {
+                    break;
+                }
+                byte escaped = input[pos++];
+                switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    scratch[length++] = escaped;
+                    break;
+                case 'b':
+                    scratch[length++] = '\b';
+                    break;
+                case 'f':
+                    scratch[length++] = '\f';
+                    break;
+                case 'n':
+                    scratch[length++] = '\n';
+                    break;
+                case 'r':
+                    scratch[length++] = '\r';
+                    break;
+                case 't':
+                    scratch[length++] = '\t';
+                    break;
+                case 'u':
+                    length = appendCodePoint(length, unicodeEscape());
+                    break;
+                default:
+                    throw error("unrecognized escape '\\" + (char) (escaped & 0xFF) + "'");
+                }
+            } else if(b >= 0 && b < 0x20) {
+                throw error("unescaped control character in string");
+            } else if(b < 0) {
+                int n = utf8Sequence(pos);
+                System.arraycopy(input, pos, scratch, length, n);
+                length += n;
+                pos += n;
+            } else {
+                scratch[length++] = b;
+                pos++;
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    /**
+     * Reads the hex digits of a \\u escape, combining surrogate pairs. Unpaired surrogates become '?', the same as
+     * encoding a java string with them to utf-8.
+     */
+    private int unicodeEscape() {
+        int c = hex4(pos);
+        pos += 4;
+        if(Character.isHighSurrogate((char) c) && pos + 6 <= end && input[pos] == '\\' && input[pos + 1] == 'u') {
+            int low = hex4(pos + 2);
+            if(Character.isLowSurrogate((char) low)) {
+                pos += 6;
+                return Character.toCodePoint((char) c, (char) low);
+            }
+        }
+        return Character.isSurrogate((char) c) ? '?' : c;
+    }
+
+    private int hex4(int at) {
+        if(at + 4 > end) {
+            throw error("unterminated string");
+        }
+        int value = 0;
+        for(int i = at; i < at + 4; i++) {
+            int digit = Character.digit(input[i], 16);
+            if(digit < 0) {
+                throw error("invalid \\u escape");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private int appendCodePoint(int length, int cp) {
+        if(cp < 0x80) {
+            scratch[length++] = (byte) cp;
+        } else if(cp < 0x800) {
+            scratch[length++] = (byte) (0xC0 | cp >> 6);
+            scratch[length++] = (byte) (0x80 | cp & 0x3F);
+        } else if(cp < 0x10000) {
+            scratch[length++] = (byte) (0xE0 | cp >> 12);
+            scratch[length++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            scratch[length++] = (byte) (0x80 | cp & 0x3F);
+        } else {
+            scratch[length++] = (byte) (0xF0 | cp >> 18);
+            scratch[length++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            scratch[length++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            scratch[length++] = (byte) (0x80 | cp & 0x3F);
+        }
+        return length;
+    }
+
+    private void ensureScratch(int length, int extra) {
+        if(length + extra > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * @return the length of the multi byte utf-8 sequence at the given position
+     * @throws JsonParseException if it is not valid utf-8
+     */
+    private int utf8Sequence(int at) {
+        int b = input[at] & 0xFF;
+        int n;
+        int min = 0x80;
+        int max = 0xBF;
+        if(b >= 0xC2 && b <= 0xDF) {
+            n = 2;
+        } else if(b >= 0xE0 && b <= 0xEF) {
+            n = 3;
+            // no overlong encodings or surrogates
+            if(b == 0xE0) {
+                min = 0xA0;
+            } else if(b == 0xED) {
+                max = 0x9F;
+            }
+        } else if(b >= 0xF0 && b <= 0xF4) {
+            n = 4;
+            if(b == 0xF0) {
+                min = 0x90;
+            } else if(b == 0xF4) {
+                max = 0x8F;
+            }
+        } else {
+            throw error("invalid utf-8");
+        }
+        if(at + n > end) {
+            throw error("invalid utf-8");
+        }
+        int second = input[at + 1] & 0xFF;
+        if(second < min || second > max) {
+            throw error("invalid utf-8");
+        }
+        for(int i = 2; i < n; i++) {
+            if((input[at + i] & 0xC0) != 0x80) {
+                throw error("invalid utf-8");
+            }
+        }
+        return n;
+    }
+
+    private void scanNumber(Handler handler) {
+        int start = pos;
+        boolean negative = input[pos] == '-';
+        if(negative) {
+            pos++;
+        }
+        // only used for short numbers, so it can't overflow when it matters
+        long mantissa = 0;
+        if(digitAt(pos) < 0) {
+            throw error("expected a digit");
+        } else if(input[pos] == '0') {
+            if(digitAt(++pos) >= 0) {
+                throw error("leading zeroes are not allowed");
+            }
+        } else {
+            int digit;
+            while((digit = digitAt(pos)) >= 0) {
+                mantissa = mantissa * 10 + digit;
+                pos++;
+            }
+        }
+        boolean integral = true;
+        int fractionDigits = 0;
+        if(pos < end && input[pos] == '.') {
+            integral = false;
+            pos++;
+            if(digitAt(pos) < 0) {
+                throw error("expected a digit after the decimal point");
+            }
+            int digit;
+            while((digit = digitAt(pos)) >= 0) {
+                mantissa = mantissa * 10 + digit;
+                fractionDigits++;
+                pos++;
+            }
+        }
+        int exponent = 0;
+        if(pos < end && (input[pos] == 'e' || input[pos] == 'E')) {
+            integral = false;
+            pos++;
+            boolean negativeExponent = false;
+            if(pos < end && (input[pos] == '+' || input[pos] == '-')) {
+                negativeExponent = input[pos++] == '-';
+            }
+            if(digitAt(pos) < 0) {
+                throw error("expected a digit in the exponent");
+            }
+            int digit;
+            while((digit = digitAt(pos)) >= 0) {
+                if(exponent < 100000) {
+                    exponent = exponent * 10 + digit;
+                }
+                pos++;
+            }
+            if(negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        int length = pos - start;
+        if(integral) {
+            if(length < 19) {
+                handler.longValue(negative ? -mantissa : mantissa);
+            } else {
+                handler.bigInteger(input, start, length);
+            }
+        } else if(length < 8) {
+            // at most 7 digits, so the mantissa is exact and so is a single multiplication or division by an exact
+            // power of ten
+            int scale = exponent - fractionDigits;
+            double value;
+            if(scale >= 0 && scale < POWERS_OF_TEN.length) {
+                value = mantissa * POWERS_OF_TEN[scale];
+            } else if(scale < 0 && -scale < POWERS_OF_TEN.length) {
+                value = mantissa / POWERS_OF_TEN[-scale];
+            } else {
+                // without the sign, which is applied below
+                int digits = negative ? start + 1 : start;
+                value = Double.parseDouble(new String(input, digits, pos - digits, StandardCharsets.ISO_8859_1));
+            }
+            handler.doubleValue(negative ? -value : value);
+        } else {
+            handler.bigDecimal(input, start, length);
+        }
+    }
+
+    private int digitAt(int at) {
+        if(at < end) {
+            int digit = input[at] - '0';
+            if(digit >= 0 && digit <= 9) {
+                return digit;
+            }
+        }
+        return -1;
+    }
+
+    private JsonParseException unexpected(int c) {
+        if(c == -1) {
+            return error("unexpected end of input");
+        } else if(c >= 0x20 && c < 0x7F) {
+            return error("unexpected character '" + (char) c + "'");
+        } else {
+            return error("unexpected byte 0x" + Integer.toHexString(c));
+        }
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message + " at byte " + pos);
+    }
+}
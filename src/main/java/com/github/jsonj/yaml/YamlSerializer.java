@@ -1,79 +1,44 @@
 package com.github.jsonj.yaml;
 
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import com.github.jsonj.JsonElement;
+import com.github.jsonj.tools.JsonFactoryBasedSerializer;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.Charset;
 
-public class YamlSerializer {
+public class YamlSerializer implements JsonFactoryBasedSerializer {
     private final YAMLFactory factory = new YAMLFactory();
 
+    @Override
+    public YAMLFactory factory() {
+        return factory;
+    }
+
     public void serialize(OutputStream out, JsonElement e) {
-        serialize(new OutputStreamWriter(out, Charset.forName("UTF8")), e);
+        serialize(e, out);
     }
 
     public void serialize(Writer w, JsonElement e) {
-        try {
-            YAMLGenerator yaml = factory.createGenerator(w);
-            serialize(yaml, e);
-            yaml.flush();
-        } catch (IOException e1) {
-            throw new IllegalStateException(e1);
-        }
+        serialize(e, w);
     }
 
-    private void serialize(YAMLGenerator yaml, JsonElement e) throws IOException {
-        switch (e.type()) {
-        case object:
-            yaml.writeStartObject();
-            e.asObject().forEach((k,v) -> {
-               try {
-                    yaml.writeFieldName(k);
-                    serialize(yaml, v);
-                } catch (IOException e1) {
-                    throw new IllegalStateException(e1);
-                }
-            });
-
-            yaml.writeEndObject();
+    /**
+     * @param out stream to append documents to; closed when the writer is closed
+     * @return a writer that appends documents to a yaml stream
+     * @throws IOException if the generator can't be created
+     */
+    public YamlWriter writer(OutputStream out) throws IOException {
+        return new YamlWriter(factory.createGenerator(out));
+    }
 
-            break;
-        case array:
-            yaml.writeStartArray();
-            e.asArray().forEach(element -> {
-                try {
-                    serialize(yaml, element);
-                } catch (IOException e1) {
-                    throw new IllegalStateException(e1);
-                }
-            });
-            yaml.writeEndArray();
-            break;
-        case string:
-            yaml.writeString(e.asString());
-            break;
-        case bool:
-            yaml.writeBoolean(e.asBoolean());
-            break;
-        case number:
-            Number number = e.asNumber();
-            Class<? extends Number> clazz = number.getClass();
-            if(clazz.isAssignableFrom(Double.class) || clazz.isAssignableFrom(Float.class)) {
-                yaml.writeNumber(number.doubleValue());
-            } else {
-                yaml.writeNumber(number.longValue());
-            }
-            break;
-        case nullValue:
-            yaml.writeNull();
-            break;
-        default:
-            break;
-        }
+    /**
+     * @param w writer to append documents to; closed when the yaml writer is closed
+     * @return a writer that appends documents to a yaml stream
+     * @throws IOException if the generator can't be created
+     */
+    public YamlWriter writer(Writer w) throws IOException {
+        return new YamlWriter(factory.createGenerator(w));
     }
 }
@@ -0,0 +1,52 @@
+package com.github.jsonj.yaml;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.jsonj.JsonElement;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Appends documents to a yaml stream with a single generator, which separates them with ---. Read them back with
+ * {@link YamlParser#parseDocuments(java.io.InputStream)}. Get one from {@link YamlSerializer#writer(java.io.OutputStream)}.
+ * Not thread safe.
+ */
+public class YamlWriter implements Closeable, Flushable {
+    private final JsonGenerator generator;
+
+    YamlWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * @param document document to append
+     * @throws IOException if the output can't be written
+     */
+    public void write(JsonElement document) throws IOException {
+        document.writeTo(generator);
+    }
+
+    /**
+     * @param documents documents to append
+     * @throws IOException if the output can't be written
+     */
+    public void write(Iterable<? extends JsonElement> documents) throws IOException {
+        for(JsonElement document : documents) {
+            document.writeTo(generator);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    /**
+     * Closes the generator and the output.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.jsonj;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import org.testng.annotations.Test;
+
+@Test
+public class ColumnarJsonArrayTest {
+    private JsonArray orders() {
+        JsonArray array = array();
+        for(int i=0;i<1000;i++) {
+            array.add(object(
+                    field("id",i),
+                    field("category","c"+(i%4)),
+                    field("price", i*0.5),
+                    field("meta", object(field("active", i%2==0), field("tags", array("x")))),
+                    field("discount", i%10==0 ? null : i)));
+        }
+        return array;
+    }
+
+    public void shouldCreateTypedColumns() {
+        ColumnarJsonArray columns = orders().toColumnar();
+        assertThat(columns.size()).isEqualTo(1000);
+        assertThat(columns.column("id")).isInstanceOf(ColumnarJsonArray.LongColumn.class);
+        assertThat(columns.column("price")).isInstanceOf(ColumnarJsonArray.DoubleColumn.class);
+        assertThat(columns.column("category")).isInstanceOf(ColumnarJsonArray.StringColumn.class);
+        assertThat(columns.column("meta", "active")).isInstanceOf(ColumnarJsonArray.BooleanColumn.class);
+        assertThat(columns.column("meta", "tags")).isInstanceOf(ColumnarJsonArray.ElementColumn.class);
+        assertThat(columns.stringColumn("category").cardinality()).isEqualTo(4);
+    }
+
+    public void shouldWidenColumnsForMixedValues() {
+        ColumnarJsonArray columns = array(
+                object(field("n", 1), field("x", 1)),
+                object(field("n", 1.5), field("x", "one"))).toColumnar();
+        assertThat(columns.doubleColumn("n").sum()).isEqualTo(2.5);
+        assertThat(columns.column("x")).isInstanceOf(ColumnarJsonArray.ElementColumn.class);
+        assertThat(columns.column("x").get(1).asString()).isEqualTo("one");
+    }
+
+    public void shouldStoreSubtreesWithMixedShapesInOneColumn() {
+        JsonArray array = array(
+                object(field("a", 1), field("id", 1)),
+                object(field("a", object(field("b", 2), field("c", object(field("d", true))))), field("id", 2)),
+                object(field("a", object(field("b", 3))), field("id", 3)),
+                object(field("x", object(field("y", 1))), field("id", 4)),
+                object(field("x", object(field("y", object(field("z", 1))))), field("id", 5)));
+        ColumnarJsonArray columns = array.toColumnar();
+        assertThat(columns.column("a")).isInstanceOf(ColumnarJsonArray.ElementColumn.class);
+        assertThat(columns.column("a", "b")).isNull();
+        assertThat(columns.column("x", "y")).isInstanceOf(ColumnarJsonArray.ElementColumn.class);
+        assertThat(columns.column("x", "y", "z")).isNull();
+        assertThat(columns.longColumn("id").sumLong()).isEqualTo(15L);
+        assertThat(columns.toJsonArray()).isEqualTo(array);
+    }
+
+    public void shouldAggregate() {
+        ColumnarJsonArray columns = orders().toColumnar();
+        assertThat(columns.longColumn("id").sumLong()).isEqualTo(999L*1000/2);
+        assertThat(columns.doubleColumn("price").max().getAsDouble()).isEqualTo(499.5);
+        assertThat(columns.longColumn("discount").count()).isEqualTo(900);
+        assertThat(columns.longColumn("discount").isNull(0)).isTrue();
+        assertThat(columns.stringColumn("category").countBy().get("c2")).isEqualTo(250L);
+        assertThat(columns.numberColumn("price").histogram(0, 500, 5)).containsExactly(200, 200, 200, 200, 200);
+    }
+
+    public void shouldFilter() {
+        ColumnarJsonArray columns = orders().toColumnar();
+        BitSet selection = columns.stringColumn("category").equalTo("c1");
+        selection.and(columns.doubleColumn("price").filterDoubles(p -> p < 100));
+        assertThat(selection.cardinality()).isEqualTo(50);
+        assertThat(columns.longColumn("id").filterLongs(id -> id < 10).cardinality()).isEqualTo(10);
+        assertThat(columns.doubleColumn("price").sum(selection)).isEqualTo(columns.toJsonArray(selection).streamObjects().mapToDouble(o -> o.getDouble("price")).sum());
+        assertThat(columns.booleanColumn("meta", "active").trueRows().cardinality()).isEqualTo(500);
+    }
+
+    public void shouldConvertBackToRows() {
+        JsonArray orders = orders();
+        JsonArray rows = orders.toColumnar().toJsonArray();
+        assertThat(rows).isEqualTo(orders);
+    }
+}
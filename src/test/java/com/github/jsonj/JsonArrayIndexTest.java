@@ -0,0 +1,83 @@
+package com.github.jsonj;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.Collectors;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonArrayIndexTest {
+    private JsonArray products() {
+        JsonArray array = array();
+        for(int i=0;i<100;i++) {
+            array.add(object(field("id",i), field("sku","sku"+(i%10)), field("price", i*0.5)));
+        }
+        return array;
+    }
+
+    public void shouldLookupByUniqueIndex() {
+        JsonArray array = products();
+        JsonArrayIndex index = array.uniqueIndexBy("id");
+        assertThat(index.get(42).getDouble("price")).isEqualTo(21.0);
+        assertThat(index.maybeGet(100).isPresent()).isFalse();
+        assertThat(array.uniqueIndexBy("id")).isSameAs(index);
+        assertThat(array.getIndex("id").get()).isSameAs(index);
+    }
+
+    public void shouldLookupByMultiValueIndex() {
+        JsonArrayIndex index = products().indexBy("sku");
+        assertThat(index.getAll("sku3")).hasSize(10);
+        assertThat(index.getAll("nope")).isEmpty();
+        assertThat(index.size()).isEqualTo(10);
+    }
+
+    public void shouldSupportRangeQueries() {
+        JsonArrayIndex index = products().sortedIndexBy("price");
+        assertThat(index.range(10, 20).map(o -> o.getInt("id")).collect(Collectors.toList())).hasSize(20).startsWith(20).endsWith(39);
+        assertThat(index.range(null, 1).count()).isEqualTo(2);
+        assertThat(index.range(49, null).count()).isEqualTo(2);
+    }
+
+    public void shouldTrackMutations() {
+        JsonArray array = products();
+        JsonArrayIndex ids = array.uniqueIndexBy("id");
+        JsonArrayIndex skus = array.indexBy("sku");
+        array.remove(42);
+        assertThat(ids.contains(42)).isFalse();
+        assertThat(skus.getAll("sku2")).hasSize(9);
+        array.add(object(field("id",1000), field("sku","new")));
+        assertThat(skus.get("new").getInt("id")).isEqualTo(1000);
+        array.set(0, object(field("id",2000)));
+        assertThat(ids.contains(0)).isFalse();
+        assertThat(ids.contains(2000)).isTrue();
+        array.removeIf(e -> e.asObject().getInt("id") < 10);
+        assertThat(ids.contains(5)).isFalse();
+        array.replaceAll(e -> object(field("id", e.asObject().getInt("id") + 10000)));
+        assertThat(ids.contains(10050)).isTrue();
+        assertThat(ids.contains(50)).isFalse();
+        assertThat(skus.size()).isEqualTo(0);
+        array.subList(0, 10).clear();
+        assertThat(ids.size()).isEqualTo(array.size());
+    }
+
+    @Test(expectedExceptions=IllegalStateException.class)
+    public void shouldRejectDuplicatesInUniqueIndex() {
+        JsonArray array = products();
+        array.uniqueIndexBy("id");
+        try {
+            array.add(object(field("id",1)));
+        } finally {
+            assertThat(array.size()).isEqualTo(100);
+        }
+    }
+
+    public void shouldStopMaintainingDroppedIndex() {
+        JsonArray array = products();
+        JsonArrayIndex index = array.indexBy("sku");
+        assertThat(array.dropIndex(index)).isTrue();
+        assertThat(array.getIndex("sku").isPresent()).isFalse();
+    }
+}
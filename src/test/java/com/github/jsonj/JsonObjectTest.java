@@ -40,7 +40,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executors;
@@ -194,6 +196,44 @@ public class JsonObjectTest {
         assertTrue(object.equals(object2));
     }
 
+    public void shouldSerializeNestedTypesWithJavaSerialization() throws IOException, ClassNotFoundException {
+        MapBasedJsonObject mapBased = new MapBasedJsonObject();
+        mapBased.put("x", 1);
+        JsonSet set = new JsonSet().withIdStrategy("id");
+        set.add(object(field("id", 1)), object(field("id", 2)));
+        JsonObject object = object(field("s", "\u00e9"), field("n", -42), field("d", 0.5), field("b", true), field("z", nullValue()),
+            field("a", array(1, object(field("s", "x")))), field("m", mapBased), field("set", set));
+
+        JsonObject copy = (JsonObject) javaSerializationRoundTrip(object);
+        assertThat(copy).isEqualTo(object);
+        assertThat(copy.get("m")).isInstanceOf(MapBasedJsonObject.class);
+        // the id strategy survives
+        JsonSet setCopy = copy.get("set").asSet();
+        setCopy.add(object(field("id", 1), field("other", 1)));
+        assertThat(setCopy).hasSize(2);
+        assertThat(javaSerializationRoundTrip(nullValue())).isSameAs(nullValue());
+    }
+
+    public void shouldReplaceEntriesWhenReadingExternalIntoExistingObject() throws IOException, ClassNotFoundException {
+        JsonObject object = object(field("a", 1), field("b", 2));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try(ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            object.writeExternal(oos);
+        }
+        JsonObject target = object(field("a", 42), field("c", 3));
+        target.readExternal(new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertThat(target).isEqualTo(object);
+        assertThat(target.keySet()).containsExactly("a", "b");
+    }
+
+    private static Object javaSerializationRoundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try(ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(object);
+        }
+        return new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+    }
+
     @Test(dataProvider="objectConstructors")
     public void shouldPutBuilder(Supplier<JsonObject> supplier) {
         JsonBuilder builder = object().put("foo", "bar");
@@ -372,6 +412,26 @@ public class JsonObjectTest {
         assertThat(flattened.getString("x:y:2:foo")).isEqualTo("bar");
     }
 
+    public void shouldUnflatten() {
+        JsonObject obj = object(field("x", object(field("y", array(primitive(1),primitive(2),object(field("foo","bar")))))), field("z", "zz"));
+        assertThat(obj.flatten(":").unflatten(":")).isEqualTo(obj);
+    }
+
+    public void shouldVisitFlattenedLeaves() {
+        JsonObject obj = object(field("x", object(field("y", array(primitive(1),primitive(2))))), field("z", "zz"));
+        List<String> paths = new ArrayList<>();
+        obj.flatten(".", (path, value) -> paths.add(path));
+        assertThat(paths).containsExactly("x.y.0", "x.y.1", "z");
+        assertThat(obj.flattenedStream("/").map(e -> e.getKey())).containsExactly("x/y/0", "x/y/1", "z");
+    }
+
+    public void shouldFlattenKeysContainingTheSeparator() {
+        JsonObject obj = object(field("a:b", 1), field("a", object(field("b", 2))));
+        JsonObject flattened = obj.flatten(":");
+        assertThat(flattened.size()).isEqualTo(1);
+        assertThat(flattened.getInt("a:b")).isEqualTo(2);
+    }
+
     public void shouldHandleBooleanOnLongField() {
         JsonObject o = object(field("deleted",1l));
         assertThat(o.get("deleted",false)).isTrue();
@@ -0,0 +1,76 @@
+package com.github.jsonj;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+@Test
+public class JsonPathTest {
+    private final JsonObject doc = object(
+            field("a", object(
+                    field("b", array(object(field("c", 1)), object(field("c", 2)), object(field("c", 3)), object(field("c", "4"))))),
+                    field("flag", true))),
+            field("x.y", object(field("a/b", object(field("m~n", 42))))),
+            field("nothing", primitive((String)null)));
+
+    public void shouldEvaluateDottedPaths() {
+        assertThat(JsonPath.compile("a.b[3].c").getString(doc)).isEqualTo("4");
+        assertThat(JsonPath.compile("a.b[0].c").getLong(doc, -1)).isEqualTo(1);
+        assertThat(JsonPath.compile("a.b[-1].c").getInt(doc, -1)).isEqualTo(4);
+        assertThat(JsonPath.compile("a.flag").getBoolean(doc, false)).isTrue();
+        assertThat(JsonPath.compile("['x.y']['a/b']").getObject(doc).getInt("m~n")).isEqualTo(42);
+        assertThat(JsonPath.compile("a.b").getArray(doc)).hasSize(4);
+    }
+
+    public void shouldReturnDefaultsForMissingValues() {
+        assertThat(JsonPath.compile("a.b[10].c").get(doc)).isNull();
+        assertThat(JsonPath.compile("a.nope.c").getDouble(doc, 0.5)).isEqualTo(0.5);
+        assertThat(JsonPath.compile("a[0]").exists(doc)).isFalse();
+        assertThat(JsonPath.compile("nothing").exists(doc)).isTrue();
+        assertThat(JsonPath.compile("nothing").getString(doc)).isNull();
+    }
+
+    public void shouldEvaluateJsonPointers() {
+        assertThat(JsonPath.compile("").get(doc)).isSameAs(doc);
+        assertThat(JsonPath.compile("/a/b/2/c").getLong(doc, -1)).isEqualTo(3);
+        assertThat(JsonPath.compile("/x.y/a~1b/m~0n").getLong(doc, -1)).isEqualTo(42);
+        assertThat(JsonPath.compile("/a/b/-").get(doc)).isNull();
+        assertThat(JsonPath.compile("/a/b/01").get(doc)).isNull();
+    }
+
+    public void shouldUseSlotHintsAcrossDifferentShapes() {
+        JsonPath path = JsonPath.compile("c");
+        JsonObject first = object(field("a", 1), field("c", 2));
+        JsonObject second = object(field("c", 3));
+        JsonObject third = object(field("b", 1), field("a", 1), field("c", 4));
+        MapBasedJsonObject mapBased = new MapBasedJsonObject();
+        mapBased.put("c", 5);
+        for(int i = 0; i < 2; i++) {
+            assertThat(path.getInt(first, -1)).isEqualTo(2);
+            assertThat(path.getInt(second, -1)).isEqualTo(3);
+            assertThat(path.getInt(third, -1)).isEqualTo(4);
+            assertThat(path.getInt(mapBased, -1)).isEqualTo(5);
+            assertThat(path.getInt(object(field("a", 1)), -1)).isEqualTo(-1);
+        }
+    }
+
+    public void shouldCompileLabels() {
+        assertThat(JsonPath.of("x.y", "a/b", "m~n").getLong(doc, -1)).isEqualTo(42);
+        assertThat(JsonPath.of("a", "flag")).isEqualTo(JsonPath.compile("a.flag"));
+        assertThat(JsonPath.of("x.y", "a/b").toString()).isEqualTo("['x.y'].a/b");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectEmptyKeys() {
+        JsonPath.compile("a..b");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectBadIndex() {
+        JsonPath.compile("a[b]");
+    }
+}
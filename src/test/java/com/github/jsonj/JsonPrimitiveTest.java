@@ -31,8 +31,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import com.github.jsonj.tools.JsonParser;
+import com.github.jsonj.tools.JsonSerializer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -157,4 +159,30 @@ public class JsonPrimitiveTest {
         assertThat(e.asString()).isEqualTo("42");
         assertThat(e.asNumber().toString()).isEqualTo("42");
     }
+
+    public void shouldSerializeEscapedStringsRepeatedly() {
+        JsonPrimitive p = primitive("\"quoted\"\n");
+        // escaped on the fly the first time, cached from the second time on
+        for(int i = 0; i < 3; i++) {
+            assertThat(p.toString(), is("\"\\\"quoted\\\"\\n\""));
+            assertThat(JsonSerializer.serialize(p), is("\"\\\"quoted\\\"\\n\""));
+        }
+        assertThat(primitive("plain").toString(), is("\"plain\""));
+    }
+
+    public void shouldCopyUtf8Bytes() {
+        byte[] utf8 = "h\u00e9llo".getBytes(StandardCharsets.UTF_8);
+        JsonPrimitive p = JsonPrimitive.fromUtf8(utf8);
+        utf8[0] = 'j';
+        assertThat(p.asString()).isEqualTo("h\u00e9llo");
+        assertThat(p.utf8Length()).isEqualTo(6);
+    }
+
+    public void shouldReplaceMalformedUtf8() {
+        // a lone surrogate and an overlong encoding of '/'
+        byte[] utf8 = {'a', (byte) 0xed, (byte) 0xa0, (byte) 0x80, (byte) 0xc0, (byte) 0xaf, 'b'};
+        JsonPrimitive p = JsonPrimitive.fromUtf8(utf8);
+        assertThat(p.asString()).isEqualTo(new String(utf8, StandardCharsets.UTF_8));
+        assertThat(p).isEqualTo(primitive(new String(utf8, StandardCharsets.UTF_8)));
+    }
 }
@@ -206,4 +206,46 @@ public class JsonSetTest {
 
     }
 
+    public void shouldDeduplicateLargeSetWithIdStrategy() {
+        JsonSet set = set();
+        for(int i=0;i<20000;i++) {
+            set.add(object(field("id",i%10000), field("name","user"+i)));
+        }
+        assertThat(set.size()).isEqualTo(20000);
+        set.withIdStrategy("id");
+        assertThat(set.size()).isEqualTo(10000);
+        assertThat(set.get(0).asObject().getString("name")).isEqualTo("user0");
+        assertThat(set.contains(object(field("id",42)))).isTrue();
+        assertThat(set.contains(object(field("id",10042)))).isFalse();
+    }
+
+    public void shouldKeepIndexConsistentWithListModifications() {
+        JsonSet set = set(1,2,3,4);
+        set.remove(0);
+        assertThat(set.contains(primitive(1))).isFalse();
+        set.set(0, primitive(42));
+        assertThat(set.contains(primitive(2))).isFalse();
+        assertThat(set.contains(primitive(42))).isTrue();
+        set.removeIf(e -> e.asInt() == 3);
+        assertThat(set.contains(primitive(3))).isFalse();
+        set.subList(0, 1).clear();
+        assertThat(set.contains(primitive(42))).isFalse();
+        assertThat(set.contains(primitive(4))).isTrue();
+        set.add(4);
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    public void shouldKeepIndexConsistentWithSubListSet() {
+        JsonSet set = set(1,2,3,4);
+        assertThat(set.contains(primitive(2))).isTrue();
+        List<JsonElement> subList = set.subList(1, 3);
+        subList.set(0, primitive(42));
+        subList.subList(1, 2).set(0, primitive(43));
+        assertThat(set.contains(primitive(2))).isFalse();
+        assertThat(set.contains(primitive(3))).isFalse();
+        assertThat(set.contains(primitive(42))).isTrue();
+        assertThat(set.contains(primitive(43))).isTrue();
+        set.add(42);
+        assertThat(set.size()).isEqualTo(4);
+    }
 }
@@ -3,6 +3,7 @@ package com.github.jsonj;
 import static com.github.jsonj.tools.JsonBuilder.array;
 import static com.github.jsonj.tools.JsonBuilder.field;
 import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -53,4 +54,43 @@ public class JsonjCollectorsTest {
         JsonSet set = StreamSupport.stream(spliterator, false).collect(JsonjCollectors.set());
         assertThat(set.size(), is(3));
     }
+
+    private JsonArray orders() {
+        JsonArray array = array();
+        for(int i=0;i<10000;i++) {
+            array.add(object(field("id",i), field("category","c"+(i%4)), field("amount", 2)));
+        }
+        return array;
+    }
+
+    public void shouldPreserveOrderInParallelArrayCollector() {
+        JsonArray orders = orders();
+        JsonArray collected = orders.parallelStreamObjects().collect(JsonjCollectors.array());
+        assertThat(collected, is(orders));
+    }
+
+    public void shouldCollectInSetInParallel() {
+        JsonSet set = orders().parallelStreamObjects().map(o -> o.get("category")).collect(JsonjCollectors.set());
+        assertThat(set.size(), is(4));
+    }
+
+    public void shouldGroupByField() {
+        JsonObject groups = orders().parallelStreamObjects().collect(JsonjCollectors.groupingBy("category"));
+        assertThat(groups.size(), is(4));
+        assertThat(groups.getArray("c1").size(), is(2500));
+        assertThat(groups.getArray("c1").get(0).asObject().getInt("id"), is(1));
+    }
+
+    public void shouldCountAndSumByField() {
+        JsonObject counts = orders().parallelStreamObjects().collect(JsonjCollectors.countingBy("category"));
+        assertThat(counts.getLong("c3"), is(2500L));
+        JsonObject sums = orders().parallelStreamObjects().collect(JsonjCollectors.summingBy("category", "amount"));
+        assertThat(sums.get("c3"), is(primitive(5000)));
+    }
+
+    public void shouldCollectToObject() {
+        JsonObject byId = orders().streamObjects().limit(10).collect(JsonjCollectors.toObject(o -> o.getString("id"), o -> o.get("category")));
+        assertThat(byId.size(), is(10));
+        assertThat(byId.getString("5"), is("c1"));
+    }
 }
@@ -0,0 +1,39 @@
+package com.github.jsonj;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+@Test
+public class KeyCacheTest {
+    public void shouldComputeOnlyOnceForCachedKeys() {
+        KeyCache<String> cache = new KeyCache<>(16);
+        AtomicInteger computed = new AtomicInteger();
+        for(int i = 0; i < 10; i++) {
+            assertThat(cache.get("key", k -> {
+                computed.incrementAndGet();
+                return k.toUpperCase();
+            })).isEqualTo("KEY");
+        }
+        assertThat(computed.get()).isEqualTo(1);
+    }
+
+    public void shouldEvictOneOffKeysButKeepReturningCorrectValues() {
+        KeyCache<String> cache = new KeyCache<>(4);
+        for(int i = 0; i < 100000; i++) {
+            String key = "k" + i;
+            assertThat(cache.get(key, k -> k + "!")).isEqualTo(key + "!");
+        }
+        AtomicInteger computed = new AtomicInteger();
+        for(int i = 0; i < 10; i++) {
+            cache.get("k0", k -> {
+                computed.incrementAndGet();
+                return k;
+            });
+        }
+        // evicted long ago, but cached again after the first lookup
+        assertThat(computed.get()).isEqualTo(1);
+    }
+}
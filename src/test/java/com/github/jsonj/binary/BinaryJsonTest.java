@@ -0,0 +1,109 @@
+package com.github.jsonj.binary;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.testng.annotations.Test;
+
+@Test
+public class BinaryJsonTest {
+    private final JsonObject document = object(
+        field("string", "éè"),
+        field("long", -42),
+        field("double", 0.1),
+        field("float", 1.5f),
+        field("true", true),
+        field("false", false),
+        field("null", nullValue()),
+        field("decimal", new BigDecimal("1.23456789012345678901234567890")),
+        field("integer", new BigInteger("123456789012345678901234567890")),
+        field("nested", array(1, object(field("string", "x")), array(), object())),
+        field("long string", "a string that is too long to be put in the string table"));
+
+    public void shouldRoundTrip() {
+        byte[] bytes = new BinaryJsonWriter().toBytes(document);
+        assertThat(BinaryJsonReader.read(bytes)).isEqualTo(document);
+    }
+
+    public void shouldStoreRepeatedKeysAndValuesOnce() {
+        JsonArray array = new JsonArray();
+        for(int i = 0; i < 100; i++) {
+            array.add(object(field("type", "user"), field("id", i)));
+        }
+        byte[] bytes = new BinaryJsonWriter().toBytes(array);
+        assertThat(bytes.length).isLessThan(array.toString().length() / 2);
+
+        JsonArray read = BinaryJsonReader.read(bytes).asArray();
+        assertThat(read).isEqualTo(array);
+        assertThat(read.get(0).asObject().get("type")).isSameAs(read.get(99).asObject().get("type"));
+    }
+
+    public void shouldShareTableEntriesBetweenKeysAndValues() {
+        JsonObject object = object(field("name", "name"));
+        byte[] bytes = new BinaryJsonWriter().toBytes(object);
+        // one table entry of 5 bytes instead of two
+        assertThat(bytes.length).isLessThan(new BinaryJsonWriter().toBytes(object(field("name", "eman"))).length);
+        assertThat(BinaryJsonReader.read(bytes)).isEqualTo(object);
+    }
+
+    public void shouldReadDocumentsFromStream() throws IOException {
+        BinaryJsonWriter writer = new BinaryJsonWriter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(document, out);
+        writer.write(primitive(42), out);
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertThat(BinaryJsonReader.read(in)).isEqualTo(document);
+        assertThat(BinaryJsonReader.read(in)).isEqualTo(primitive(42));
+        assertThat(BinaryJsonReader.read(in)).isNull();
+    }
+
+    public void shouldReadAndWriteBuffers() {
+        BinaryJsonWriter writer = new BinaryJsonWriter();
+        // the byte order of the buffer does not matter
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096).order(ByteOrder.LITTLE_ENDIAN);
+        writer.write(document, buffer);
+        writer.write(array("a"), buffer);
+        buffer.flip();
+        assertThat(BinaryJsonReader.read(buffer)).isEqualTo(document);
+        JsonElement second = BinaryJsonReader.read(buffer);
+        assertThat(second).isEqualTo(array("a"));
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldRejectTruncatedDocuments() {
+        byte[] bytes = new BinaryJsonWriter().toBytes(document);
+        BinaryJsonReader.read(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldRejectStringTableCountBeyondTheDocument() {
+        byte[] bytes = new BinaryJsonWriter().toBytes(document);
+        // the table starts right after the 7 byte header with its entry count as a varint
+        byte[] corrupt = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, corrupt, 0, 7);
+        corrupt[7] = (byte) 0xff;
+        corrupt[8] = (byte) 0xff;
+        corrupt[9] = (byte) 0xff;
+        corrupt[10] = 0x07;
+        System.arraycopy(bytes, 8, corrupt, 11, bytes.length - 8);
+        BinaryJsonReader.read(corrupt);
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.jsonj.binary;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.JsonPath;
+import java.nio.ByteBuffer;
+import org.testng.annotations.Test;
+
+@Test
+public class BinaryObjectViewTest {
+    private final JsonObject document = object(
+        field("name", "Bob \"the\" builder"),
+        field("id", 42),
+        field("score", 1.5),
+        field("nothing", nullValue()),
+        field("address", object(field("city", "Berlin"), field("zip", 10115))),
+        field("tags", array("a", "b", object(field("x", 1)))));
+
+    private JsonObject view() {
+        byte[] bytes = new BinaryJsonWriter().toBytes(document);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return BinaryJsonReader.view(buffer).asObject();
+    }
+
+    public void shouldReadFieldsFromBytes() {
+        JsonObject view = view();
+        assertThat(view).isInstanceOf(BinaryObjectView.class);
+        assertThat(view.getString("name")).isEqualTo("Bob \"the\" builder");
+        assertThat(view.getLong("id")).isEqualTo(42L);
+        assertThat(view.getString("address", "city")).isEqualTo("Berlin");
+        assertThat(view.getInt("address", "zip")).isEqualTo(10115);
+        assertThat(view.getString("nothing")).isNull();
+        assertThat(view.getString("missing")).isNull();
+        assertThat(view.getArray("tags").get(2).asObject().getInt("x")).isEqualTo(1);
+        assertThat(JsonPath.compile("address.city").getString(view)).isEqualTo("Berlin");
+    }
+
+    public void shouldBehaveLikeTheOriginal() {
+        JsonObject view = view();
+        assertThat(view).isEqualTo(document);
+        assertThat(document).isEqualTo(view);
+        assertThat(view.hashCode()).isEqualTo(document.hashCode());
+        assertThat(view.keySet()).containsExactly("name", "id", "score", "nothing", "address", "tags");
+        assertThat(view.toString()).isEqualTo(document.toString());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotAllowChanges() {
+        view().put("x", 1);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotAllowChangesToNestedArrays() {
+        view().getArray("tags").add("c");
+    }
+
+    public void shouldMaterialize() {
+        JsonObject copy = ((BinaryObjectView) view()).materialize();
+        copy.getObject("address").put("city", "Hamburg");
+        assertThat(copy.isMutable()).isTrue();
+        assertThat(copy.getString("address", "city")).isEqualTo("Hamburg");
+    }
+}
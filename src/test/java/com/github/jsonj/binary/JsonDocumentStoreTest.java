@@ -0,0 +1,92 @@
+package com.github.jsonj.binary;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.jsonj.JsonElement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonDocumentStoreTest {
+
+    private static void fill(JsonDocumentStore store, int documents) {
+        for(int i = 0; i < documents; i++) {
+            store.put("id" + i, object(field("id", i), field("name", "user" + i), field("tags", array("a", "b"))));
+        }
+    }
+
+    public void shouldStoreAndFindDocuments() {
+        try(JsonDocumentStore store = new JsonDocumentStore(4096)) {
+            fill(store, 10000);
+            assertThat(store.size()).isEqualTo(10000);
+            assertThat(store.get("id42").asObject().getLong("id")).isEqualTo(42L);
+            assertThat(store.get("id42")).isEqualTo(object(field("id", 42), field("name", "user42"), field("tags", array("a", "b"))));
+            assertThat(store.get("nope")).isNull();
+            assertThat(store.getMaterialized("id7").isMutable()).isTrue();
+        }
+    }
+
+    public void shouldReplaceRemoveAndCompact() {
+        try(JsonDocumentStore store = new JsonDocumentStore(4096)) {
+            fill(store, 10000);
+            JsonElement held = store.get("id1");
+            for(int i = 0; i < 10000; i += 2) {
+                assertThat(store.remove("id" + i)).isTrue();
+            }
+            store.put("id1", object(field("id", -1)));
+            assertThat(store.contains("id0")).isFalse();
+            assertThat(store.size()).isEqualTo(5000);
+            assertThat(store.fragmentation()).isGreaterThan(0.4);
+
+            long allocated = store.bytesAllocated();
+            assertThat(store.compact(0.2)).isGreaterThan(0);
+            assertThat(store.fragmentation()).isEqualTo(0.0);
+            assertThat(store.bytesAllocated()).isLessThan(allocated);
+            assertThat(store.get("id3").asObject().getLong("id")).isEqualTo(3L);
+            assertThat(store.get("id1").asObject().getLong("id")).isEqualTo(-1L);
+            // views handed out before compaction keep working
+            assertThat(held.asObject().getLong("id")).isEqualTo(1L);
+        }
+    }
+
+    public void shouldUseMappedFiles() throws IOException {
+        Path directory = Files.createTempDirectory("jsonj-store");
+        try(JsonDocumentStore store = JsonDocumentStore.mapped(directory, 4096)) {
+            fill(store, 1000);
+            assertThat(store.get("id999").asObject().getString("name")).isEqualTo("user999");
+        }
+        assertThat(Files.list(directory).count()).isEqualTo(0);
+        Files.delete(directory);
+    }
+
+    public void shouldKeepDocumentsWhenAppendingFails() throws IOException {
+        Path directory = Files.createTempDirectory("jsonj-store");
+        try(JsonDocumentStore store = JsonDocumentStore.mapped(directory, 4096)) {
+            store.put("id", object(field("id", 1)));
+            // the segment stays mapped, but no new segment files can be created
+            try(Stream<Path> files = Files.list(directory)) {
+                for(Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+
+            char[] big = new char[8192];
+            Arrays.fill(big, 'x');
+            assertThatThrownBy(() -> store.put("id", object(field("id", new String(big))))).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> store.put("other", object(field("id", new String(big))))).isInstanceOf(UncheckedIOException.class);
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.get("id").asObject().getLong("id")).isEqualTo(1L);
+            assertThat(store.contains("other")).isFalse();
+        }
+    }
+}
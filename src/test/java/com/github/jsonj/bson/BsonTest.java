@@ -1,10 +1,22 @@
 package com.github.jsonj.bson;
 
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.github.jsonj.JsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
 import com.github.jsonj.tools.JsonParser;
+import de.undercouch.bson4jackson.BsonGenerator;
+import de.undercouch.bson4jackson.types.ObjectId;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.testng.annotations.Test;
 
 @Test
@@ -126,4 +138,42 @@ public class BsonTest {
         ByteArrayInputStream is = new ByteArrayInputStream(bytes);
         parser.parse(is);
     }
+
+    public void shouldStreamConcatenatedDocuments() throws IOException {
+        List<JsonObject> documents = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            documents.add(object(field("id", i), field("tags", array("a", "b")), field("score", i / 2.0)));
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try(BsonWriter writer = new BsonWriter(bos)) {
+            writer.write(documents);
+        }
+
+        BsonParser parser = new BsonParser();
+        assertThat(parser.parseDocuments(new ByteArrayInputStream(bos.toByteArray())).collect(Collectors.toList())).isEqualTo(documents);
+    }
+
+    public void shouldMapBinaryDatesAndObjectIds() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try(BsonGenerator generator = BsonSerializer.FACTORY.createGenerator(bos)) {
+            generator.writeStartObject();
+            generator.writeFieldName("binary");
+            generator.writeBinary(new byte[] {1, 2, 3});
+            generator.writeFieldName("date");
+            generator.writeDateTime(new Date(1500000000123L));
+            generator.writeFieldName("_id");
+            generator.writeObjectId(new ObjectId(0x5f1d7c2a, 0x0102abcd, 0x00ff0010));
+            generator.writeEndObject();
+        }
+        JsonObject parsed = new BsonParser().parse(bos.toByteArray()).asObject();
+        assertThat(parsed.getString("binary")).isEqualTo("AQID");
+        assertThat(parsed.getLong("date")).isEqualTo(1500000000123L);
+        assertThat(parsed.getString("_id")).isEqualTo("5f1d7c2a0102abcd00ff0010");
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldRejectCorruptDocumentLengths() {
+        byte[] corrupt = {(byte) 0xff, (byte) 0xff, (byte) 0xff, 0x7f, 0, 0, 0, 0};
+        new BsonParser().parseDocuments(new ByteArrayInputStream(corrupt)).count();
+    }
 }
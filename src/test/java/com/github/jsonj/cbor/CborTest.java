@@ -0,0 +1,44 @@
+package com.github.jsonj.cbor;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.testng.annotations.Test;
+
+@Test
+public class CborTest {
+    private final CborSerializer serializer = new CborSerializer();
+    private final CborParser parser = new CborParser();
+
+    public void shouldRoundTrip() {
+        JsonObject o = object(
+                field("string", "Töölö"),
+                field("numbers", array(42, 0.5, new BigDecimal("1.23456789"))),
+                field("nested", object(field("empty", array()), field("null", nullValue()), field("bool", true))));
+        byte[] bytes = serializer.serialize(o);
+        assertThat(parser.parse(bytes)).isEqualTo(o);
+        assertThat(parser.parse(new ByteArrayInputStream(bytes))).isEqualTo(o);
+    }
+
+    public void shouldStreamDocuments() {
+        List<JsonElement> documents = Arrays.asList(object(field("n", 1)), array(1, 2), primitive("three"), object(field("n", 4)));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serializeDocuments(documents, bos);
+        try(Stream<JsonElement> parsed = parser.parseDocuments(new ByteArrayInputStream(bos.toByteArray()))) {
+            assertThat(parsed.collect(Collectors.toList())).isEqualTo(documents);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.jsonj.msgpack;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.testng.annotations.Test;
+
+@Test
+public class MsgPackTest {
+    private final MsgPackSerializer serializer = new MsgPackSerializer();
+    private final MsgPackParser parser = new MsgPackParser();
+
+    public void shouldRoundTrip() {
+        JsonObject o = object(
+                field("string", "Töölö"),
+                field("numbers", array(42, -1, 70000, Long.MIN_VALUE, 0.5, new BigInteger("18446744073709551615"))),
+                field("nested", object(field("empty", array()), field("null", nullValue()), field("bool", true))));
+        byte[] bytes = serializer.serialize(o);
+        assertThat(parser.parse(bytes)).isEqualTo(o);
+        assertThat(parser.parse(new ByteArrayInputStream(bytes))).isEqualTo(o);
+    }
+
+    public void shouldUseSmallestEncoding() {
+        assertThat(serializer.serialize(primitive(1))).isEqualTo(bytes(0x01));
+        assertThat(serializer.serialize(primitive(-1))).isEqualTo(bytes(0xff));
+        assertThat(serializer.serialize(primitive(200))).isEqualTo(bytes(0xcc, 0xc8));
+        assertThat(serializer.serialize(object(field("a", array(1, 2))))).isEqualTo(bytes(0x81, 0xa1, 'a', 0x92, 0x01, 0x02));
+    }
+
+    public void shouldDecodeStringsLargerThanTheBuffer() {
+        char[] chars = new char[100000];
+        Arrays.fill(chars, 'é');
+        JsonElement e = array(new String(chars), "after");
+        assertThat(parser.parse(new ByteArrayInputStream(serializer.serialize(e)))).isEqualTo(e);
+    }
+
+    public void shouldStreamMessages() throws IOException {
+        List<JsonElement> documents = Arrays.asList(object(field("id", 1)), array("x", "y"), primitive("z"), object(field("id", 2)));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serializeDocuments(documents, bos);
+        byte[] bytes = bos.toByteArray();
+
+        assertThat(parser.parseDocuments(new ByteArrayInputStream(bytes)).collect(Collectors.toList())).isEqualTo(documents);
+        assertThat(parser.parseDocuments(ByteBuffer.wrap(bytes)).collect(Collectors.toList())).isEqualTo(documents);
+    }
+
+    public void shouldAdvanceBufferPosition() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+        serializer.serialize(object(field("id", 1)), buffer);
+        serializer.serialize(array("x", "y"), buffer);
+        buffer.flip();
+        assertThat(parser.parse(buffer)).isEqualTo(object(field("id", 1)));
+        assertThat(parser.parse(buffer)).isEqualTo(array("x", "y"));
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    public void shouldDecodeBinaryAndTimestamps() {
+        assertThat(parser.parse(new byte[] {(byte) 0xc4, 3, 1, 2, 3})).isEqualTo(primitive("AQID"));
+        assertThat(parser.parse(new byte[] {(byte) 0xd6, -1, 0, 0, 0, 1})).isEqualTo(primitive("1970-01-01T00:00:01Z"));
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldRejectTruncatedInput() {
+        parser.parse(new byte[] {(byte) 0x92, 0x01});
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldRejectTrailingBytes() {
+        parser.parse(new byte[] {0x01, 0x02});
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for(int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.jsonj.query;
+
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.tools.JsonParser;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonQueryTest {
+    private final JsonObject store = new JsonParser().parseObject("{\"store\":{\"book\":["
+            + "{\"category\":\"reference\",\"author\":\"Nigel Rees\",\"title\":\"Sayings\",\"price\":8.95},"
+            + "{\"category\":\"fiction\",\"author\":\"Evelyn Waugh\",\"title\":\"Sword\",\"price\":12.99},"
+            + "{\"category\":\"fiction\",\"author\":\"Herman Melville\",\"title\":\"Moby Dick\",\"isbn\":\"0-553\",\"price\":8.99},"
+            + "{\"category\":\"fiction\",\"author\":\"Tolkien\",\"title\":\"LOTR\",\"isbn\":\"0-395\",\"price\":22.99}],"
+            + "\"bicycle\":{\"color\":\"red\",\"price\":19.95}}, \"limit\": 10}");
+
+    private List<String> strings(JsonElement root, String expression) {
+        return JsonQuery.stream(root, expression).map(JsonElement::asString).collect(Collectors.toList());
+    }
+
+    public void shouldSelectPathsAndWildcards() {
+        assertThat(strings(store, "$.store.book[*].author")).containsExactly("Nigel Rees", "Evelyn Waugh", "Herman Melville", "Tolkien");
+        assertThat(strings(store, "store.book[0]['title']")).containsExactly("Sayings");
+        assertThat(JsonQuery.compile("$.store.*").select(store)).hasSize(2);
+    }
+
+    public void shouldDescendRecursively() {
+        assertThat(strings(store, "$..author")).hasSize(4);
+        assertThat(JsonQuery.compile("$..price").select(store)).hasSize(5);
+    }
+
+    public void shouldFilter() {
+        assertThat(strings(store, "$.store.book[?(@.price > 10)].title")).containsExactly("Sword", "LOTR");
+        assertThat(strings(store, "$.store.book[?(@.price < $.limit && @.category == 'fiction')].title")).containsExactly("Moby Dick");
+        assertThat(strings(store, "$..book[?(@.isbn)].title")).containsExactly("Moby Dick", "LOTR");
+        assertThat(strings(store, "$..book[?(!@.isbn || @.price > 20)].title")).containsExactly("Sayings", "Sword", "LOTR");
+    }
+
+    public void shouldSliceAndProject() {
+        assertThat(strings(store, "$.store.book[-2:].title")).containsExactly("Moby Dick", "LOTR");
+        assertThat(strings(store, "$.store.book[::-2].title")).containsExactly("LOTR", "Sword");
+        assertThat(strings(store, "$.store.book[0,2].title")).containsExactly("Sayings", "Moby Dick");
+        assertThat(JsonQuery.compile("$.store.book[1].{t: title, p: @.price}").select(store).first().asObject())
+            .isEqualTo(object(field("t", "Sword"), field("p", 12.99)));
+    }
+
+    public void shouldUseArrayIndexes() {
+        JsonObject indexed = store.deepClone();
+        indexed.getArray("store", "book").sortedIndexBy("price");
+        // served from the sorted index, so ordered by price
+        assertThat(strings(indexed, "$.store.book[?(@.price >= 8.99)].title")).containsExactly("Moby Dick", "Sword", "LOTR");
+        assertThat(strings(indexed, "$.store.book[?(@.price > 10 && @.category == 'fiction')].title")).containsExactly("Sword", "LOTR");
+    }
+
+    public void shouldCachePlans() {
+        assertThat(JsonQuery.compile("$.store.book")).isSameAs(JsonQuery.compile("$.store.book"));
+    }
+
+    public void shouldReturnElementsNotCopies() {
+        assertThat(JsonQuery.compile("$.store").select(store).get(0)).isSameAs(store.getObject("store"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectBrokenFilters() {
+        JsonQuery.compile("$.store.book[?(@.price >)]");
+    }
+}
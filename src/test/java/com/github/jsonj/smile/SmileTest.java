@@ -0,0 +1,42 @@
+package com.github.jsonj.smile;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.testng.annotations.Test;
+
+@Test
+public class SmileTest {
+    private final SmileSerializer serializer = new SmileSerializer();
+    private final SmileParser parser = new SmileParser();
+
+    public void shouldRoundTrip() {
+        JsonObject o = object(
+                field("string", "Töölö"),
+                field("numbers", array(42, 0.5, new BigInteger("12345678901234567890"), new BigDecimal("1.23456789"))),
+                field("nested", object(field("empty", array()), field("null", nullValue()), field("bool", true))));
+        byte[] bytes = serializer.serialize(o);
+        assertThat(parser.parse(bytes)).isEqualTo(o);
+        assertThat(parser.parse(new ByteArrayInputStream(bytes))).isEqualTo(o);
+    }
+
+    public void shouldShareRepeatedNamesAndValues() {
+        JsonArray array = new JsonArray();
+        for(int i = 0; i < 100; i++) {
+            array.add(object(field("category", "books"), field("id", i)));
+        }
+        byte[] bytes = serializer.serialize(array);
+        assertThat(bytes.length).isLessThan(array.toString().length() / 3);
+        JsonElement parsed = parser.parse(bytes);
+        assertThat(parsed).isEqualTo(array);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+@Test
+public class ExtractorTest {
+    private final JsonParser parser = new JsonParser();
+    private final JsonObject doc = object(
+            field("id", 42),
+            field("meta", object(
+                    field("tags", array("x", "y", "z")),
+                    field("score", 1.5),
+                    field("owner", object(field("name", "bob"))))),
+            field("nil", nullValue()));
+    private final Extractor extractor = Extractor.of("id", "meta.tags[1]", "meta.score", "missing.x", "meta.owner", "meta.owner.name", "nil", "/meta/tags/0");
+
+    public void shouldExtractFromTree() {
+        Object[] values = extractor.extract(doc);
+        assertThat(values).containsExactly(42L, "y", 1.5, null, object(field("name", "bob")), "bob", null, "x");
+    }
+
+    public void shouldExtractFromTokenStream() {
+        assertThat(parser.extract(doc.toString(), extractor)).containsExactly(extractor.extract(doc));
+    }
+
+    public void shouldStopReadingWhenAllValuesAreFound() {
+        // the truncated tail is never parsed
+        Object[] values = parser.extract("{\"id\":1, \"name\":\"x\", \"rest\": [1,2,", Extractor.of("id", "name"));
+        assertThat(values).containsExactly(1L, "x");
+    }
+
+    public void shouldCallSinkWithSlots() {
+        List<Integer> slots = new ArrayList<>();
+        parser.extract("[{\"a\":1},{\"a\":2}]", Extractor.of("[1].a", "[0]"), (slot, value) -> slots.add(slot));
+        assertThat(slots).containsExactly(1, 0);
+    }
+
+    public void shouldExtractOtherPathsAfterDuplicateKeys() {
+        Object[] values = parser.extract("{\"a\":1, \"a\":2, \"o\":{\"x\":1}, \"o\":{\"x\":2}, \"b\":3}", Extractor.of("a", "o.x", "b"));
+        assertThat(values).containsExactly(1L, 1L, 3L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectDuplicatePaths() {
+        Extractor.of("a.b", "a.b");
+    }
+}
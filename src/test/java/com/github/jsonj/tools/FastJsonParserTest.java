@@ -0,0 +1,72 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.SimpleIntMapJsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the parser tests against the fast parser, plus checks that it produces the same trees as jackson.
+ */
+@Test
+public class FastJsonParserTest extends JsonParserTest {
+
+    @Override
+    protected JsonParser createParser() {
+        return new FastJsonParser();
+    }
+
+    @DataProvider
+    public Object[][] documents() {
+        return new Object[][] {
+                {"{\"a\":[1,2.5,-3e2,true,false,null,[],{}],\"b\":{\"c\":\"d\"}}"},
+                {"[1234567890123456789, 1.2345678, 123456789012345678, 1.23456, 1e300, -0]"},
+                {"\"\\u00e9\\ud83d\\ude00 \\\"quoted\\\"\\n\\t\\/\""},
+                {"{\"a\":1,\"b\":{\"x\":1,\"x\":[2]},\"a\":3}"},
+        };
+    }
+
+    @Test(dataProvider = "documents")
+    public void shouldProduceTheSameTreeAsJackson(String json) {
+        JsonElement expected = new JsonParser().parse(json);
+        JsonElement parsed = new FastJsonParser().parse(json.getBytes(StandardCharsets.UTF_8));
+        assertThat(parsed).isEqualTo(expected);
+        assertThat(parsed.toString()).isEqualTo(expected.toString());
+    }
+
+    public void shouldKeepNumberTypes() {
+        JsonObject object = new FastJsonParser().parseObject("{\"l\":42,\"d\":0.5,\"bi\":12345678901234567890,\"bd\":1.23456789}");
+        JsonObject expected = new JsonParser().parseObject(object.toString());
+        for(String key : expected.keySet()) {
+            assertThat(object.get(key).asPrimitive().value().getClass()).isEqualTo(expected.get(key).asPrimitive().value().getClass());
+        }
+    }
+
+    public void shouldUseTheObjectImplementationFromTheSettings() {
+        JsonObject large = new JsonObject();
+        for(int i = 0; i < 150; i++) {
+            large.put("key" + i, i);
+        }
+        JsonObject json = object(field("small", object(field("a", 1))), field("large", large));
+        JsonObject parsed = new FastJsonParser(JsonParser.EFFICIENT_STRING_MAP_SETTINGS).parseObject(json.toString());
+        assertThat(parsed.getObject("small")).isInstanceOf(SimpleIntMapJsonObject.class);
+        assertThat(parsed.getObject("large")).isInstanceOf(MapBasedJsonObject.class);
+        assertThat(parsed).isEqualTo(json);
+    }
+
+    public void shouldBeSelectableThroughSettings() throws IOException {
+        JsonObject json = object(field("a", array(1, 2)), field("b", "\u00e9"));
+        byte[] utf8 = json.toString().getBytes(StandardCharsets.UTF_8);
+        assertThat(new JsonParser(JsonParser.FAST_SETTINGS).parse(new ByteArrayInputStream(utf8))).isEqualTo(json);
+    }
+}
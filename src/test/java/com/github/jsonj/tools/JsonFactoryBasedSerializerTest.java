@@ -0,0 +1,43 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonFactoryBasedSerializerTest {
+    private final JsonFactory factory = new JsonFactory();
+    private final JsonFactoryBasedSerializer serializer = () -> factory;
+    private final JsonParser jsonParser = new JsonParser();
+
+    private final JsonObject json = object(
+            field("string", "Töölö \"quoted\"\n😀"),
+            field("numbers", array(42, 0.5, new BigInteger("12345678901234567890"), new BigDecimal("1.23456789"))),
+            field("nested", object(field("empty", array()), field("null", nullValue()), field("bool", true))));
+
+    public void shouldWriteToStream() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(json, bos);
+        JsonElement parsed = jsonParser.parse(new String(bos.toByteArray(), StandardCharsets.UTF_8));
+        assertThat(parsed).isEqualTo(json);
+        assertThat(parsed.asObject().getArray("numbers").get(3).asPrimitive().value()).isEqualTo(new BigDecimal("1.23456789"));
+    }
+
+    public void shouldWriteToWriter() {
+        StringWriter sw = new StringWriter();
+        serializer.serialize(json, sw);
+        assertThat(jsonParser.parse(sw.toString())).isEqualTo(json);
+    }
+}
@@ -61,7 +61,11 @@ import org.testng.annotations.Test;
 
 @Test
 public class JsonParserTest {
-    private final JsonParser jsonParser = new JsonParser();
+    private final JsonParser jsonParser = createParser();
+
+    protected JsonParser createParser() {
+        return new JsonParser();
+    }
 
     @DataProvider
     public @Nonnull Object[][] goodJson() {
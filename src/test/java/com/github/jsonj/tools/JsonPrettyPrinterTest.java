@@ -0,0 +1,75 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonPrettyPrinterTest {
+    private final JsonObject json = object(
+            field("b", array(1, 2, 3)),
+            field("a", object(field("y", array(1, object(field("z", true)))), field("x", array("foo", "bar")))));
+
+    public void shouldPrintTheDefaultFormat() {
+        assertThat(JsonPrettyPrinter.DEFAULT.print(json)).isEqualTo(
+                "{\n"
+                + "\t\"b\":[\n"
+                + "\t\t1,2,3\n"
+                + "\t],\n"
+                + "\t\"a\":{\n"
+                + "\t\t\"y\":[\n"
+                + "\t\t\t1,{\n"
+                + "\t\t\t\t\"z\":true\n"
+                + "\t\t\t}\n"
+                + "\t\t],\n"
+                + "\t\t\"x\":[\n"
+                + "\t\t\t\"foo\",\"bar\"\n"
+                + "\t\t]\n"
+                + "\t}\n"
+                + "}\n");
+        assertThat(json.prettyPrint()).isEqualTo(JsonPrettyPrinter.DEFAULT.print(json));
+    }
+
+    public void shouldPrintToStreamsAndWriters() throws IOException {
+        String expected = JsonPrettyPrinter.DEFAULT.print(json);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        JsonPrettyPrinter.DEFAULT.print(json, bos);
+        assertThat(new String(bos.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected);
+        StringWriter sw = new StringWriter();
+        JsonPrettyPrinter.DEFAULT.print(json, sw);
+        assertThat(sw.toString()).isEqualTo(expected);
+    }
+
+    public void shouldUseConfiguredLayout() {
+        JsonPrettyPrinter printer = JsonPrettyPrinter.DEFAULT.withIndent(' ', 2).withSortedKeys(true).withCompactArrays(16);
+        assertThat(printer.print(json)).isEqualTo(
+                "{\n"
+                + "  \"a\":{\n"
+                + "    \"x\":[\"foo\",\"bar\"],\n"
+                + "    \"y\":[\n"
+                + "      1,{\n"
+                + "        \"z\":true\n"
+                + "      }\n"
+                + "    ]\n"
+                + "  },\n"
+                + "  \"b\":[1,2,3]\n"
+                + "}\n");
+    }
+
+    public void shouldIndentDeeplyNestedObjects() {
+        JsonObject nested = object(field("k", 1));
+        for(int i = 0; i < 20; i++) {
+            nested = object(field("k", nested));
+        }
+        String[] lines = JsonPrettyPrinter.DEFAULT.withIndent(' ', 4).print(nested).split("\n");
+        assertThat(lines[21]).isEqualTo(new String(new char[84]).replace('\0', ' ') + "\"k\":1");
+    }
+}
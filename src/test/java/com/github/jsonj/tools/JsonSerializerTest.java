@@ -29,11 +29,16 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 
+import com.github.jsonj.ByteArraySink;
+import com.github.jsonj.ByteSink;
 import com.github.jsonj.JsonElement;
 import com.github.jsonj.JsonObject;
+import com.github.jsonj.SimpleIntMapJsonObject;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import javax.annotation.Nonnull;
 import org.hamcrest.Matchers;
@@ -135,4 +140,83 @@ public class JsonSerializerTest {
 
         assertThat(json, containsString("001B"));
     }
+
+    @DataProvider
+    public Object[][] escapes() {
+        return new Object[][] {
+                {"plain"},
+                {"\"quotes\" and \\ backslash\r\n\t\b\f"},
+                {"control \u0001\u001B\u007F"},
+                {"T\u00f6\u00f6l\u00f6 \u4e2d"},
+                {"emoji \ud83d\ude00"},
+                {"not in xml \ufffe\uffff\ud800"},
+        };
+    }
+
+    @Test(dataProvider = "escapes")
+    public void shouldWriteTheSameBytesAsTheWriter(String text) throws IOException {
+        JsonObject object = object(field(text, text), field("array", array(text, 42, 0.5, true)));
+        StringWriter sw = new StringWriter();
+        object.serialize(sw);
+        String expected = sw.toString();
+
+        assertThat(object.toString(), is(expected));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        JsonSerializer.serialize(bos, object, false);
+        assertThat(bos.toString(StandardCharsets.UTF_8.name()), is(expected));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        object.serialize(ByteSink.of(buffer));
+        assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8), is(expected));
+    }
+
+    @Test(dataProvider = "escapes")
+    public void shouldKnowWhenEscapingIsNeeded(String text) {
+        boolean changed = !JsonSerializer.jsonEscape(text).equals(text);
+        assertThat(JsonSerializer.needsEscaping(text), is(changed));
+        assertThat(JsonSerializer.needsEscaping(text.getBytes(StandardCharsets.UTF_8)), is(changed));
+        assertThat(JsonSerializer.escapeKey(text), is(JsonSerializer.jsonEscape(text)));
+        // cached the second time around
+        assertThat(JsonSerializer.escapeKey(text), is(JsonSerializer.jsonEscape(text)));
+    }
+
+    @Test(dataProvider = "escapes")
+    public void shouldWriteKeys(String text) throws IOException {
+        ByteArraySink sink = new ByteArraySink();
+        JsonSerializer.writeKey(sink, text);
+        assertThat(sink.toString(), is("\"" + JsonSerializer.jsonEscape(text) + "\":"));
+        assertThat(JsonSerializer.keyFragment(text) == JsonSerializer.keyFragment(text), is(true));
+
+        JsonObject object = new SimpleIntMapJsonObject();
+        object.put(text, 1);
+        StringWriter sw = new StringWriter();
+        object.serialize(sw);
+        assertThat(object.toString(), is(sw.toString()));
+    }
+
+    public void shouldSerializeToArraysAndBuffers() {
+        JsonObject object = object(field("name", "T\u00f6\u00f6l\u00f6"), field("values", array(1, 2, 3)));
+        String json = object.toString();
+        byte[] bytes = new byte[100];
+        int length = JsonSerializer.serializeTo(object, bytes, 10);
+        assertThat(new String(bytes, 10, length, StandardCharsets.UTF_8), is(json));
+
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        buffer.put((byte) 'x');
+        assertThat(JsonSerializer.serializeTo(object, buffer), is(length));
+        assertThat(buffer.position(), is(length + 1));
+    }
+
+    @Test(expectedExceptions = BufferOverflowException.class)
+    public void shouldNotSerializeToTooSmallBuffer() {
+        JsonSerializer.serializeTo(object(field("name", "value")), new byte[10], 0);
+    }
+
+    public void shouldReuseRecycledSinks() {
+        ByteArraySink sink = ByteArraySink.recycled();
+        sink.write('x');
+        sink.release();
+        assertThat(sink.size(), is(0));
+        sink.write('y');
+        assertThat(sink.toString(), is("y"));
+    }
 }
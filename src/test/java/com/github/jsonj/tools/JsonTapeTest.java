@@ -0,0 +1,157 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.field;
+import static com.github.jsonj.tools.JsonBuilder.nullValue;
+import static com.github.jsonj.tools.JsonBuilder.object;
+import static com.github.jsonj.tools.JsonBuilder.primitive;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.jsonj.JsonArray;
+import com.github.jsonj.JsonElement;
+import com.github.jsonj.JsonObject;
+import com.github.jsonj.MapBasedJsonObject;
+import com.github.jsonj.SimpleIntMapJsonObject;
+import com.github.jsonj.exceptions.JsonParseException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@Test
+public class JsonTapeTest {
+    private final JsonParser jsonParser = new JsonParser();
+
+    @DataProvider
+    public Object[][] documents() {
+        return new Object[][] {
+                {"{}"},
+                {"[]"},
+                {"42"},
+                {"\"foo\""},
+                {"null"},
+                {"{\"a\":[1,2.5,-3e2,true,false,null,[],{}],\"b\":{\"c\":\"d\"}}"},
+                {"[1234567890123456789, 1.2345678, 123456789012345678, 1.23456, 1e300]"},
+                {"\"\\u00e9\\ud83d\\ude00 \\\"quoted\\\"\\n\\t\\/\""},
+                {"{\"a\":1,\"b\":{\"x\":1,\"x\":[2]},\"a\":3}"},
+        };
+    }
+
+    @Test(dataProvider = "documents")
+    public void shouldMatchTheParser(String json) {
+        JsonElement expected = jsonParser.parse(json);
+        JsonTape tape = JsonTape.parse(json);
+        assertThat(tape.materialize()).isEqualTo(expected);
+        assertThat(tape.root()).isEqualTo(expected);
+        assertThat(tape.root().toString()).isEqualTo(expected.toString());
+    }
+
+    public void shouldKeepNumberTypes() {
+        JsonObject object = JsonTape.parse("{\"l\":42,\"d\":0.5,\"bi\":12345678901234567890,\"bd\":1.23456789}").root().asObject();
+        assertThat(object.get("l").asPrimitive().value()).isEqualTo(42L);
+        assertThat(object.get("d").asPrimitive().value()).isEqualTo(0.5);
+        assertThat(object.get("bi").asPrimitive().value()).isEqualTo(new BigInteger("12345678901234567890"));
+        assertThat(object.get("bd").asPrimitive().value()).isEqualTo(new BigDecimal("1.23456789"));
+    }
+
+    public void shouldNavigateViews() {
+        JsonObject original = object(
+                field("name", "Bob"),
+                field("address", object(field("city", "Berlin"), field("zip", 10115))),
+                field("tags", array("a", object(field("x", nullValue())))));
+        JsonObject view = JsonTape.parse(original.toString()).root().asObject();
+        assertThat(view).isInstanceOf(TapeObjectView.class);
+        assertThat(view.getString("address", "city")).isEqualTo("Berlin");
+        assertThat(view.getInt("address", "zip")).isEqualTo(10115);
+        assertThat(view.get("address", "missing")).isNull();
+        assertThat(view.getArray("tags").get(1).asObject().get("x").isNull()).isTrue();
+        assertThat(view.keySet()).containsExactly("name", "address", "tags");
+        assertThat(view.hashCode()).isEqualTo(original.hashCode());
+        assertThat(view.materialize().isMutable()).isTrue();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotAllowChanges() {
+        JsonTape.parse("{\"a\":1}").root().asObject().put("b", 2);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldNotAllowChangesToArrays() {
+        JsonTape.parse("{\"a\":[1]}").root().asObject().getArray("a").add(2);
+    }
+
+    public void shouldUseMapBasedObjectsForLargeObjects() {
+        JsonObject object = new JsonObject();
+        for(int i = 0; i < 150; i++) {
+            object.put("key" + i, i);
+        }
+        JsonElement materialized = JsonTape.parse(object.toString()).materialize();
+        assertThat(materialized.getClass()).isEqualTo(jsonParser.parse(object.toString()).getClass());
+    }
+
+    public void shouldMaterializeWithSettings() {
+        JsonObject object = new JsonObject();
+        for(int i = 0; i < 150; i++) {
+            object.put("key" + i, i);
+        }
+        JsonTape tape = JsonTape.parse(object(field("small", object(field("a", 1))), field("large", object)).toString());
+        JsonObject materialized = tape.materialize(JsonParser.EFFICIENT_STRING_MAP_SETTINGS).asObject();
+        assertThat(materialized.get("small")).isInstanceOf(SimpleIntMapJsonObject.class);
+        assertThat(materialized.get("large")).isInstanceOf(MapBasedJsonObject.class);
+        assertThat(materialized).isEqualTo(tape.materialize());
+    }
+
+    public void shouldNavigateArrayViews() {
+        JsonArray array = JsonTape.parse("[[1,[2,[3]]],{\"x\":[4]},\"s\",7]").root().asArray();
+        assertThat(array).isInstanceOf(TapeArrayView.class);
+        assertThat(array.get(0)).isInstanceOf(TapeArrayView.class);
+        assertThat(array.get(1).asObject().getArray("x").get(0).asInt()).isEqualTo(4);
+        assertThat(array.last().asInt()).isEqualTo(7);
+        assertThat(array.indexOf(primitive("s"))).isEqualTo(2);
+        assertThat(array.subList(1, 3).get(1).asString()).isEqualTo("s");
+        assertThat(array.stream().filter(JsonElement::isPrimitive).count()).isEqualTo(2);
+        assertThat(array.deepClone().isMutable()).isTrue();
+        assertThat(array.deepClone()).isEqualTo(array);
+    }
+
+    @DataProvider
+    public Object[][] malformedJson() {
+        return new Object[][] {
+                {""},
+                {"foo"},
+                {"{\"foo\"=\"bar\"}"},
+                {"[1,]"},
+                {"01"},
+                {"1."},
+                {"{} x"},
+                {"\"unterminated"},
+                {"\"\\x\""},
+                {"{\"a\":1"},
+        };
+    }
+
+    @Test(expectedExceptions = JsonParseException.class, dataProvider = "malformedJson")
+    public void shouldNotParseMalformedJson(String json) {
+        JsonTape.parse(json);
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldNotParseInvalidUtf8() {
+        JsonTape.parse(new byte[] {'"', (byte) 0xC0, (byte) 0x80, '"'});
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void shouldNotParseTruncatedDocument() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("samplejson/test_malformed_1.json")) {
+            byte[] buffer = new byte[64 * 1024];
+            int length = 0;
+            int read;
+            while((read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            JsonTape.parse(buffer, 0, length);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jsonj.tools;
+
+import static com.github.jsonj.tools.JsonBuilder.array;
+import static com.github.jsonj.tools.JsonBuilder.object;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.github.jsonj.JsonObject;
+
+@Test
+public class JsonXmlWriterTest {
+    public void shouldStreamXml() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        JsonXmlWriter.write(sampleJson(), "r", bos);
+        String xml = new String(bos.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.contains("<r><foo>bar</foo><bar><ol><li>foo</li><li>bar</li></ol></bar>"), xml);
+        Assert.assertTrue(xml.contains("<_1>1</_1>"), xml);
+        Assert.assertTrue(xml.contains("&gt;&lt;"), xml);
+    }
+
+    public void shouldStreamTheSameXmlFromParserTokens() throws IOException, XMLStreamException {
+        JsonObject sampleJson = sampleJson();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        JsonXmlWriter.write(sampleJson, bos);
+
+        StringWriter sw = new StringWriter();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(sw);
+        writer.writeStartDocument("UTF-8", "1.0");
+        JsonXmlWriter.write(new JsonFactory().createParser(sampleJson.toString()), "root", writer);
+        writer.writeEndDocument();
+        writer.close();
+        Assert.assertEquals(sw.toString(), new String(bos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    public void shouldSanitizeTagNames() {
+        Assert.assertEquals(JsonXmlWriter.tagName("foo"), "foo");
+        Assert.assertEquals(JsonXmlWriter.tagName("1"), "_1");
+        Assert.assertEquals(JsonXmlWriter.tagName("a b"), "_a_b");
+    }
+
+    public void shouldOnlyAcceptSurrogatePairsInTagNames() {
+        // U+10000 is a valid name character, U+F0000 is beyond the range xml allows in names
+        Assert.assertEquals(JsonXmlWriter.tagName("\ud800\udc00x"), "\ud800\udc00x");
+        Assert.assertEquals(JsonXmlWriter.tagName("x\udb80\udc00"), "_x_");
+        Assert.assertEquals(JsonXmlWriter.tagName("\ud800"), "__");
+        Assert.assertEquals(JsonXmlWriter.tagName("a\udc00b"), "_a_b");
+        Assert.assertEquals(JsonXmlWriter.tagName("a\ud800"), "_a_");
+    }
+
+    private JsonObject sampleJson() {
+        return object().put("foo", "bar").put("bar", array("foo","bar")).put("foobar", object().put("1", 1).put("2", 2).get()).put("escapeme", "><").get();
+    }
+}
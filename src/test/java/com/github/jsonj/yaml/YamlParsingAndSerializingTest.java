@@ -10,6 +10,11 @@ import com.github.jsonj.JsonObject;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.testng.annotations.Test;
 
 @Test
@@ -36,4 +41,29 @@ public class YamlParsingAndSerializingTest {
         assertThat(e.isObject()).isEqualTo(true);
     }
 
+    public void shouldParseDocumentStream() {
+        String yaml = "---\nkind: Service\nport: 80\n---\nkind: Deployment\nreplicas: 3\n---\n- a\n- b\n";
+        try(Stream<JsonElement> documents = new YamlParser().parseDocuments(new StringReader(yaml))) {
+            assertThat(documents.collect(Collectors.toList())).containsExactly(
+                    object(field("kind", "Service"), field("port", 80)),
+                    object(field("kind", "Deployment"), field("replicas", 3)),
+                    array("a", "b"));
+        }
+    }
+
+    public void shouldWriteAndReadDocuments() throws IOException {
+        List<JsonElement> documents = Arrays.asList(
+                object(field("id", 1), field("tags", array("x", "y"))),
+                object(field("id", 2), field("nested", object(field("value", 0.5)))),
+                array(1, 2, 3));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try(YamlWriter writer = new YamlSerializer().writer(bos)) {
+            for(JsonElement document : documents) {
+                writer.write(document);
+            }
+        }
+        try(Stream<JsonElement> parsed = new YamlParser().parseDocuments(new ByteArrayInputStream(bos.toByteArray()))) {
+            assertThat(parsed.collect(Collectors.toList())).isEqualTo(documents);
+        }
+    }
 }